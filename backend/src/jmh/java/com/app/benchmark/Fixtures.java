@@ -0,0 +1,166 @@
+package com.app.benchmark;
+
+import com.app.model.Activity;
+import com.app.model.ActivityAdjustment;
+import com.app.model.ActivityPhoto;
+import com.app.model.ActivityType;
+import com.app.model.BonusType;
+import com.app.model.Event;
+import com.app.model.Participant;
+import com.app.model.ReactionType;
+import com.app.model.Team;
+import com.app.model.TeamParticipant;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Детерминированный набор данных для бенчмарков.
+ *
+ * Все значения получаются из Random с фиксированным seed, поэтому при одинаковых
+ * параметрах каждый прогон работает с одними и теми же командами, участниками
+ * и историей активностей. Даты отсчитываются от текущего дня, чтобы серии
+ * (streak) в рейтинге регулярности были непустыми.
+ */
+public final class Fixtures {
+    
+    public static final long SEED = 42L;
+    
+    private static final String[] ACTIVITY_TYPES = {"Бег", "Велосипед", "Плавание", "Йога", "Силовая тренировка", "Ходьба"};
+    
+    // Share of (participant, day) pairs that have an activity
+    private static final double ACTIVITY_PROBABILITY = 0.4;
+    
+    public final Event event;
+    public final List<Team> teams = new ArrayList<>();
+    public final List<Participant> participants = new ArrayList<>();
+    public final List<Activity> activities = new ArrayList<>();
+    public final Map<Long, List<TeamParticipant>> membersByTeam = new HashMap<>();
+    public final Map<Long, List<Activity>> activitiesByTeam = new HashMap<>();
+    public final Map<Long, List<Activity>> activitiesByParticipant = new HashMap<>();
+    public final Map<Long, Integer> pointsByTeam = new HashMap<>();
+    public final Map<Long, List<Object[]>> reactionCountsByActivity = new HashMap<>();
+    public final Map<Long, Long> commentCountByActivity = new HashMap<>();
+    
+    private Fixtures(int teamCount, int membersPerTeam, int days) {
+        Random random = new Random(SEED);
+        
+        event = new Event();
+        event.setId(1L);
+        event.setName("Benchmark event");
+        
+        List<ActivityType> types = new ArrayList<>();
+        for (int i = 0; i < ACTIVITY_TYPES.length; i++) {
+            ActivityType type = new ActivityType();
+            type.setId((long) i + 1);
+            type.setName(ACTIVITY_TYPES[i]);
+            type.setEvent(event);
+            types.add(type);
+        }
+        
+        BonusType bonus = new BonusType();
+        bonus.setId(1L);
+        bonus.setName("Фото с трассы");
+        bonus.setPointsAdjustment(5);
+        
+        LocalDate today = LocalDate.now();
+        long participantId = 1;
+        long activityId = 1;
+        for (long teamId = 1; teamId <= teamCount; teamId++) {
+            Team team = new Team();
+            team.setId(teamId);
+            team.setName("Команда " + teamId);
+            team.setImageUrl("/uploads/teams/" + teamId + ".jpg");
+            team.setEvent(event);
+            teams.add(team);
+            
+            List<TeamParticipant> members = new ArrayList<>();
+            List<Activity> teamActivities = new ArrayList<>();
+            int teamPoints = 0;
+            for (int m = 0; m < membersPerTeam; m++) {
+                Participant participant = new Participant();
+                participant.setId(participantId);
+                participant.setUsername("user" + participantId);
+                participant.setName("Участник " + participantId);
+                participant.setProfileImageUrl("/uploads/profiles/" + participantId + ".jpg");
+                participants.add(participant);
+                participantId++;
+                
+                TeamParticipant member = new TeamParticipant();
+                member.setTeam(team);
+                member.setParticipant(participant);
+                members.add(member);
+                
+                List<Activity> participantActivities = new ArrayList<>();
+                for (int day = 0; day < days; day++) {
+                    if (random.nextDouble() >= ACTIVITY_PROBABILITY) {
+                        continue;
+                    }
+                    Activity activity = new Activity();
+                    activity.setId(activityId);
+                    activity.setTeam(team);
+                    activity.setParticipant(participant);
+                    activity.setActivityType(types.get(random.nextInt(types.size())));
+                    activity.setEnergy(10 + random.nextInt(91));
+                    activity.setDurationMinutes(15 + random.nextInt(106));
+                    activity.setDescription("Тренировка " + activityId);
+                    activity.setCreatedAt(today.minusDays(day).atTime(6 + random.nextInt(16), random.nextInt(60)));
+                    
+                    int photoCount = random.nextInt(4);
+                    for (int p = 0; p < photoCount; p++) {
+                        ActivityPhoto photo = new ActivityPhoto();
+                        photo.setActivity(activity);
+                        photo.setPhotoUrl("/uploads/activities/" + activityId + "-" + p + ".jpg");
+                        photo.setDisplayOrder(p);
+                        activity.getPhotos().add(photo);
+                    }
+                    if (!activity.getPhotos().isEmpty()) {
+                        activity.setPhotoUrl(activity.getPhotos().get(0).getPhotoUrl());
+                    }
+                    if (random.nextInt(10) == 0) {
+                        ActivityAdjustment adjustment = new ActivityAdjustment();
+                        adjustment.setActivity(activity);
+                        adjustment.setBonusType(bonus);
+                        adjustment.setPointsAdjustment(bonus.getPointsAdjustment());
+                        activity.getAdjustments().add(adjustment);
+                    }
+                    
+                    List<Object[]> reactionCounts = new ArrayList<>();
+                    for (ReactionType type : ReactionType.values()) {
+                        int count = random.nextInt(4);
+                        if (count > 0) {
+                            reactionCounts.add(new Object[]{type, (long) count});
+                        }
+                    }
+                    reactionCountsByActivity.put(activityId, reactionCounts);
+                    commentCountByActivity.put(activityId, (long) random.nextInt(6));
+                    
+                    teamPoints += activity.getEnergy();
+                    participantActivities.add(activity);
+                    activities.add(activity);
+                    activityId++;
+                }
+                participantActivities.sort(Comparator.comparing(Activity::getCreatedAt).reversed());
+                activitiesByParticipant.put(participant.getId(), participantActivities);
+                teamActivities.addAll(participantActivities);
+            }
+            teamActivities.sort(Comparator.comparing(Activity::getCreatedAt).reversed());
+            membersByTeam.put(teamId, members);
+            activitiesByTeam.put(teamId, teamActivities);
+            pointsByTeam.put(teamId, teamPoints);
+        }
+        activities.sort(Comparator.comparing(Activity::getCreatedAt).reversed());
+    }
+    
+    /**
+     * Сгенерировать набор: teamCount команд по membersPerTeam участников с историей за days дней
+     */
+    public static Fixtures generate(int teamCount, int membersPerTeam, int days) {
+        return new Fixtures(teamCount, membersPerTeam, days);
+    }
+}
@@ -0,0 +1,56 @@
+package com.app.benchmark;
+
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Заглушки репозиториев и внедрение зависимостей без Spring-контекста.
+ *
+ * Бенчмарки измеряют код сервисов, а не базу данных, поэтому репозитории
+ * заменяются прокси, отвечающими заранее подготовленными данными из Fixtures.
+ */
+public final class Stubs {
+    
+    private Stubs() {
+    }
+    
+    /**
+     * Прокси репозитория: метод отвечает функцией из answers по имени, остальные бросают исключение
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        return "Stub " + type.getSimpleName();
+                }
+            }
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer == null) {
+                throw new UnsupportedOperationException("Not stubbed: " + type.getSimpleName() + "." + method.getName());
+            }
+            return answer.apply(args);
+        });
+    }
+    
+    /**
+     * Записать значение в поле с @Autowired
+     */
+    public static void inject(Object target, String fieldName, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), fieldName);
+        if (field == null) {
+            throw new IllegalArgumentException("No field " + fieldName + " in " + target.getClass().getSimpleName());
+        }
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
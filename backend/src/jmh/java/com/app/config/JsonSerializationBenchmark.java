@@ -0,0 +1,142 @@
+package com.app.config;
+
+import com.app.benchmark.Fixtures;
+import com.app.dto.ActivityResponse;
+import com.app.dto.ImageInfo;
+import com.app.model.Activity;
+import com.app.model.ActivityPhoto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Сериализация страницы ленты: рефлексивный Jackson, Blackbird, компактный
+ * формат (JacksonConfig.COMPACT_JSON) и те же варианты со сжатием gzip.
+ *
+ * Размер страницы в байтах для каждого варианта печатается при старте форка.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class JsonSerializationBenchmark {
+    
+    @Param({"20", "100"})
+    private int pageSize;
+    
+    private List<ActivityResponse> page;
+    
+    private ObjectMapper reflective;
+    
+    private ObjectMapper blackbird;
+    
+    private ObjectMapper compact;
+    
+    @Setup
+    public void setUp() throws IOException {
+        Fixtures fixtures = Fixtures.generate(10, 10, 30);
+        page = new ArrayList<>(pageSize);
+        for (Activity activity : fixtures.activities.subList(0, pageSize)) {
+            page.add(toResponse(activity, fixtures));
+        }
+        
+        // Same defaults as the ObjectMapper auto-configured by Spring Boot
+        reflective = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        blackbird = reflective.copy().registerModule(new BlackbirdModule());
+        compact = JacksonConfig.compactObjectMapper(blackbird);
+        
+        System.out.printf("%nBytes per page of %d: json=%d, json+gzip=%d, compact=%d, compact+gzip=%d%n",
+                pageSize, json().length, gzip(json()).length, compact().length, gzip(compact()).length);
+    }
+    
+    @Benchmark
+    public byte[] reflectiveJson() throws IOException {
+        return reflective.writeValueAsBytes(page);
+    }
+    
+    @Benchmark
+    public byte[] json() throws IOException {
+        return blackbird.writeValueAsBytes(page);
+    }
+    
+    @Benchmark
+    public byte[] compact() throws IOException {
+        return compact.writeValueAsBytes(page);
+    }
+    
+    @Benchmark
+    public byte[] jsonGzip() throws IOException {
+        return gzip(blackbird.writeValueAsBytes(page));
+    }
+    
+    @Benchmark
+    public byte[] compactGzip() throws IOException {
+        return gzip(compact.writeValueAsBytes(page));
+    }
+    
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+    
+    private static ActivityResponse toResponse(Activity a, Fixtures fixtures) {
+        Map<String, Integer> reactionCounts = fixtures.reactionCountsByActivity.get(a.getId()).stream()
+                .collect(Collectors.toMap(row -> row[0].toString(), row -> ((Long) row[1]).intValue()));
+        return new ActivityResponse(
+                a.getId(),
+                a.getActivityType().getName(),
+                a.getEnergy(),
+                a.getEnergy(),
+                a.getDurationMinutes(),
+                a.getDescription(),
+                a.getParticipant().getName(),
+                a.getParticipant().getId(),
+                a.getParticipant().getProfileImageUrl(),
+                a.getPhotoUrl(),
+                a.getPhotos().stream().map(ActivityPhoto::getPhotoUrl).collect(Collectors.toList()),
+                a.getPhotos().stream()
+                        .map(p -> new ImageInfo(p.getPhotoUrl(), p.getWidth(), p.getHeight(), p.getPlaceholder()))
+                        .collect(Collectors.toList()),
+                a.getCreatedAt(),
+                a.getTeam().getId(),
+                a.getTeam().getName(),
+                a.getTeam().getImageUrl(),
+                a.getTeam().getImagePlaceholder(),
+                a.getTeam().getEvent().getId(),
+                a.getTeam().getEvent().getName(),
+                true,
+                reactionCounts,
+                null,
+                reactionCounts.values().stream().mapToInt(Integer::intValue).sum(),
+                fixtures.commentCountByActivity.get(a.getId()).intValue()
+        );
+    }
+}
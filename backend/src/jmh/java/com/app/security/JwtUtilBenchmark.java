@@ -0,0 +1,53 @@
+package com.app.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выпуск и проверка JWT — выполняется JwtAuthenticationFilter на каждом запросе
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class JwtUtilBenchmark {
+    
+    private static final String USERNAME = "benchmark_user";
+    
+    private JwtUtil jwtUtil;
+    
+    private String token;
+    
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        token = jwtUtil.generateToken(USERNAME, 42L);
+    }
+    
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(USERNAME, 42L);
+    }
+    
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtil.extractUsername(token);
+    }
+    
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token, USERNAME);
+    }
+}
@@ -0,0 +1,81 @@
+package com.app.service;
+
+import com.app.benchmark.Fixtures;
+import com.app.benchmark.Stubs;
+import com.app.dto.ActivityResponse;
+import com.app.model.Activity;
+import com.app.repository.ActivityCommentRepository;
+import com.app.repository.ActivityReactionRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сборка ActivityResponse для страницы ленты (ActivityService.toActivityResponse).
+ *
+ * Репозитории реакций и комментариев заменены заглушками, так что измеряется
+ * только сборка DTO: фото, корректировки баллов, счётчики реакций.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ActivityResponseBenchmark {
+    
+    @Param({"20", "100"})
+    private int pageSize;
+    
+    private ActivityService activityService;
+    
+    private List<Activity> page;
+    
+    private Long currentUserId;
+    
+    @Setup
+    public void setUp() {
+        Fixtures fixtures = Fixtures.generate(10, 10, 30);
+        page = fixtures.activities.subList(0, pageSize);
+        currentUserId = fixtures.participants.get(0).getId();
+        
+        ActivityReactionService reactionService = new ActivityReactionService();
+        Stubs.inject(reactionService, "activityReactionRepository", Stubs.repository(ActivityReactionRepository.class, Map.of(
+                "countReactionsByActivityId", args -> fixtures.reactionCountsByActivity.get((Long) args[0]),
+                "countByActivityId", args -> fixtures.reactionCountsByActivity.get((Long) args[0]).stream()
+                        .mapToLong(row -> (Long) row[1])
+                        .sum(),
+                "findByActivityIdAndParticipantId", args -> Optional.empty())));
+        
+        ActivityCommentService commentService = new ActivityCommentService();
+        Stubs.inject(commentService, "activityCommentRepository", Stubs.repository(ActivityCommentRepository.class, Map.of(
+                "countByActivityId", args -> fixtures.commentCountByActivity.get((Long) args[0]))));
+        
+        activityService = new ActivityService();
+        Stubs.inject(activityService, "activityReactionService", reactionService);
+        Stubs.inject(activityService, "activityCommentService", commentService);
+    }
+    
+    @Benchmark
+    public List<ActivityResponse> assemblePage() {
+        List<ActivityResponse> responses = new ArrayList<>(page.size());
+        for (Activity activity : page) {
+            responses.add(activityService.toActivityResponse(activity, currentUserId));
+        }
+        return responses;
+    }
+}
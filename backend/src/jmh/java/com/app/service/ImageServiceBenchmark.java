@@ -0,0 +1,110 @@
+package com.app.service;
+
+import com.app.benchmark.Stubs;
+import com.app.dto.ImageInfo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Обработка загруженных фото: декодирование из файла, уменьшение до 800x800 и JPEG-сжатие в файл.
+ *
+ * Исходное изображение генерируется из фиксированного seed (градиент с шумом,
+ * чтобы JPEG не сжимался вырожденно) для типичных размеров фото с телефона.
+ * Файлы пишутся во временный каталог, который удаляется после прогона.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g", "-Djava.awt.headless=true"})
+public class ImageServiceBenchmark {
+    
+    @Param({"640x480", "1920x1080", "4032x3024"})
+    private String size;
+    
+    private ImageService imageService;
+    
+    private Path workDir;
+    
+    private BufferedImage source;
+    
+    private BufferedImage resized;
+    
+    private Path uploaded;
+    
+    @Setup
+    public void setUp() throws IOException {
+        workDir = Files.createTempDirectory("image-benchmark");
+        imageService = new ImageService();
+        Stubs.inject(imageService, "uploadBasePath", workDir.resolve("uploads").toString());
+        Stubs.inject(imageService, "spoolPath", workDir.resolve("spool").toString());
+        Stubs.inject(imageService, "meterRegistry", new SimpleMeterRegistry());
+        imageService.init();
+        
+        String[] dimensions = size.split("x");
+        source = generateImage(Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1]));
+        resized = imageService.resizeImage(source, 800, 800);
+        uploaded = workDir.resolve("upload.jpg");
+        ImageIO.write(source, "jpg", uploaded.toFile());
+    }
+    
+    @TearDown
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(workDir);
+    }
+    
+    @Benchmark
+    public BufferedImage resize() {
+        return imageService.resizeImage(source, 800, 800);
+    }
+    
+    @Benchmark
+    public long encode() throws IOException {
+        Path target = workDir.resolve("encoded.jpg");
+        imageService.writeJpegAtomically(resized, target);
+        return Files.size(target);
+    }
+    
+    @Benchmark
+    public ImageInfo decodeResizeEncode() throws IOException {
+        ImageInfo image = imageService.saveActivityImage(uploaded, "benchmark.jpg");
+        // Keeps the temp directory from growing by one file per invocation
+        imageService.deleteImage(image.getUrl());
+        return image;
+    }
+    
+    private static BufferedImage generateImage(int width, int height) {
+        Random random = new Random(42L);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int r = (x * 255 / width + random.nextInt(32)) & 0xFF;
+                int g = (y * 255 / height + random.nextInt(32)) & 0xFF;
+                int b = ((x + y) * 255 / (width + height) + random.nextInt(32)) & 0xFF;
+                image.setRGB(x, y, (r << 16) | (g << 8) | b);
+            }
+        }
+        return image;
+    }
+}
@@ -0,0 +1,97 @@
+package com.app.service;
+
+import com.app.benchmark.Fixtures;
+import com.app.benchmark.Stubs;
+import com.app.dto.ParticipantRankingResponse;
+import com.app.dto.TeamRegularityResponse;
+import com.app.repository.ActivityRepository;
+import com.app.repository.ParticipantRepository;
+import com.app.repository.TeamParticipantRepository;
+import com.app.repository.TeamRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Рейтинги: регулярность команд (серии, календарь 14 дней) и баллы участников.
+ *
+ * Репозитории отвечают готовыми списками из Fixtures, поэтому результат
+ * показывает стоимость самих алгоритмов без учёта запросов к БД.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class RankingBenchmark {
+    
+    @Param({"10", "50"})
+    private int teams;
+    
+    @Param({"10"})
+    private int membersPerTeam;
+    
+    @Param({"90"})
+    private int days;
+    
+    private TeamService teamService;
+    
+    private ParticipantService participantService;
+    
+    private Long eventId;
+    
+    @Setup
+    public void setUp() {
+        Fixtures fixtures = Fixtures.generate(teams, membersPerTeam, days);
+        eventId = fixtures.event.getId();
+        
+        TeamRepository teamRepository = Stubs.repository(TeamRepository.class, Map.of(
+                "findAll", args -> fixtures.teams));
+        TeamParticipantRepository teamParticipantRepository = Stubs.repository(TeamParticipantRepository.class, Map.of(
+                "getTotalPointsByTeamId", args -> fixtures.pointsByTeam.get((Long) args[0]),
+                "findByTeamId", args -> fixtures.membersByTeam.get((Long) args[0])));
+        ActivityRepository activityRepository = Stubs.repository(ActivityRepository.class, Map.of(
+                "findByTeamIdOrderByCreatedAtDesc", args -> fixtures.activitiesByTeam.get((Long) args[0]),
+                "findByParticipantIdOrderByCreatedAtDesc", args -> fixtures.activitiesByParticipant.get((Long) args[0])));
+        ParticipantRepository participantRepository = Stubs.repository(ParticipantRepository.class, Map.of(
+                "findAll", args -> fixtures.participants));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        
+        teamService = new TeamService();
+        Stubs.inject(teamService, "teamRepository", teamRepository);
+        Stubs.inject(teamService, "teamParticipantRepository", teamParticipantRepository);
+        Stubs.inject(teamService, "activityRepository", activityRepository);
+        Stubs.inject(teamService, "meterRegistry", meterRegistry);
+        teamService.initMetrics();
+        
+        participantService = new ParticipantService();
+        Stubs.inject(participantService, "participantRepository", participantRepository);
+        Stubs.inject(participantService, "activityRepository", activityRepository);
+        Stubs.inject(participantService, "meterRegistry", meterRegistry);
+        participantService.initMetrics();
+    }
+    
+    @Benchmark
+    public List<TeamRegularityResponse> teamRegularityStats() {
+        return teamService.getTeamRegularityStats();
+    }
+    
+    @Benchmark
+    public List<ParticipantRankingResponse> participantRankings() {
+        return participantService.getParticipantRankings(eventId);
+    }
+}
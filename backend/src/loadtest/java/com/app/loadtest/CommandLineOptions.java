@@ -0,0 +1,45 @@
+package com.app.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Разбор аргументов вида --key=value (флаг без значения считается true)
+ */
+final class CommandLineOptions {
+    
+    private final Map<String, String> values = new HashMap<>();
+    
+    CommandLineOptions(String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                values.put(arg.substring(2), "true");
+            } else {
+                values.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+    }
+    
+    String get(String key, String defaultValue) {
+        return values.getOrDefault(key, defaultValue);
+    }
+    
+    int getInt(String key, int defaultValue) {
+        String value = values.get(key);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+    
+    long getLong(String key, long defaultValue) {
+        String value = values.get(key);
+        return value != null ? Long.parseLong(value) : defaultValue;
+    }
+    
+    double getDouble(String key, double defaultValue) {
+        String value = values.get(key);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+}
@@ -0,0 +1,453 @@
+package com.app.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Нагрузочный сценарий против локального экземпляра backend.
+ *
+ * Каждый виртуальный пользователь входит под одним из логинов, созданных
+ * SyntheticDataGenerator, и в цикле выполняет смесь действий реального трафика:
+ * прокрутка ленты, реакции, публикация активности с фото, просмотр рейтингов
+ * и опрос уведомлений, с паузой think time между действиями. Модель закрытая:
+ * при деградации сервера падает пропускная способность, а не растёт очередь,
+ * поэтому задержки стоит читать вместе с throughput.
+ *
+ * После прогрева считаются перцентили задержек (HdrHistogram) и пропускная
+ * способность по каждой операции; отчёт печатается и пишется в --report (JSON).
+ *
+ * Пример: mvn -P loadtest compile exec:exec -Dloadtest.args="--users=200 --duration=300 --event-id=1"
+ */
+public class LoadTestDriver {
+    
+    private static final String FEED = "feed";
+    private static final String REACTION = "reaction";
+    private static final String POST_ACTIVITY = "post-activity";
+    private static final String RANKINGS = "rankings";
+    private static final String NOTIFICATIONS = "notifications";
+    private static final String LOGIN = "login";
+    
+    private static final String[] REACTION_TYPES = {"LIKE", "FIRE", "STRONG", "CLAP", "LOVE"};
+    
+    private static final String[] ACTIVITY_TYPES = {"Бег", "Ходьба", "Велосипед", "Плавание", "Йога"};
+    
+    private static final String DEFAULT_MIX = FEED + ":45," + REACTION + ":20," + POST_ACTIVITY + ":5,"
+            + RANKINGS + ":15," + NOTIFICATIONS + ":15";
+    
+    // Highest trackable latency is one hour; 3 significant digits
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.HOURS.toMicros(1);
+    
+    private final CommandLineOptions options;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final Duration requestTimeout;
+    private final Long eventId;
+    private final long thinkTimeMillis;
+    private final Map<String, Integer> mix = new LinkedHashMap<>();
+    private final Map<String, OperationStats> stats = new LinkedHashMap<>();
+    private final byte[] photo;
+    
+    private volatile boolean running = true;
+    
+    public LoadTestDriver(CommandLineOptions options) throws IOException {
+        this.options = options;
+        this.baseUrl = options.get("base-url", "http://localhost:8080");
+        this.requestTimeout = Duration.ofMillis(options.getLong("timeout-ms", 10_000));
+        String event = options.get("event-id", null);
+        this.eventId = event != null ? Long.valueOf(event) : null;
+        this.thinkTimeMillis = options.getLong("think-time-ms", 1000);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        for (String entry : options.get("mix", DEFAULT_MIX).split(",")) {
+            String[] parts = entry.split(":");
+            mix.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+        }
+        for (String operation : List.of(LOGIN, FEED, REACTION, POST_ACTIVITY, RANKINGS, NOTIFICATIONS)) {
+            stats.put(operation, new OperationStats());
+        }
+        this.photo = generatePhoto(new Random(options.getLong("seed", 42L)));
+    }
+    
+    public static void main(String[] args) throws Exception {
+        new LoadTestDriver(new CommandLineOptions(args)).run();
+    }
+    
+    private void run() throws Exception {
+        int userCount = options.getInt("users", 100);
+        long warmupSeconds = options.getLong("warmup", 30);
+        long durationSeconds = options.getLong("duration", 300);
+        long seed = options.getLong("seed", 42L);
+        
+        List<String[]> accounts = readUsers(Paths.get(options.get("users-file", "target/loadtest-users.csv")));
+        Random picker = new Random(seed);
+        List<VirtualUser> users = new ArrayList<>();
+        for (int i = 0; i < userCount; i++) {
+            String[] account = accounts.get(picker.nextInt(accounts.size()));
+            users.add(new VirtualUser(account[0], Long.parseLong(account[1]), Long.parseLong(account[2]),
+                    new Random(seed + i + 1)));
+        }
+        
+        System.out.printf("Logging in %d users against %s...%n", userCount, baseUrl);
+        ExecutorService pool = Executors.newFixedThreadPool(userCount);
+        for (VirtualUser user : users) {
+            pool.submit(user::login);
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.MINUTES);
+        users.removeIf(user -> user.token == null);
+        if (users.isEmpty()) {
+            throw new RuntimeException("No user could log in; run SyntheticDataGenerator first");
+        }
+        
+        System.out.printf("Running %d users: warmup %d s, measurement %d s, mix %s%n",
+                users.size(), warmupSeconds, durationSeconds, mix);
+        ExecutorService workers = Executors.newFixedThreadPool(users.size());
+        for (VirtualUser user : users) {
+            workers.submit(user::loop);
+        }
+        
+        TimeUnit.SECONDS.sleep(warmupSeconds);
+        // Drop everything recorded during warmup
+        stats.values().forEach(OperationStats::reset);
+        long measureStart = System.nanoTime();
+        long deadline = measureStart + TimeUnit.SECONDS.toNanos(durationSeconds);
+        while (System.nanoTime() < deadline) {
+            TimeUnit.SECONDS.sleep(Math.min(10, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(deadline - System.nanoTime()))));
+            long completed = stats.values().stream().mapToLong(s -> s.requests.get()).sum();
+            System.out.printf("  %4d s: %d requests%n",
+                    TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - measureStart), completed);
+        }
+        double measuredSeconds = (System.nanoTime() - measureStart) / 1e9;
+        Map<String, Histogram> histograms = new LinkedHashMap<>();
+        stats.forEach((operation, s) -> histograms.put(operation, s.recorder.getIntervalHistogram()));
+        running = false;
+        workers.shutdownNow();
+        workers.awaitTermination(requestTimeout.toSeconds() + thinkTimeMillis / 1000 + 5, TimeUnit.SECONDS);
+        
+        report(histograms, measuredSeconds, users.size());
+    }
+    
+    private void report(Map<String, Histogram> histograms, double seconds, int userCount) throws IOException {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("baseUrl", baseUrl);
+        root.put("users", userCount);
+        root.put("durationSeconds", Math.round(seconds));
+        root.put("thinkTimeMillis", thinkTimeMillis);
+        ArrayNode operations = root.putArray("operations");
+        
+        Histogram total = new Histogram(HIGHEST_LATENCY_MICROS, 3);
+        long totalErrors = 0;
+        System.out.printf("%n%-14s %9s %7s %9s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            String operation = entry.getKey();
+            if (LOGIN.equals(operation)) {
+                continue;
+            }
+            Histogram histogram = entry.getValue();
+            long errors = stats.get(operation).errors.get();
+            total.add(histogram);
+            totalErrors += errors;
+            printRow(operation, histogram, errors, seconds);
+            operations.add(toJson(operation, histogram, errors, seconds));
+        }
+        printRow("total", total, totalErrors, seconds);
+        root.set("total", toJson("total", total, totalErrors, seconds));
+        
+        Path path = Paths.get(options.get("report", "target/loadtest-report.json"));
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        objectMapper.enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), root);
+        System.out.println("\nReport written to " + path.toAbsolutePath());
+    }
+    
+    private static void printRow(String operation, Histogram h, long errors, double seconds) {
+        System.out.printf("%-14s %9d %7d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                operation, h.getTotalCount(), errors, h.getTotalCount() / seconds,
+                millis(h, 50), millis(h, 90), millis(h, 95), millis(h, 99), millis(h, 99.9), h.getMaxValue() / 1000.0);
+    }
+    
+    private ObjectNode toJson(String operation, Histogram h, long errors, double seconds) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("operation", operation);
+        node.put("requests", h.getTotalCount());
+        node.put("errors", errors);
+        node.put("throughputPerSecond", h.getTotalCount() / seconds);
+        node.put("p50Ms", millis(h, 50));
+        node.put("p90Ms", millis(h, 90));
+        node.put("p95Ms", millis(h, 95));
+        node.put("p99Ms", millis(h, 99));
+        node.put("p999Ms", millis(h, 99.9));
+        node.put("maxMs", h.getMaxValue() / 1000.0);
+        return node;
+    }
+    
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+    
+    private static List<String[]> readUsers(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            throw new RuntimeException("Users file not found: " + path + "; run SyntheticDataGenerator first");
+        }
+        List<String[]> accounts = new ArrayList<>();
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            if (!line.isBlank() && !line.startsWith("username")) {
+                accounts.add(line.split(","));
+            }
+        }
+        return accounts;
+    }
+    
+    // Noisy JPEG of a typical phone-photo size, so uploads exercise the real resize path
+    private static byte[] generatePhoto(Random random) throws IOException {
+        BufferedImage image = new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int r = (x * 255 / image.getWidth() + random.nextInt(40)) & 0xFF;
+                int g = (y * 255 / image.getHeight() + random.nextInt(40)) & 0xFF;
+                image.setRGB(x, y, (r << 16) | (g << 8) | random.nextInt(256));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+    
+    private static class OperationStats {
+        
+        private final Recorder recorder = new Recorder(HIGHEST_LATENCY_MICROS, 3);
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        
+        void reset() {
+            recorder.reset();
+            requests.set(0);
+            errors.set(0);
+        }
+    }
+    
+    private class VirtualUser {
+        
+        private final String username;
+        private final long participantId;
+        private final long teamId;
+        private final Random random;
+        private final List<Long> seenActivityIds = new ArrayList<>();
+        private String token;
+        
+        VirtualUser(String username, long participantId, long teamId, Random random) {
+            this.username = username;
+            this.participantId = participantId;
+            this.teamId = teamId;
+            this.random = random;
+        }
+        
+        void login() {
+            try {
+                String body = objectMapper.writeValueAsString(Map.of(
+                        "username", username, "password", options.get("user-password", "loadtest")));
+                HttpResponse<String> response = send(LOGIN, request("/api/auth/login")
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body)));
+                if (response != null) {
+                    token = objectMapper.readTree(response.body()).path("token").asText(null);
+                }
+            } catch (IOException e) {
+                System.err.println("Login failed for " + username + ": " + e.getMessage());
+            }
+        }
+        
+        void loop() {
+            int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+            while (running) {
+                int roll = random.nextInt(totalWeight);
+                String operation = null;
+                for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+                    roll -= entry.getValue();
+                    if (roll < 0) {
+                        operation = entry.getKey();
+                        break;
+                    }
+                }
+                try {
+                    perform(operation);
+                    // Exponential think time keeps users from marching in lockstep
+                    long pause = (long) (-Math.log(1 - random.nextDouble()) * thinkTimeMillis);
+                    Thread.sleep(pause);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    stats.get(operation).errors.incrementAndGet();
+                }
+            }
+        }
+        
+        private void perform(String operation) throws IOException {
+            switch (operation) {
+                case FEED:
+                    scrollFeed();
+                    break;
+                case REACTION:
+                    react();
+                    break;
+                case POST_ACTIVITY:
+                    postActivity();
+                    break;
+                case RANKINGS:
+                    viewRankings();
+                    break;
+                case NOTIFICATIONS:
+                    pollNotifications();
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown operation in --mix: " + operation);
+            }
+        }
+        
+        // First page always, deeper pages with decreasing probability
+        private void scrollFeed() throws IOException {
+            int page = 0;
+            do {
+                String query = "/api/activities/all?page=" + page + "&size=20" + (eventId != null ? "&eventId=" + eventId : "");
+                HttpResponse<String> response = send(FEED, authorized(query).GET());
+                if (response == null) {
+                    return;
+                }
+                JsonNode activities = objectMapper.readTree(response.body());
+                if (!activities.isArray() || activities.size() == 0) {
+                    return;
+                }
+                for (JsonNode activity : activities) {
+                    seenActivityIds.add(activity.path("id").asLong());
+                }
+                if (seenActivityIds.size() > 200) {
+                    seenActivityIds.subList(0, seenActivityIds.size() - 200).clear();
+                }
+                page++;
+            } while (random.nextDouble() < 0.5 && page < 10);
+        }
+        
+        private void react() throws IOException {
+            if (seenActivityIds.isEmpty()) {
+                scrollFeed();
+                if (seenActivityIds.isEmpty()) {
+                    return;
+                }
+            }
+            long activityId = seenActivityIds.get(random.nextInt(seenActivityIds.size()));
+            String body = "{\"reactionType\":\"" + REACTION_TYPES[random.nextInt(REACTION_TYPES.length)] + "\"}";
+            send(REACTION, authorized("/api/activities/" + activityId + "/reactions")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body)));
+        }
+        
+        private void postActivity() {
+            String boundary = "----loadtest" + Long.toHexString(random.nextLong());
+            ByteArrayOutputStream body = new ByteArrayOutputStream(photo.length + 1024);
+            writePart(body, boundary, "teamId", String.valueOf(teamId));
+            writePart(body, boundary, "participantId", String.valueOf(participantId));
+            writePart(body, boundary, "type", ACTIVITY_TYPES[random.nextInt(ACTIVITY_TYPES.length)]);
+            writePart(body, boundary, "energy", String.valueOf(10 + random.nextInt(91)));
+            writePart(body, boundary, "durationMinutes", String.valueOf(15 + random.nextInt(106)));
+            writePart(body, boundary, "description", "Нагрузочный тест");
+            write(body, "--" + boundary + "\r\nContent-Disposition: form-data; name=\"photos\"; filename=\"photo.jpg\"\r\n"
+                    + "Content-Type: image/jpeg\r\n\r\n");
+            body.writeBytes(photo);
+            write(body, "\r\n--" + boundary + "--\r\n");
+            send(POST_ACTIVITY, authorized("/api/activities")
+                    .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray())));
+        }
+        
+        private void viewRankings() {
+            int view = random.nextInt(eventId != null ? 3 : 2);
+            String path = view == 0 ? "/api/teams/rankings"
+                    : view == 1 ? "/api/teams/regularity-stats"
+                    : "/api/participants/rankings?eventId=" + eventId;
+            send(RANKINGS, authorized(path).GET());
+        }
+        
+        private void pollNotifications() {
+            // Clients poll the counter; the full list is opened occasionally
+            String path = random.nextInt(5) == 0 ? "/api/notifications" : "/api/notifications/unread/count";
+            send(NOTIFICATIONS, authorized(path).GET());
+        }
+        
+        private HttpRequest.Builder authorized(String path) {
+            return request(path).header("Authorization", "Bearer " + token);
+        }
+        
+        private void writePart(ByteArrayOutputStream body, String boundary, String name, String value) {
+            write(body, "--" + boundary + "\r\nContent-Disposition: form-data; name=\"" + name + "\"\r\n\r\n"
+                    + value + "\r\n");
+        }
+        
+        private void write(ByteArrayOutputStream body, String text) {
+            body.writeBytes(text.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+    
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(requestTimeout);
+    }
+    
+    /**
+     * Выполнить запрос и записать задержку; при ошибке транспорта или статусе не 2xx возвращает null
+     */
+    private HttpResponse<String> send(String operation, HttpRequest.Builder builder) {
+        OperationStats operationStats = stats.get(operation);
+        long started = System.nanoTime();
+        try {
+            HttpResponse<String> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+            operationStats.recorder.recordValue(
+                    Math.min(HIGHEST_LATENCY_MICROS, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started)));
+            operationStats.requests.incrementAndGet();
+            if (response.statusCode() / 100 != 2) {
+                operationStats.errors.incrementAndGet();
+                return null;
+            }
+            return response;
+        } catch (IOException e) {
+            operationStats.requests.incrementAndGet();
+            operationStats.errors.incrementAndGet();
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.app.loadtest;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Выбор индекса 0..n-1 по распределению Ципфа: индекс k выпадает с весом 1/(k+1)^s.
+ *
+ * Порядок индексов перемешивается, чтобы «популярными» оказывались не первые
+ * по id участники и команды, а случайные.
+ */
+final class SkewedSampler {
+    
+    private final double[] cumulative;
+    private final int[] order;
+    private final int[] rank;
+    
+    SkewedSampler(int n, double exponent, Random random) {
+        cumulative = new double[n];
+        double total = 0;
+        for (int k = 0; k < n; k++) {
+            total += 1.0 / Math.pow(k + 1, exponent);
+            cumulative[k] = total;
+        }
+        for (int k = 0; k < n; k++) {
+            cumulative[k] /= total;
+        }
+        order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        rank = new int[n];
+        for (int k = 0; k < n; k++) {
+            rank[order[k]] = k;
+        }
+    }
+    
+    int next(Random random) {
+        int k = Arrays.binarySearch(cumulative, random.nextDouble());
+        if (k < 0) {
+            k = -k - 1;
+        }
+        return order[Math.min(k, order.length - 1)];
+    }
+    
+    /**
+     * Относительная популярность индекса: 1.0 у самого частого, дальше по убыванию
+     */
+    double weight(int index) {
+        int k = rank[index];
+        double previous = k == 0 ? 0 : cumulative[k - 1];
+        return (cumulative[k] - previous) / cumulative[0];
+    }
+}
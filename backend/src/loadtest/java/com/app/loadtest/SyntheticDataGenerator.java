@@ -0,0 +1,477 @@
+package com.app.loadtest;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Генератор синтетических данных production-масштаба в схеме Liquibase.
+ *
+ * Создаёт мероприятие с командами, участниками, активностями, фото, реакциями,
+ * комментариями и уведомлениями. Распределения неравномерные: размеры команд,
+ * активность участников и популярность типов активностей следуют закону Ципфа,
+ * свежие дни и утренние/вечерние часы встречаются чаще. Вставка идёт пачками
+ * через JDBC batch (reWriteBatchedInserts), id резервируются в sequence заранее,
+ * поэтому связанные строки пишутся в одном проходе без обратных запросов.
+ *
+ * Все пользователи получают пароль --user-password; список логинов с id
+ * участника и команды пишется в --users-file для LoadTestDriver.
+ *
+ * Пример: mvn -P loadtest compile exec:exec -Dloadtest.main=com.app.loadtest.SyntheticDataGenerator
+ *         -Dloadtest.args="--participants=20000 --activities=2000000"
+ */
+public class SyntheticDataGenerator {
+    
+    private static final String[] ACTIVITY_TYPES = {
+            "Бег", "Ходьба", "Велосипед", "Плавание", "Йога", "Силовая тренировка",
+            "Лыжи", "Футбол", "Теннис", "Танцы", "Скандинавская ходьба", "Растяжка"
+    };
+    
+    private static final String[] REACTION_TYPES = {"LIKE", "FIRE", "STRONG", "CLAP", "LOVE"};
+    
+    private static final double[] REACTION_WEIGHTS = {0.5, 0.2, 0.15, 0.1, 0.05};
+    
+    private static final String[] COMMENTS = {
+            "Отличный результат!", "Так держать 💪", "Завтра присоединюсь", "Какой маршрут?",
+            "Огонь 🔥", "Впечатляет", "Молодец!", "Где это было?", "Красивое фото", "Вдохновляет"
+    };
+    
+    // Relative share of activities per hour of day: morning and evening peaks
+    private static final double[] HOUR_WEIGHTS = {
+            0.2, 0.1, 0.1, 0.1, 0.2, 0.8, 2.5, 4.0, 3.5, 2.0, 1.5, 1.5,
+            2.0, 1.8, 1.2, 1.2, 1.5, 2.5, 4.0, 4.5, 3.5, 2.0, 1.0, 0.5
+    };
+    
+    private final CommandLineOptions options;
+    private final Random random;
+    private final int batchSize;
+    private final LocalDateTime now = LocalDateTime.now().withNano(0);
+    
+    private Connection connection;
+    
+    public SyntheticDataGenerator(CommandLineOptions options) {
+        this.options = options;
+        this.random = new Random(options.getLong("seed", 42L));
+        this.batchSize = options.getInt("batch-size", 5000);
+    }
+    
+    public static void main(String[] args) throws Exception {
+        new SyntheticDataGenerator(new CommandLineOptions(args)).run();
+    }
+    
+    private void run() throws SQLException, IOException {
+        String url = options.get("url", "jdbc:postgresql://localhost:5432/sporttyx_db?reWriteBatchedInserts=true");
+        int teamCount = options.getInt("teams", 200);
+        int participantCount = options.getInt("participants", 20000);
+        long activityCount = options.getLong("activities", 2_000_000L);
+        int days = options.getInt("days", 180);
+        String prefix = options.get("prefix", "lt_");
+        
+        try (Connection c = DriverManager.getConnection(url, options.get("db-user", "postgres"),
+                options.get("db-password", "postgres"))) {
+            connection = c;
+            connection.setAutoCommit(false);
+            
+            if (countExisting(prefix) > 0) {
+                throw new RuntimeException("Synthetic users with prefix '" + prefix
+                        + "' already exist; use a fresh database or another --prefix");
+            }
+            
+            long started = System.nanoTime();
+            long eventId = insertEvent(prefix, days);
+            long[] typeIds = insertActivityTypes(eventId);
+            long[] teamIds = insertTeams(eventId, teamCount, prefix);
+            
+            long firstParticipantId = reserveIds("participants", participantCount);
+            int[] teamOf = insertParticipants(eventId, teamIds, firstParticipantId, participantCount, days, prefix);
+            int[][] members = groupByTeam(teamOf, teamCount);
+            
+            insertActivities(teamIds, typeIds, members, teamOf, firstParticipantId, activityCount, days);
+            insertNotifications(firstParticipantId, participantCount);
+            
+            System.out.println("Analyzing tables...");
+            connection.setAutoCommit(true);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE participants, teams, team_participants, event_participants, activities, "
+                        + "activity_photos, activity_reactions, activity_comments, notifications");
+            }
+            
+            writeUsersFile(prefix, firstParticipantId, teamOf, teamIds);
+            System.out.printf("Done in %.1f s, event id %d%n", (System.nanoTime() - started) / 1e9, eventId);
+        }
+    }
+    
+    private long countExisting(String prefix) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT COUNT(*) FROM participants WHERE username LIKE ?")) {
+            statement.setString(1, prefix.replace("_", "\\_") + "%");
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+    
+    /**
+     * Зарезервировать count последовательных id в sequence таблицы; возвращает первый
+     */
+    private long reserveIds(String table, long count) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT nextval(pg_get_serial_sequence(?, 'id'))")) {
+            statement.setString(1, table);
+            long first;
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                first = rs.getLong(1);
+            }
+            try (PreparedStatement advance = connection.prepareStatement(
+                    "SELECT setval(pg_get_serial_sequence(?, 'id'), ?)")) {
+                advance.setString(1, table);
+                advance.setLong(2, first + count - 1);
+                advance.execute();
+            }
+            connection.commit();
+            return first;
+        }
+    }
+    
+    private long insertEvent(String prefix, int days) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO events (name, description, start_date, end_date, status, visibility, "
+                        + "team_based_competition, created_at) VALUES (?, ?, ?, ?, 'ACTIVE', 'PUBLIC', true, ?) RETURNING id")) {
+            statement.setString(1, "Нагрузочный тест " + prefix);
+            statement.setString(2, "Синтетические данные SyntheticDataGenerator");
+            statement.setTimestamp(3, Timestamp.valueOf(now.minusDays(days)));
+            statement.setTimestamp(4, Timestamp.valueOf(now.plusDays(30)));
+            statement.setTimestamp(5, Timestamp.valueOf(now.minusDays(days)));
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                long id = rs.getLong(1);
+                connection.commit();
+                return id;
+            }
+        }
+    }
+    
+    private long[] insertActivityTypes(long eventId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO activity_types (name, description, default_energy, event_id, created_at) "
+                        + "VALUES (?, ?, ?, ?, ?) ON CONFLICT (name) DO NOTHING")) {
+            for (int i = 0; i < ACTIVITY_TYPES.length; i++) {
+                statement.setString(1, ACTIVITY_TYPES[i]);
+                statement.setString(2, ACTIVITY_TYPES[i]);
+                statement.setInt(3, 20 + 10 * (i % 5));
+                statement.setLong(4, eventId);
+                statement.setTimestamp(5, Timestamp.valueOf(now));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+        long[] ids = new long[ACTIVITY_TYPES.length];
+        try (PreparedStatement statement = connection.prepareStatement("SELECT id FROM activity_types WHERE name = ?")) {
+            for (int i = 0; i < ACTIVITY_TYPES.length; i++) {
+                statement.setString(1, ACTIVITY_TYPES[i]);
+                try (ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                    ids[i] = rs.getLong(1);
+                }
+            }
+        }
+        connection.commit();
+        return ids;
+    }
+    
+    private long[] insertTeams(long eventId, int teamCount, String prefix) throws SQLException {
+        long first = reserveIds("teams", teamCount);
+        long[] ids = new long[teamCount];
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO teams (id, name, motto, event_id, created_at) VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < teamCount; i++) {
+                ids[i] = first + i;
+                statement.setLong(1, ids[i]);
+                statement.setString(2, "Команда " + prefix + (i + 1));
+                statement.setString(3, "Вперёд, команда " + (i + 1) + "!");
+                statement.setLong(4, eventId);
+                statement.setTimestamp(5, Timestamp.valueOf(now));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+        connection.commit();
+        System.out.printf("Inserted %d teams%n", teamCount);
+        return ids;
+    }
+    
+    private int[] insertParticipants(long eventId, long[] teamIds, long firstId, int count, int days, String prefix)
+            throws SQLException {
+        String passwordHash = new BCryptPasswordEncoder().encode(options.get("user-password", "loadtest"));
+        SkewedSampler teamSampler = new SkewedSampler(teamIds.length, 0.6, random);
+        int[] teamOf = new int[count];
+        Set<Integer> teamsWithCaptain = new HashSet<>();
+        
+        try (PreparedStatement participants = connection.prepareStatement(
+                "INSERT INTO participants (id, username, password, name, email, role, password_reset_required, created_at) "
+                        + "VALUES (?, ?, ?, ?, ?, 'USER', false, ?)");
+             PreparedStatement teamMembers = connection.prepareStatement(
+                     "INSERT INTO team_participants (team_id, participant_id, role, joined_at) VALUES (?, ?, ?, ?)");
+             PreparedStatement eventMembers = connection.prepareStatement(
+                     "INSERT INTO event_participants (event_id, participant_id, status, invited_at, joined_at) "
+                             + "VALUES (?, ?, 'ACCEPTED', ?, ?)")) {
+            for (int i = 0; i < count; i++) {
+                long id = firstId + i;
+                // Every team gets at least one member before the skewed assignment kicks in
+                int team = i < teamIds.length ? i : teamSampler.next(random);
+                teamOf[i] = team;
+                Timestamp joinedAt = Timestamp.valueOf(now.minusDays(days).plusMinutes(random.nextInt(days * 24 * 60)));
+                
+                participants.setLong(1, id);
+                participants.setString(2, prefix + (i + 1));
+                participants.setString(3, passwordHash);
+                participants.setString(4, "Участник " + (i + 1));
+                participants.setString(5, prefix + (i + 1) + "@example.com");
+                participants.setTimestamp(6, joinedAt);
+                participants.addBatch();
+                
+                teamMembers.setLong(1, teamIds[team]);
+                teamMembers.setLong(2, id);
+                teamMembers.setString(3, teamsWithCaptain.add(team) ? "CAPTAIN" : "PARTICIPANT");
+                teamMembers.setTimestamp(4, joinedAt);
+                teamMembers.addBatch();
+                
+                eventMembers.setLong(1, eventId);
+                eventMembers.setLong(2, id);
+                eventMembers.setTimestamp(3, joinedAt);
+                eventMembers.setTimestamp(4, joinedAt);
+                eventMembers.addBatch();
+                
+                if ((i + 1) % batchSize == 0 || i == count - 1) {
+                    participants.executeBatch();
+                    teamMembers.executeBatch();
+                    eventMembers.executeBatch();
+                    connection.commit();
+                }
+            }
+        }
+        System.out.printf("Inserted %d participants%n", count);
+        return teamOf;
+    }
+    
+    private static int[][] groupByTeam(int[] teamOf, int teamCount) {
+        int[] sizes = new int[teamCount];
+        for (int team : teamOf) {
+            sizes[team]++;
+        }
+        int[][] members = new int[teamCount][];
+        for (int t = 0; t < teamCount; t++) {
+            members[t] = new int[sizes[t]];
+            sizes[t] = 0;
+        }
+        for (int p = 0; p < teamOf.length; p++) {
+            members[teamOf[p]][sizes[teamOf[p]]++] = p;
+        }
+        return members;
+    }
+    
+    private void insertActivities(long[] teamIds, long[] typeIds, int[][] members, int[] teamOf,
+                                  long firstParticipantId, long count, int days) throws SQLException {
+        double reactionsMean = options.getDouble("reactions-per-activity", 3.0);
+        double commentsMean = options.getDouble("comments-per-activity", 0.4);
+        double photoShare = options.getDouble("photo-share", 0.3);
+        int participantCount = teamOf.length;
+        SkewedSampler authorSampler = new SkewedSampler(participantCount, 1.0, random);
+        SkewedSampler typeSampler = new SkewedSampler(typeIds.length, 1.2, random);
+        double[] reactionCumulative = cumulative(REACTION_WEIGHTS);
+        double[] hourCumulative = cumulative(HOUR_WEIGHTS);
+        long firstActivityId = reserveIds("activities", count);
+        long started = System.nanoTime();
+        long reactions = 0;
+        long comments = 0;
+        
+        try (PreparedStatement activities = connection.prepareStatement(
+                "INSERT INTO activities (id, team_id, participant_id, activity_type_id, energy, duration_minutes, "
+                        + "description, photo_url, status, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement photos = connection.prepareStatement(
+                     "INSERT INTO activity_photos (activity_id, photo_url, display_order, created_at) VALUES (?, ?, 0, ?)");
+             PreparedStatement reactionRows = connection.prepareStatement(
+                     "INSERT INTO activity_reactions (activity_id, participant_id, reaction_type, created_at) VALUES (?, ?, ?, ?)");
+             PreparedStatement commentRows = connection.prepareStatement(
+                     "INSERT INTO activity_comments (activity_id, participant_id, text, created_at, updated_at) "
+                             + "VALUES (?, ?, ?, ?, ?)")) {
+            Set<Integer> reactors = new HashSet<>();
+            for (long n = 0; n < count; n++) {
+                long activityId = firstActivityId + n;
+                int author = authorSampler.next(random);
+                int team = teamOf[author];
+                int type = typeSampler.next(random);
+                // Recent days are denser than the start of the event
+                int day = (int) (days * Math.pow(random.nextDouble(), 1.5));
+                LocalDateTime createdAt = now.minusDays(day).toLocalDate()
+                        .atTime(pick(hourCumulative), random.nextInt(60), random.nextInt(60));
+                if (createdAt.isAfter(now)) {
+                    createdAt = now.minusMinutes(random.nextInt(600));
+                }
+                Timestamp createdTs = Timestamp.valueOf(createdAt);
+                double statusRoll = random.nextDouble();
+                String status = statusRoll < 0.03 ? "PENDING" : statusRoll < 0.04 ? "REJECTED" : "AUTO_APPROVED";
+                String photoUrl = random.nextDouble() < photoShare ? "/uploads/activities/synthetic-" + activityId + ".jpg" : null;
+                
+                activities.setLong(1, activityId);
+                activities.setLong(2, teamIds[team]);
+                activities.setLong(3, firstParticipantId + author);
+                activities.setLong(4, typeIds[type]);
+                activities.setInt(5, 10 + random.nextInt(91));
+                activities.setInt(6, 15 + random.nextInt(106));
+                activities.setString(7, random.nextInt(3) == 0 ? null : ACTIVITY_TYPES[type] + ", день " + (days - day));
+                activities.setString(8, photoUrl);
+                activities.setString(9, status);
+                activities.setTimestamp(10, createdTs);
+                activities.addBatch();
+                
+                if (photoUrl != null) {
+                    photos.setLong(1, activityId);
+                    photos.setString(2, photoUrl);
+                    photos.setTimestamp(3, createdTs);
+                    photos.addBatch();
+                }
+                
+                // Popular authors collect more reactions; mostly from their own team
+                double boost = 0.5 + 2.5 * Math.sqrt(authorSampler.weight(author));
+                int reactionCount = (int) (-Math.log(1 - random.nextDouble()) * reactionsMean * boost);
+                reactors.clear();
+                for (int r = 0; r < reactionCount * 2 && reactors.size() < reactionCount; r++) {
+                    int[] teamMembers = members[team];
+                    int reactor = random.nextDouble() < 0.8 && teamMembers.length > 1
+                            ? teamMembers[random.nextInt(teamMembers.length)]
+                            : random.nextInt(participantCount);
+                    if (reactor == author || !reactors.add(reactor)) {
+                        continue;
+                    }
+                    reactionRows.setLong(1, activityId);
+                    reactionRows.setLong(2, firstParticipantId + reactor);
+                    reactionRows.setString(3, REACTION_TYPES[pick(reactionCumulative)]);
+                    reactionRows.setTimestamp(4, Timestamp.valueOf(later(createdAt)));
+                    reactionRows.addBatch();
+                    reactions++;
+                }
+                
+                int commentCount = (int) (-Math.log(1 - random.nextDouble()) * commentsMean * boost);
+                for (int k = 0; k < commentCount; k++) {
+                    int[] teamMembers = members[team];
+                    Timestamp commentedAt = Timestamp.valueOf(later(createdAt));
+                    commentRows.setLong(1, activityId);
+                    commentRows.setLong(2, firstParticipantId + teamMembers[random.nextInt(teamMembers.length)]);
+                    commentRows.setString(3, COMMENTS[random.nextInt(COMMENTS.length)]);
+                    commentRows.setTimestamp(4, commentedAt);
+                    commentRows.setTimestamp(5, commentedAt);
+                    commentRows.addBatch();
+                    comments++;
+                }
+                
+                if ((n + 1) % batchSize == 0 || n == count - 1) {
+                    // Parents first: reactions, comments and photos reference the activities of this batch
+                    activities.executeBatch();
+                    photos.executeBatch();
+                    reactionRows.executeBatch();
+                    commentRows.executeBatch();
+                    connection.commit();
+                }
+                if ((n + 1) % 100_000 == 0 || n == count - 1) {
+                    double seconds = (System.nanoTime() - started) / 1e9;
+                    System.out.printf("Activities %d/%d (%.0f rows/s), reactions %d, comments %d%n",
+                            n + 1, count, (n + 1) / seconds, reactions, comments);
+                }
+            }
+        }
+    }
+    
+    private void insertNotifications(long firstParticipantId, int participantCount) throws SQLException {
+        double mean = options.getDouble("notifications-per-participant", 10);
+        long total = 0;
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO notifications (participant_id, type, title, message, is_read, created_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int p = 0; p < participantCount; p++) {
+                int count = (int) (-Math.log(1 - random.nextDouble()) * mean);
+                for (int k = 0; k < count; k++) {
+                    boolean approved = random.nextBoolean();
+                    statement.setLong(1, firstParticipantId + p);
+                    statement.setString(2, approved ? "ACTIVITY_APPROVED" : "GENERAL");
+                    statement.setString(3, approved ? "Активность одобрена" : "Новости мероприятия");
+                    statement.setString(4, approved ? "Ваша активность прошла модерацию" : "Не забудьте отметить тренировку");
+                    // Older notifications are mostly read
+                    statement.setBoolean(5, random.nextDouble() < 0.7);
+                    statement.setTimestamp(6, Timestamp.valueOf(now.minusMinutes(random.nextInt(60 * 24 * 30))));
+                    statement.addBatch();
+                    total++;
+                    if (total % batchSize == 0) {
+                        statement.executeBatch();
+                        connection.commit();
+                    }
+                }
+            }
+            statement.executeBatch();
+            connection.commit();
+        }
+        System.out.printf("Inserted %d notifications%n", total);
+    }
+    
+    private void writeUsersFile(String prefix, long firstParticipantId, int[] teamOf, long[] teamIds) throws IOException {
+        Path path = Paths.get(options.get("users-file", "target/loadtest-users.csv"));
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+            writer.println("username,participantId,teamId");
+            for (int p = 0; p < teamOf.length; p++) {
+                writer.println(prefix + (p + 1) + "," + (firstParticipantId + p) + "," + teamIds[teamOf[p]]);
+            }
+        }
+        System.out.println("Users written to " + path.toAbsolutePath());
+    }
+    
+    // Reactions and comments arrive within a day after the activity, never in the future
+    private LocalDateTime later(LocalDateTime createdAt) {
+        LocalDateTime at = createdAt.plusMinutes((long) (-Math.log(1 - random.nextDouble()) * 180));
+        return at.isAfter(now) ? now : at;
+    }
+    
+    private int pick(double[] cumulative) {
+        double roll = random.nextDouble();
+        for (int i = 0; i < cumulative.length; i++) {
+            if (roll < cumulative[i]) {
+                return i;
+            }
+        }
+        return cumulative.length - 1;
+    }
+    
+    private static double[] cumulative(double[] weights) {
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        double[] cumulative = new double[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cumulative[i] = sum / total;
+        }
+        return cumulative;
+    }
+}
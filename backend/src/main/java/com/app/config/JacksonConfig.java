@@ -0,0 +1,168 @@
+package com.app.config;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategy;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.cfg.MapperConfig;
+import com.fasterxml.jackson.databind.introspect.AnnotatedField;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMethod;
+import com.fasterxml.jackson.databind.introspect.AnnotatedParameter;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Настройка сериализации JSON.
+ *
+ * BlackbirdModule заменяет рефлексивный доступ к полям DTO на сгенерированные
+ * через LambdaMetafactory аксессоры. Клиент, которому важен объём (лента,
+ * рейтинги), может запросить Accept: application/vnd.sporttyx.compact+json —
+ * тогда ответ сериализуется с короткими именами полей, без null и с датами
+ * в epoch millis. Обычный application/json не меняется.
+ */
+@Configuration
+public class JacksonConfig {
+    
+    public static final MediaType COMPACT_JSON = MediaType.parseMediaType("application/vnd.sporttyx.compact+json");
+    
+    // Long property names of high-volume DTOs (feed, rankings) and their compact aliases
+    private static final Map<String, String> COMPACT_NAMES = new HashMap<>();
+    
+    static {
+        COMPACT_NAMES.put("type", "t");
+        COMPACT_NAMES.put("name", "n");
+        COMPACT_NAMES.put("username", "u");
+        COMPACT_NAMES.put("description", "d");
+        COMPACT_NAMES.put("energy", "e");
+        COMPACT_NAMES.put("finalPoints", "fp");
+        COMPACT_NAMES.put("durationMinutes", "dm");
+        COMPACT_NAMES.put("participantName", "pn");
+        COMPACT_NAMES.put("participantId", "pid");
+        COMPACT_NAMES.put("participantAvatarUrl", "pa");
+        COMPACT_NAMES.put("photoUrl", "pu");
+        COMPACT_NAMES.put("photoUrls", "pus");
+        COMPACT_NAMES.put("photos", "ph");
+        COMPACT_NAMES.put("width", "w");
+        COMPACT_NAMES.put("height", "h");
+        COMPACT_NAMES.put("placeholder", "bh");
+        COMPACT_NAMES.put("createdAt", "ca");
+        COMPACT_NAMES.put("teamId", "tid");
+        COMPACT_NAMES.put("teamName", "tn");
+        COMPACT_NAMES.put("teamAvatarUrl", "ta");
+        COMPACT_NAMES.put("teamAvatarPlaceholder", "tap");
+        COMPACT_NAMES.put("eventId", "eid");
+        COMPACT_NAMES.put("eventName", "en");
+        COMPACT_NAMES.put("teamBasedCompetition", "tbc");
+        COMPACT_NAMES.put("reactionCounts", "rc");
+        COMPACT_NAMES.put("userReaction", "ur");
+        COMPACT_NAMES.put("totalReactions", "tr");
+        COMPACT_NAMES.put("commentCount", "cc");
+        COMPACT_NAMES.put("totalPoints", "tp");
+        COMPACT_NAMES.put("rank", "r");
+        COMPACT_NAMES.put("profileImageUrl", "pi");
+        COMPACT_NAMES.put("participantCount", "pc");
+        COMPACT_NAMES.put("currentStreak", "cs");
+        COMPACT_NAMES.put("activeDays", "ad");
+        COMPACT_NAMES.put("last14Days", "l14");
+    }
+    
+    /**
+     * Регистрируется в ObjectMapper Spring Boot автоматически, как любой бин Module
+     */
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+    
+    /**
+     * Будет ли ответ на запрос с таким Accept сериализован в COMPACT_JSON.
+     * Повторяет выбор конвертера в WebMvcConfig: компактный формат отдаётся,
+     * только если Accept называет его (или application/*+json) и ставит не ниже
+     * application/json. Без Accept и для любых других диапазонов — обычный JSON
+     */
+    public static boolean isCompactSelected(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return false;
+        }
+        List<MediaType> candidates = new ArrayList<>();
+        try {
+            for (MediaType requested : MediaType.parseMediaTypes(accept)) {
+                // application/json is registered first, so any range that covers it resolves to it
+                if (requested.includes(MediaType.APPLICATION_JSON)) {
+                    candidates.add(MediaType.APPLICATION_JSON.copyQualityValue(requested));
+                } else if (requested.includes(COMPACT_JSON)) {
+                    candidates.add(COMPACT_JSON.copyQualityValue(requested));
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        MediaType.sortBySpecificityAndQuality(candidates);
+        return !candidates.isEmpty() && candidates.get(0).equalsTypeAndSubtype(COMPACT_JSON);
+    }
+    
+    /**
+     * Копия основного ObjectMapper для COMPACT_JSON
+     */
+    static ObjectMapper compactObjectMapper(ObjectMapper objectMapper) {
+        SimpleModule epochMillis = new SimpleModule("CompactDates");
+        epochMillis.addSerializer(LocalDateTime.class, new EpochMillisSerializer());
+        return objectMapper.copy()
+                .setPropertyNamingStrategy(new CompactNamingStrategy())
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+                .registerModule(epochMillis);
+    }
+    
+    private static class CompactNamingStrategy extends PropertyNamingStrategy {
+        
+        @Override
+        public String nameForField(MapperConfig<?> config, AnnotatedField field, String defaultName) {
+            return COMPACT_NAMES.getOrDefault(defaultName, defaultName);
+        }
+        
+        @Override
+        public String nameForGetterMethod(MapperConfig<?> config, AnnotatedMethod method, String defaultName) {
+            return COMPACT_NAMES.getOrDefault(defaultName, defaultName);
+        }
+        
+        @Override
+        public String nameForSetterMethod(MapperConfig<?> config, AnnotatedMethod method, String defaultName) {
+            return COMPACT_NAMES.getOrDefault(defaultName, defaultName);
+        }
+        
+        @Override
+        public String nameForConstructorParameter(MapperConfig<?> config, AnnotatedParameter parameter, String defaultName) {
+            return COMPACT_NAMES.getOrDefault(defaultName, defaultName);
+        }
+    }
+    
+    // Server-local LocalDateTime as epoch milliseconds instead of an ISO string
+    private static class EpochMillisSerializer extends StdSerializer<LocalDateTime> {
+        
+        private static final ZoneId ZONE = ZoneId.systemDefault();
+        
+        EpochMillisSerializer() {
+            super(LocalDateTime.class);
+        }
+        
+        @Override
+        public void serialize(LocalDateTime value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeNumber(value.atZone(ZONE).toInstant().toEpochMilli());
+        }
+    }
+}
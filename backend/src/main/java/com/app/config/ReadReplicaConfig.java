@@ -0,0 +1,111 @@
+package com.app.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Маршрутизация чтения на реплики PostgreSQL.
+ *
+ * Включается свойством app.datasource.replicas.enabled. Primary-пул
+ * строится из стандартных spring.datasource.*, пулы реплик — из
+ * app.datasource.replicas.*. Без этого свойства используется обычный
+ * DataSource из автоконфигурации Spring Boot.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+    
+    @Value("${app.datasource.replicas.urls}")
+    private String replicaUrls;
+    
+    @Value("${app.datasource.replicas.username:${spring.datasource.username}}")
+    private String replicaUsername;
+    
+    @Value("${app.datasource.replicas.password:${spring.datasource.password}}")
+    private String replicaPassword;
+    
+    @Value("${app.datasource.replicas.pool-size:10}")
+    private int replicaPoolSize;
+    
+    @Value("${app.datasource.replicas.health-check-interval-ms:5000}")
+    private long healthCheckIntervalMs;
+    
+    @Value("${app.datasource.replicas.max-lag-seconds:10}")
+    private double maxLagSeconds;
+    
+    @Value("${app.datasource.replicas.validation-timeout-seconds:2}")
+    private int validationTimeoutSeconds;
+    
+    @Value("${app.datasource.replicas.sticky-window-ms:5000}")
+    private long stickyWindowMs;
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+    
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             DataSourceProperties properties,
+                                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        List<String> urls = Arrays.stream(replicaUrls.split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .collect(Collectors.toList());
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setJdbcUrl(urls.get(i));
+            replica.setUsername(replicaUsername);
+            replica.setPassword(replicaPassword);
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setReadOnly(true);
+            // Fail fast so that a dead replica falls back to the primary instead of stalling the request
+            replica.setConnectionTimeout(Math.max(250L, validationTimeoutSeconds * 1000L));
+            // Do not fail startup when a replica is down; the health check keeps it out of rotation
+            replica.setInitializationFailTimeout(-1);
+            // Replica pools are not beans, so pool metrics are wired here
+            meterRegistry.ifAvailable(replica::setMetricRegistry);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, ReadReplicaConfig::currentUsername,
+                stickyWindowMs, maxLagSeconds, validationTimeoutSeconds, healthCheckIntervalMs);
+    }
+    
+    /**
+     * Основной DataSource приложения: соединение берётся только при первом
+     * запросе, когда уже известно, read-only ли текущая транзакция
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+    
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+}
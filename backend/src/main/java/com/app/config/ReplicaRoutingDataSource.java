@@ -0,0 +1,208 @@
+package com.app.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * DataSource, направляющий read-only транзакции на реплики, а остальное — на primary.
+ *
+ * Решение принимается в момент получения соединения, поэтому источник должен
+ * быть обёрнут в LazyConnectionDataSourceProxy: тогда флаг readOnly текущей
+ * транзакции уже выставлен. Реплики проверяются в фоне (доступность и
+ * отставание репликации); если здоровых реплик нет или соединение получить
+ * не удалось, запрос уходит на primary. После пишущей транзакции запросы
+ * того же пользователя stickyWindowMillis читаются с primary (read-your-writes).
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    
+    private static final String REPLICATION_LAG_SQL =
+            "SELECT CASE WHEN pg_is_in_recovery() " +
+            "THEN COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) ELSE 0 END";
+    
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final Supplier<String> stickinessKey;
+    private final long stickyWindowMillis;
+    private final double maxLagSeconds;
+    private final int validationTimeoutSeconds;
+    private final Map<String, Long> lastWriteAt = new ConcurrentHashMap<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final ScheduledExecutorService healthChecker;
+    
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicaSources, Supplier<String> stickinessKey,
+                                    long stickyWindowMillis, double maxLagSeconds, int validationTimeoutSeconds,
+                                    long healthCheckIntervalMillis) {
+        this.primary = primary;
+        for (int i = 0; i < replicaSources.size(); i++) {
+            replicas.add(new Replica("replica-" + (i + 1), replicaSources.get(i)));
+        }
+        this.stickinessKey = stickinessKey;
+        this.stickyWindowMillis = stickyWindowMillis;
+        this.maxLagSeconds = maxLagSeconds;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        
+        healthChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkReplicas, 0, healthCheckIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = chooseReplica();
+        if (replica != null) {
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                replica.markDown(e.getMessage());
+            }
+        }
+        return primary.getConnection();
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        // Credentials are configured per pool
+        return getConnection();
+    }
+    
+    /**
+     * Количество реплик, которые сейчас принимают чтение
+     */
+    public int getHealthyReplicaCount() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+    
+    private Replica chooseReplica() {
+        if (replicas.isEmpty()
+                || !TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            recordWrite();
+            return null;
+        }
+        if (isSticky()) {
+            return null;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+    
+    // Any read-write transaction pins the user to the primary for the sticky window
+    private void recordWrite() {
+        if (stickyWindowMillis <= 0 || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        String key = stickinessKey.get();
+        if (key != null) {
+            lastWriteAt.put(key, System.currentTimeMillis());
+        }
+    }
+    
+    private boolean isSticky() {
+        if (stickyWindowMillis <= 0) {
+            return false;
+        }
+        String key = stickinessKey.get();
+        if (key == null) {
+            return false;
+        }
+        Long writtenAt = lastWriteAt.get(key);
+        return writtenAt != null && System.currentTimeMillis() - writtenAt < stickyWindowMillis;
+    }
+    
+    private void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (!connection.isValid(validationTimeoutSeconds)) {
+                    replica.markDown("connection is not valid");
+                    continue;
+                }
+                double lag = 0;
+                try (Statement statement = connection.createStatement();
+                     ResultSet rs = statement.executeQuery(REPLICATION_LAG_SQL)) {
+                    if (rs.next()) {
+                        lag = rs.getDouble(1);
+                    }
+                }
+                if (lag > maxLagSeconds) {
+                    replica.markDown("replication lag " + lag + "s");
+                } else {
+                    replica.markUp();
+                }
+            } catch (Exception e) {
+                replica.markDown(e.getMessage());
+            }
+        }
+        long cutoff = System.currentTimeMillis() - stickyWindowMillis;
+        lastWriteAt.values().removeIf(writtenAt -> writtenAt < cutoff);
+    }
+    
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof Closeable) {
+                try {
+                    ((Closeable) replica.dataSource).close();
+                } catch (Exception e) {
+                    log.warn("Failed to close {}: {}", replica.name, e.getMessage());
+                }
+            }
+        }
+    }
+    
+    private static class Replica {
+        
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+        
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+        
+        void markDown(String reason) {
+            if (healthy) {
+                log.warn("Read replica {} marked unhealthy, reads fall back to primary: {}", name, reason);
+            }
+            healthy = false;
+        }
+        
+        void markUp() {
+            if (!healthy) {
+                log.info("Read replica {} is healthy", name);
+            }
+            healthy = true;
+        }
+    }
+}
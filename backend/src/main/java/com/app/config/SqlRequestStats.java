@@ -0,0 +1,84 @@
+package com.app.config;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Счётчик SQL-запросов текущего HTTP-запроса.
+ * 
+ * Живёт в ThreadLocal потока запроса: его открывает {@link SqlStatsFilter},
+ * а заполняют {@link SqlStatementCounter} (текст запроса) и
+ * {@link SqlTimingSessionListener} (время выполнения в JDBC).
+ */
+public final class SqlRequestStats {
+    
+    private static final ThreadLocal<SqlRequestStats> CURRENT = new ThreadLocal<>();
+    
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    
+    // "in (?, ?, ?)" from batch fetching or IN lists collapses to one shape regardless of size
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+    
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+    
+    private final Map<String, Integer> shapes = new HashMap<>();
+    
+    private int statementCount;
+    
+    private long executionNanos;
+    
+    private SqlRequestStats() {
+    }
+    
+    static SqlRequestStats start() {
+        SqlRequestStats stats = new SqlRequestStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+    
+    static void clear() {
+        CURRENT.remove();
+    }
+    
+    static void recordStatement(String sql) {
+        SqlRequestStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statementCount++;
+            stats.shapes.merge(shapeOf(sql), 1, Integer::sum);
+        }
+    }
+    
+    static void recordExecution(long nanos) {
+        SqlRequestStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.executionNanos += nanos;
+        }
+    }
+    
+    public int getStatementCount() {
+        return statementCount;
+    }
+    
+    public long getExecutionMillis() {
+        return executionNanos / 1_000_000;
+    }
+    
+    /**
+     * Формы запросов, повторившиеся не меньше minRepeats раз, по убыванию числа повторов
+     */
+    public List<Map.Entry<String, Integer>> repeatedShapes(int minRepeats) {
+        return shapes.entrySet().stream()
+                .filter(entry -> entry.getValue() >= minRepeats)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .collect(Collectors.toList());
+    }
+    
+    private static String shapeOf(String sql) {
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        shape = PARAMETER_LIST.matcher(shape).replaceAll("(?...)");
+        return NUMBER_LITERAL.matcher(shape).replaceAll("N");
+    }
+}
@@ -0,0 +1,16 @@
+package com.app.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate StatementInspector: учитывает каждый подготовленный запрос
+ * в {@link SqlRequestStats} текущего HTTP-запроса. Текст запроса не меняет.
+ */
+public class SqlStatementCounter implements StatementInspector {
+    
+    @Override
+    public String inspect(String sql) {
+        SqlRequestStats.recordStatement(sql);
+        return sql;
+    }
+}
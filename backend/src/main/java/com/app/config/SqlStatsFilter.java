@@ -0,0 +1,139 @@
+package com.app.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Подсчёт SQL-запросов и времени в базе на каждый HTTP-запрос.
+ * 
+ * Если запрос превысил порог по количеству запросов или времени, либо один
+ * и тот же запрос повторился repeated-statement-threshold раз (типичный N+1),
+ * в лог пишется endpoint и повторяющиеся формы запросов. Значения также
+ * публикуются как метрики и, если включено, как заголовки ответа
+ * X-SQL-Count / X-SQL-Time-Ms.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SqlStatsFilter extends OncePerRequestFilter {
+    
+    private static final Logger log = LoggerFactory.getLogger(SqlStatsFilter.class);
+    
+    public static final String COUNT_HEADER = "X-SQL-Count";
+    public static final String TIME_HEADER = "X-SQL-Time-Ms";
+    
+    private static final int MAX_LOGGED_SHAPES = 5;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${app.sql-stats.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.sql-stats.response-headers:false}")
+    private boolean responseHeaders;
+    
+    @Value("${app.sql-stats.max-statements:30}")
+    private int maxStatements;
+    
+    @Value("${app.sql-stats.max-db-time-ms:500}")
+    private long maxDbTimeMs;
+    
+    @Value("${app.sql-stats.repeated-statement-threshold:10}")
+    private int repeatedStatementThreshold;
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || request.getRequestURI().startsWith("/actuator");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlRequestStats stats = SqlRequestStats.start();
+        HttpServletResponse target = responseHeaders ? new StatsHeaderResponse(response, stats) : response;
+        try {
+            filterChain.doFilter(request, target);
+        } finally {
+            SqlRequestStats.clear();
+            if (responseHeaders && !response.isCommitted()) {
+                response.setHeader(COUNT_HEADER, String.valueOf(stats.getStatementCount()));
+                response.setHeader(TIME_HEADER, String.valueOf(stats.getExecutionMillis()));
+            }
+            report(request, stats);
+        }
+    }
+    
+    private void report(HttpServletRequest request, SqlRequestStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String method = request.getMethod();
+        
+        DistributionSummary.builder("app.sql.statements")
+                .description("SQL statements issued per HTTP request")
+                .tag("uri", uri)
+                .tag("method", method)
+                .register(meterRegistry)
+                .record(stats.getStatementCount());
+        Timer.builder("app.sql.time")
+                .description("Time spent executing SQL per HTTP request")
+                .tag("uri", uri)
+                .tag("method", method)
+                .register(meterRegistry)
+                .record(stats.getExecutionMillis(), TimeUnit.MILLISECONDS);
+        
+        List<Map.Entry<String, Integer>> repeated = stats.repeatedShapes(repeatedStatementThreshold);
+        if (!repeated.isEmpty()) {
+            meterRegistry.counter("app.sql.repeated.statements", "uri", uri, "method", method).increment();
+        }
+        if (repeated.isEmpty() && stats.getStatementCount() <= maxStatements && stats.getExecutionMillis() <= maxDbTimeMs) {
+            return;
+        }
+        String shapes = repeated.stream()
+                .limit(MAX_LOGGED_SHAPES)
+                .map(entry -> entry.getValue() + "x " + entry.getKey())
+                .collect(Collectors.joining("\n  "));
+        log.warn("{} {} ({}) issued {} SQL statements, {} ms in database{}",
+                method, request.getRequestURI(), uri, stats.getStatementCount(), stats.getExecutionMillis(),
+                shapes.isEmpty() ? "" : "; repeated statements (possible N+1):\n  " + shapes);
+    }
+    
+    /**
+     * Дописывает счётчики в заголовки в момент фиксации ответа, пока их ещё можно добавить
+     */
+    private static class StatsHeaderResponse extends OnCommittedResponseWrapper {
+        
+        private final SqlRequestStats stats;
+        
+        StatsHeaderResponse(HttpServletResponse response, SqlRequestStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+        
+        @Override
+        protected void onResponseCommitted() {
+            setHeader(COUNT_HEADER, String.valueOf(stats.getStatementCount()));
+            setHeader(TIME_HEADER, String.valueOf(stats.getExecutionMillis()));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.app.config;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Hibernate SessionEventListener: суммирует время выполнения JDBC-запросов
+ * и пакетов в {@link SqlRequestStats} текущего HTTP-запроса.
+ */
+public class SqlTimingSessionListener extends BaseSessionEventListener {
+    
+    private long statementStart;
+    
+    private long batchStart;
+    
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+    
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        SqlRequestStats.recordExecution(System.nanoTime() - statementStart);
+    }
+    
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+    
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        SqlRequestStats.recordExecution(System.nanoTime() - batchStart);
+    }
+}
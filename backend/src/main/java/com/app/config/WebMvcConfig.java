@@ -1,17 +1,43 @@
 package com.app.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
     
     @Value("${app.upload.base-path:/app/uploads}")
     private String uploadBasePath;
     
+    @Value("${app.async.core-pool-size:2}")
+    private int asyncCorePoolSize;
+    
+    @Value("${app.async.max-pool-size:4}")
+    private int asyncMaxPoolSize;
+    
+    @Value("${app.async.queue-capacity:50}")
+    private int asyncQueueCapacity;
+    
+    @Value("${app.async.request-timeout-ms:1800000}")
+    private long asyncRequestTimeoutMs;
+    
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         // Serve uploaded files from /uploads/** URL pattern
@@ -27,4 +53,58 @@ public class WebMvcConfig implements WebMvcConfigurer {
                 .allowedHeaders("*")
                 .allowCredentials(true);
     }
+
+    /**
+     * Отдельный ограниченный пул для StreamingResponseBody (выгрузки),
+     * чтобы долгие выгрузки не занимали потоки Tomcat, обслуживающие обычные запросы.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor mvcAsyncTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(asyncCorePoolSize);
+        executor.setMaxPoolSize(asyncMaxPoolSize);
+        executor.setQueueCapacity(asyncQueueCapacity);
+        executor.setThreadNamePrefix("mvc-async-");
+        return executor;
+    }
+    
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(mvcAsyncTaskExecutor());
+        configurer.setDefaultTimeout(asyncRequestTimeoutMs);
+    }
+    
+    /**
+     * Ответы в JacksonConfig.COMPACT_JSON сериализуются отдельным ObjectMapper.
+     * Порядок важен: первый тип отдаётся, когда Accept нет или он принимает любой тип,
+     * а application/*+json тоже включает COMPACT_JSON и должен идти после него.
+     * JacksonConfig.isCompactSelected повторяет этот выбор для ETag.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // The same URL has a regular and a compact JSON representation
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                return true;
+            }
+        }).addPathPatterns("/api/**");
+    }
+    
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        for (HttpMessageConverter<?> converter : converters) {
+            if (converter instanceof MappingJackson2HttpMessageConverter) {
+                MappingJackson2HttpMessageConverter jackson = (MappingJackson2HttpMessageConverter) converter;
+                ObjectMapper objectMapper = jackson.getObjectMapper();
+                ObjectMapper compact = JacksonConfig.compactObjectMapper(objectMapper);
+                jackson.registerObjectMappersForType(Object.class, registrations -> {
+                    registrations.put(MediaType.APPLICATION_JSON, objectMapper);
+                    registrations.put(JacksonConfig.COMPACT_JSON, compact);
+                    registrations.put(new MediaType("application", "*+json"), objectMapper);
+                });
+            }
+        }
+    }
 }
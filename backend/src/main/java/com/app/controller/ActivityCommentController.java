@@ -7,11 +7,13 @@ import com.app.dto.ReactionRequest;
 import com.app.model.Participant;
 import com.app.repository.ParticipantRepository;
 import com.app.service.ActivityCommentService;
+import com.app.service.IdempotencyService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Arrays;
 import java.util.List;
 
 @RestController
@@ -25,17 +27,24 @@ public class ActivityCommentController {
     @Autowired
     private ParticipantRepository participantRepository;
     
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
     @PostMapping("/activities/{id}/comments")
     public ResponseEntity<CommentResponse> createComment(
             @PathVariable Long id,
             @RequestBody CreateCommentRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             Authentication authentication) {
         
-        Participant participant = participantRepository.findByUsername(authentication.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        CommentResponse response = activityCommentService.createComment(id, participant.getId(), request);
-        
-        return ResponseEntity.ok(response);
+        return idempotencyService.execute(idempotencyKey, "activity-comment",
+                Arrays.asList(id, request), CommentResponse.class, () -> {
+            Participant participant = participantRepository.findByUsername(authentication.getName())
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+            CommentResponse response = activityCommentService.createComment(id, participant.getId(), request);
+            
+            return ResponseEntity.ok(response);
+        });
     }
     
     @PutMapping("/comments/{id}")
@@ -85,13 +94,17 @@ public class ActivityCommentController {
     public ResponseEntity<?> addOrUpdateCommentReaction(
             @PathVariable Long id,
             @RequestBody ReactionRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             Authentication authentication) {
         
-        Participant participant = participantRepository.findByUsername(authentication.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        activityCommentService.addOrUpdateCommentReaction(id, participant.getId(), request.getReactionType());
-        
-        return ResponseEntity.ok(new MessageResponse("Reaction added successfully"));
+        return idempotencyService.execute(idempotencyKey, "comment-reaction",
+                Arrays.asList(id, request.getReactionType()), MessageResponse.class, () -> {
+            Participant participant = participantRepository.findByUsername(authentication.getName())
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+            activityCommentService.addOrUpdateCommentReaction(id, participant.getId(), request.getReactionType());
+            
+            return ResponseEntity.ok(new MessageResponse("Reaction added successfully"));
+        });
     }
     
     @DeleteMapping("/comments/{id}/reactions")
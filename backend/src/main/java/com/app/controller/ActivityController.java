@@ -5,6 +5,7 @@ import com.app.dto.CreateActivityResponse;
 import com.app.model.Participant;
 import com.app.repository.ParticipantRepository;
 import com.app.service.ActivityService;
+import com.app.service.IdempotencyService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -13,8 +14,10 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api")
@@ -27,6 +30,9 @@ public class ActivityController {
     @Autowired
     private ParticipantRepository participantRepository;
     
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
     /**
      * Получить все активности в системе с пагинацией
      * 
@@ -115,6 +121,9 @@ public class ActivityController {
      * @param durationMinutes длительность в минутах (опционально)
      * @param photos список фотографий (опционально)
      * @param participantIds список ID дополнительных участников (опционально)
+     * @param uploadIds id завершённых докачиваемых загрузок (опционально), см. UploadController
+     * @param idempotencyKey ключ повтора запроса (опционально); повтор с тем же ключом
+     *                       возвращает исходный ответ, не создавая активность заново
      * @return информация о созданной активности
      */
     @PostMapping("/activities")
@@ -126,10 +135,21 @@ public class ActivityController {
             @RequestParam(required = false) String description,
             @RequestParam(required = false) Integer durationMinutes,
             @RequestParam(required = false) List<MultipartFile> photos,
-            @RequestParam(required = false) List<Long> participantIds) {
-        CreateActivityResponse response = activityService.createActivity(
-                teamId, participantId, type, energy, description, durationMinutes, photos, participantIds);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            @RequestParam(required = false) List<Long> participantIds,
+            @RequestParam(required = false) List<String> uploadIds,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        // Photos are identified by name and size: hashing their content would cost as much as the upload
+        List<String> photoFingerprints = photos == null ? null : photos.stream()
+                .map(photo -> photo.getOriginalFilename() + ":" + photo.getSize())
+                .collect(Collectors.toList());
+        Object fingerprint = Arrays.asList(teamId, participantId, type, energy, description,
+                durationMinutes, photoFingerprints, participantIds, uploadIds);
+        
+        return idempotencyService.execute(idempotencyKey, "activity-create", fingerprint, CreateActivityResponse.class, () -> {
+            CreateActivityResponse response = activityService.createActivity(
+                    teamId, participantId, type, energy, description, durationMinutes, photos, participantIds, uploadIds);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        });
     }
     
     /**
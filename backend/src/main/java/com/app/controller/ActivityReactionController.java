@@ -6,11 +6,14 @@ import com.app.dto.ReactionRequest;
 import com.app.model.Participant;
 import com.app.repository.ParticipantRepository;
 import com.app.service.ActivityReactionService;
+import com.app.service.IdempotencyService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Arrays;
+
 @RestController
 @RequestMapping("/api/activities")
 @CrossOrigin(origins = "http://localhost:3000")
@@ -22,17 +25,24 @@ public class ActivityReactionController {
     @Autowired
     private ParticipantRepository participantRepository;
     
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
     @PostMapping("/{id}/reactions")
     public ResponseEntity<?> addOrUpdateReaction(
             @PathVariable Long id,
             @RequestBody ReactionRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             Authentication authentication) {
         
-        Participant participant = participantRepository.findByUsername(authentication.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        activityReactionService.addOrUpdateReaction(id, participant.getId(), request.getReactionType());
-        
-        return ResponseEntity.ok(new MessageResponse("Reaction added successfully"));
+        return idempotencyService.execute(idempotencyKey, "activity-reaction",
+                Arrays.asList(id, request.getReactionType()), MessageResponse.class, () -> {
+            Participant participant = participantRepository.findByUsername(authentication.getName())
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+            activityReactionService.addOrUpdateReaction(id, participant.getId(), request.getReactionType());
+            
+            return ResponseEntity.ok(new MessageResponse("Reaction added successfully"));
+        });
     }
     
     @DeleteMapping("/{id}/reactions")
@@ -1,11 +1,15 @@
 package com.app.controller;
 
+import com.app.dto.ActivityTypeImportResponse;
 import com.app.dto.ActivityTypeResponse;
 import com.app.dto.CreateActivityTypeRequest;
+import com.app.service.ActivityTypeImportService;
 import com.app.service.ActivityTypeService;
+import com.app.service.ResourceVersions;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -18,12 +22,21 @@ public class ActivityTypeController {
     @Autowired
     private ActivityTypeService activityTypeService;
     
+    @Autowired
+    private ActivityTypeImportService activityTypeImportService;
+    
+    @Autowired
+    private ResourceVersions resourceVersions;
+    
     /**
      * Получить все типы активностей или типы для конкретного события
      */
     @GetMapping
     public ResponseEntity<List<ActivityTypeResponse>> getAllActivityTypes(
-            @RequestParam(required = false) Long eventId) {
+            @RequestParam(required = false) Long eventId, WebRequest request) {
+        if (resourceVersions.checkNotModified(request, ResourceVersions.ACTIVITY_TYPES)) {
+            return null;
+        }
         if (eventId != null) {
             return ResponseEntity.ok(activityTypeService.getActivityTypesByEventId(eventId));
         }
@@ -34,7 +47,10 @@ public class ActivityTypeController {
      * Получить тип активности по ID
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ActivityTypeResponse> getActivityTypeById(@PathVariable Long id) {
+    public ResponseEntity<ActivityTypeResponse> getActivityTypeById(@PathVariable Long id, WebRequest request) {
+        if (resourceVersions.checkNotModified(request, ResourceVersions.ACTIVITY_TYPES)) {
+            return null;
+        }
         return ResponseEntity.ok(activityTypeService.getActivityTypeById(id));
     }
     
@@ -66,17 +82,25 @@ public class ActivityTypeController {
     }
     
     /**
-     * Импортировать типы активностей из Excel файла
+     * Импортировать типы активностей из Excel файла.
+     * При async=true импорт выполняется в фоне, прогресс доступен по jobId
      */
     @PostMapping("/import")
-    public ResponseEntity<String> importActivityTypes(
+    public ResponseEntity<ActivityTypeImportResponse> importActivityTypes(
             @RequestParam("file") MultipartFile file,
-            @RequestParam("eventId") Long eventId) {
-        try {
-            int count = activityTypeService.importFromExcel(file, eventId);
-            return ResponseEntity.ok("Успешно импортировано " + count + " типов активностей");
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Ошибка при импорте: " + e.getMessage());
+            @RequestParam("eventId") Long eventId,
+            @RequestParam(defaultValue = "false") boolean async) {
+        if (async) {
+            return ResponseEntity.accepted().body(activityTypeImportService.startImport(file, eventId));
         }
+        return ResponseEntity.ok(activityTypeImportService.importNow(file, eventId));
+    }
+    
+    /**
+     * Получить прогресс фонового импорта
+     */
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<ActivityTypeImportResponse> getImportJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(activityTypeImportService.getJob(jobId));
     }
 }
@@ -10,11 +10,22 @@ import com.app.repository.ActivityTypeRepository;
 import com.app.repository.ParticipantRepository;
 import com.app.repository.TeamRepository;
 import com.app.service.EventService;
+import com.app.service.ParticipantImportService;
+import com.app.service.ParticipantService;
+import com.app.service.ResourceVersions;
+import com.app.service.TeamService;
+import com.app.service.UploadSweeper;
+import com.app.service.WebhookOutboxService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -36,33 +47,39 @@ public class AdminController {
     @Autowired
     private EventService eventService;
     
+    @Autowired
+    private ParticipantService participantService;
+    
+    @Autowired
+    private TeamService teamService;
+    
+    @Autowired
+    private ResourceVersions resourceVersions;
+    
     @Autowired
     private com.app.repository.EventRepository eventRepository;
     
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private WebhookOutboxService webhookOutboxService;
+    
+    @Autowired
+    private ParticipantImportService participantImportService;
+    
+    @Autowired
+    private UploadSweeper uploadSweeper;
+    
     /**
      * Получить список всех участников (админ)
      */
     @GetMapping("/participants")
-    public ResponseEntity<List<ParticipantResponse>> getAllParticipants() {
-        List<Participant> participants = participantRepository.findAll();
-        List<ParticipantResponse> responses = participants.stream()
-                .map(p -> new ParticipantResponse(
-                        p.getId(),
-                        p.getUsername(),
-                        p.getName(),
-                        p.getEmail(),
-                        p.getPhone(),
-                        p.getProfileImageUrl(),
-                        p.getRole().name(),
-                        null,
-                        null,
-                        null
-                ))
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(responses);
+    public ResponseEntity<List<ParticipantResponse>> getAllParticipants(
+            @RequestParam(required = false) Integer page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String sort) {
+        return ResponseEntity.ok(participantService.getAllParticipants(page, size, sort));
     }
     
     /**
@@ -86,6 +103,7 @@ public class AdminController {
         }
         
         participant = participantRepository.save(participant);
+        resourceVersions.bump(ResourceVersions.PARTICIPANTS, ResourceVersions.STANDINGS);
         
         ParticipantResponse response = new ParticipantResponse(
                 participant.getId(),
@@ -103,6 +121,23 @@ public class AdminController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
     
+    /**
+     * Массовый импорт участников из CSV/XLSX (админ).
+     * Если указан eventId, созданные участники сразу записываются в мероприятие
+     */
+    @PostMapping("/participants/import")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ParticipantImportResponse> importParticipants(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) Long eventId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String username = ((UserDetails) authentication.getPrincipal()).getUsername();
+        Participant admin = participantRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("Participant not found"));
+        
+        return ResponseEntity.ok(participantImportService.importParticipants(file, eventId, admin.getId(), admin.getRole()));
+    }
+    
     /**
      * Обновить данные участника (админ)
      */
@@ -120,6 +155,7 @@ public class AdminController {
         }
         
         participant = participantRepository.save(participant);
+        resourceVersions.bump(ResourceVersions.PARTICIPANTS, ResourceVersions.STANDINGS);
         
         ParticipantResponse response = new ParticipantResponse(
                 participant.getId(),
@@ -158,6 +194,7 @@ public class AdminController {
     @DeleteMapping("/participants/{id}")
     public ResponseEntity<Void> deleteParticipant(@PathVariable Long id) {
         participantRepository.deleteById(id);
+        resourceVersions.bump(ResourceVersions.PARTICIPANTS, ResourceVersions.STANDINGS);
         return ResponseEntity.noContent().build();
     }
     
@@ -165,12 +202,11 @@ public class AdminController {
      * Получить список всех команд (админ)
      */
     @GetMapping("/teams")
-    public ResponseEntity<List<TeamListResponse>> getAllTeamsAdmin() {
-        List<Team> teams = teamRepository.findAll();
-        List<TeamListResponse> responses = teams.stream()
-                .map(t -> new TeamListResponse(t.getId(), t.getName()))
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(responses);
+    public ResponseEntity<List<TeamListResponse>> getAllTeamsAdmin(
+            @RequestParam(required = false) Integer page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String sort) {
+        return ResponseEntity.ok(teamService.getAllTeams(page, size, sort));
     }
     
     /**
@@ -190,6 +226,7 @@ public class AdminController {
         }
         
         team = teamRepository.save(team);
+        resourceVersions.bump(ResourceVersions.STANDINGS);
         return ResponseEntity.status(HttpStatus.CREATED).body(team);
     }
     
@@ -199,6 +236,7 @@ public class AdminController {
     @DeleteMapping("/teams/{id}")
     public ResponseEntity<Void> deleteTeamAdmin(@PathVariable Long id) {
         teamRepository.deleteById(id);
+        resourceVersions.bump(ResourceVersions.STANDINGS);
         return ResponseEntity.noContent().build();
     }
     
@@ -231,6 +269,7 @@ public class AdminController {
         }
         
         activityType = activityTypeRepository.save(activityType);
+        resourceVersions.bump(ResourceVersions.ACTIVITY_TYPES);
         return ResponseEntity.status(HttpStatus.CREATED).body(activityType);
     }
     
@@ -240,6 +279,7 @@ public class AdminController {
     @DeleteMapping("/activity-types/{id}")
     public ResponseEntity<Void> deleteActivityType(@PathVariable Long id) {
         activityTypeRepository.deleteById(id);
+        resourceVersions.bump(ResourceVersions.ACTIVITY_TYPES);
         return ResponseEntity.noContent().build();
     }
     
@@ -247,8 +287,11 @@ public class AdminController {
      * Получить список всех событий (админ)
      */
     @GetMapping("/events")
-    public ResponseEntity<List<EventListResponse>> getAllEventsAdmin() {
-        List<EventListResponse> events = eventService.getAllEvents();
+    public ResponseEntity<List<EventListResponse>> getAllEventsAdmin(
+            @RequestParam(required = false) Integer page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String sort) {
+        List<EventListResponse> events = eventService.getAllEvents(page, size, sort);
         return ResponseEntity.ok(events);
     }
     
@@ -296,4 +339,33 @@ public class AdminController {
         eventService.removeFromHomepage(id);
         return ResponseEntity.noContent().build();
     }
+    
+    /**
+     * Получить недоставленные webhook-сообщения события (админ)
+     */
+    @GetMapping("/events/{id}/webhooks/dead")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<WebhookOutboxResponse>> getDeadWebhooks(@PathVariable Long id) {
+        return ResponseEntity.ok(webhookOutboxService.getDeadMessages(id));
+    }
+    
+    /**
+     * Повторить доставку webhook-сообщения (админ)
+     */
+    @PostMapping("/webhooks/{id}/retry")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<WebhookOutboxResponse> retryWebhook(@PathVariable Long id) {
+        return ResponseEntity.ok(webhookOutboxService.retryMessage(id));
+    }
+    
+    /**
+     * Занятое загруженными файлами место по событиям на момент последнего прохода очистки (админ).
+     * 204, пока первый проход не завершён
+     */
+    @GetMapping("/storage")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StorageUsageResponse> getStorageUsage() {
+        StorageUsageResponse usage = uploadSweeper.getStorageUsage();
+        return usage != null ? ResponseEntity.ok(usage) : ResponseEntity.noContent().build();
+    }
 }
@@ -7,11 +7,13 @@ import com.app.model.BonusTypeEnum;
 import com.app.model.Event;
 import com.app.repository.BonusTypeRepository;
 import com.app.repository.EventRepository;
+import com.app.service.ResourceVersions;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -27,9 +29,15 @@ public class BonusTypeController {
     @Autowired
     private EventRepository eventRepository;
     
+    @Autowired
+    private ResourceVersions resourceVersions;
+    
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR')")
-    public ResponseEntity<List<BonusTypeResponse>> getBonusTypesByEvent(@RequestParam Long eventId) {
+    public ResponseEntity<List<BonusTypeResponse>> getBonusTypesByEvent(@RequestParam Long eventId, WebRequest request) {
+        if (resourceVersions.checkNotModified(request, ResourceVersions.BONUS_TYPES)) {
+            return null;
+        }
         List<BonusType> bonusTypes = bonusTypeRepository.findByEventIdAndIsActiveTrue(eventId);
         List<BonusTypeResponse> response = bonusTypes.stream()
                 .map(bt -> new BonusTypeResponse(
@@ -66,6 +74,7 @@ public class BonusTypeController {
         bonusType.setIsActive(true);
         
         bonusType = bonusTypeRepository.save(bonusType);
+        resourceVersions.bump(ResourceVersions.BONUS_TYPES);
         
         BonusTypeResponse response = new BonusTypeResponse(
                 bonusType.getId(),
@@ -101,6 +110,7 @@ public class BonusTypeController {
         bonusType.setType(type);
         
         bonusType = bonusTypeRepository.save(bonusType);
+        resourceVersions.bump(ResourceVersions.BONUS_TYPES);
         
         BonusTypeResponse response = new BonusTypeResponse(
                 bonusType.getId(),
@@ -121,6 +131,7 @@ public class BonusTypeController {
         
         bonusType.setIsActive(false);
         bonusTypeRepository.save(bonusType);
+        resourceVersions.bump(ResourceVersions.BONUS_TYPES);
         
         return ResponseEntity.ok().build();
     }
@@ -3,10 +3,13 @@ package com.app.controller;
 import com.app.dto.EventListResponse;
 import com.app.dto.EventResponse;
 import com.app.service.EventService;
+import com.app.service.ResourceVersions;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @RestController
@@ -17,12 +20,22 @@ public class EventController {
     @Autowired
     private EventService eventService;
     
+    @Autowired
+    private ResourceVersions resourceVersions;
+    
     /**
      * Получить список всех событий
      */
     @GetMapping
-    public ResponseEntity<List<EventListResponse>> getAllEvents() {
-        List<EventListResponse> events = eventService.getAllEvents();
+    public ResponseEntity<List<EventListResponse>> getAllEvents(
+            @RequestParam(required = false) Integer page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String sort,
+            WebRequest request) {
+        if (resourceVersions.checkNotModified(request, ResourceVersions.EVENTS)) {
+            return null;
+        }
+        List<EventListResponse> events = eventService.getAllEvents(page, size, sort);
         return ResponseEntity.ok(events);
     }
     
@@ -30,7 +43,10 @@ public class EventController {
      * Получить детальную информацию о событии
      */
     @GetMapping("/{id}")
-    public ResponseEntity<EventResponse> getEvent(@PathVariable Long id) {
+    public ResponseEntity<EventResponse> getEvent(@PathVariable Long id, WebRequest request) {
+        if (resourceVersions.checkNotModified(request, ResourceVersions.EVENTS, ResourceVersions.PARTICIPANTS)) {
+            return null;
+        }
         EventResponse event = eventService.getEvent(id);
         return ResponseEntity.ok(event);
     }
@@ -39,7 +55,12 @@ public class EventController {
      * Получить список активных событий
      */
     @GetMapping("/active")
-    public ResponseEntity<List<EventResponse>> getActiveEvents() {
+    public ResponseEntity<List<EventResponse>> getActiveEvents(WebRequest request) {
+        // Events become active by date, so the ETag also expires every minute
+        if (resourceVersions.checkNotModified(request, ChronoUnit.MINUTES,
+                ResourceVersions.EVENTS, ResourceVersions.PARTICIPANTS)) {
+            return null;
+        }
         List<EventResponse> events = eventService.getActiveEvents();
         return ResponseEntity.ok(events);
     }
@@ -48,7 +69,10 @@ public class EventController {
      * Получить событие, отображаемое на главной странице
      */
     @GetMapping("/displayed")
-    public ResponseEntity<EventResponse> getDisplayedEvent() {
+    public ResponseEntity<EventResponse> getDisplayedEvent(WebRequest request) {
+        if (resourceVersions.checkNotModified(request, ResourceVersions.EVENTS, ResourceVersions.PARTICIPANTS)) {
+            return null;
+        }
         EventResponse event = eventService.getDisplayedEvent();
         if (event == null) {
             return ResponseEntity.noContent().build();
@@ -0,0 +1,57 @@
+package com.app.controller;
+
+import com.app.service.EventExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/admin/events/{eventId}/export")
+@CrossOrigin(origins = "http://localhost:3000")
+@PreAuthorize("hasRole('ADMIN')")
+public class EventExportController {
+    
+    @Autowired
+    private EventExportService eventExportService;
+    
+    /**
+     * Выгрузить рейтинг команд мероприятия в Excel (админ)
+     */
+    @GetMapping("/teams")
+    public ResponseEntity<StreamingResponseBody> exportTeamStandings(@PathVariable Long eventId) {
+        eventExportService.checkEventExists(eventId);
+        return xlsx("event-" + eventId + "-teams.xlsx",
+                out -> eventExportService.exportTeamStandings(eventId, out));
+    }
+    
+    /**
+     * Выгрузить рейтинг участников мероприятия в Excel (админ)
+     */
+    @GetMapping("/participants")
+    public ResponseEntity<StreamingResponseBody> exportParticipantRankings(@PathVariable Long eventId) {
+        eventExportService.checkEventExists(eventId);
+        return xlsx("event-" + eventId + "-participants.xlsx",
+                out -> eventExportService.exportParticipantRankings(eventId, out));
+    }
+    
+    /**
+     * Выгрузить полный журнал активностей мероприятия в Excel (админ)
+     */
+    @GetMapping("/activities")
+    public ResponseEntity<StreamingResponseBody> exportActivityLog(@PathVariable Long eventId) {
+        eventExportService.checkEventExists(eventId);
+        return xlsx("event-" + eventId + "-activities.xlsx",
+                out -> eventExportService.exportActivityLog(eventId, out));
+    }
+    
+    private ResponseEntity<StreamingResponseBody> xlsx(String fileName, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(MediaType.parseMediaType(EventExportService.XLSX_CONTENT_TYPE))
+                .body(body);
+    }
+}
@@ -5,6 +5,7 @@ import com.app.dto.EventNewsResponse;
 import com.app.model.Participant;
 import com.app.repository.ParticipantRepository;
 import com.app.service.EventNewsService;
+import com.app.service.ResourceVersions;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -12,6 +13,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -26,8 +28,14 @@ public class EventNewsController {
     @Autowired
     private ParticipantRepository participantRepository;
     
+    @Autowired
+    private ResourceVersions resourceVersions;
+    
     @GetMapping("/{eventId}/news")
-    public ResponseEntity<List<EventNewsResponse>> getEventNews(@PathVariable Long eventId) {
+    public ResponseEntity<List<EventNewsResponse>> getEventNews(@PathVariable Long eventId, WebRequest request) {
+        if (resourceVersions.checkNotModified(request, ResourceVersions.EVENT_NEWS, ResourceVersions.PARTICIPANTS)) {
+            return null;
+        }
         List<EventNewsResponse> news = eventNewsService.getEventNews(eventId);
         return ResponseEntity.ok(news);
     }
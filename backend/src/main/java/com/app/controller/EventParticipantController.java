@@ -5,6 +5,7 @@ import com.app.dto.InviteToEventRequest;
 import com.app.model.Participant;
 import com.app.repository.ParticipantRepository;
 import com.app.service.EventParticipantService;
+import com.app.service.IdempotencyService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -26,6 +27,9 @@ public class EventParticipantController {
     @Autowired
     private ParticipantRepository participantRepository;
     
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
     @PostMapping("/admin/events/invite")
     public ResponseEntity<List<EventParticipantResponse>> inviteParticipantsToEvent(
             @RequestBody InviteToEventRequest request,
@@ -56,10 +60,13 @@ public class EventParticipantController {
     @PostMapping("/event-invitations/{id}/accept")
     public ResponseEntity<EventParticipantResponse> acceptInvitation(
             @PathVariable Long id,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @AuthenticationPrincipal UserDetails userDetails) {
         Long participantId = getCurrentUserId(userDetails);
-        EventParticipantResponse response = eventParticipantService.acceptInvitation(id, participantId);
-        return ResponseEntity.ok(response);
+        return idempotencyService.execute(idempotencyKey, "event-invitation-accept", id, EventParticipantResponse.class, () -> {
+            EventParticipantResponse response = eventParticipantService.acceptInvitation(id, participantId);
+            return ResponseEntity.ok(response);
+        });
     }
     
     @PostMapping("/event-invitations/{id}/decline")
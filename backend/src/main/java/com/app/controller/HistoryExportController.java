@@ -0,0 +1,89 @@
+package com.app.controller;
+
+import com.app.service.HistoryExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/admin/export")
+@CrossOrigin(origins = "http://localhost:3000")
+@PreAuthorize("hasRole('ADMIN')")
+public class HistoryExportController {
+    
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson;charset=UTF-8");
+    
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+    
+    @Autowired
+    private HistoryExportService historyExportService;
+    
+    /**
+     * Выгрузить историю активностей в NDJSON или CSV (админ).
+     * eventId ограничивает выгрузку мероприятием, afterId позволяет забирать только новые строки
+     */
+    @GetMapping("/activities")
+    public ResponseEntity<StreamingResponseBody> exportActivities(
+            @RequestParam(required = false) Long eventId,
+            @RequestParam(defaultValue = "0") Long afterId,
+            @RequestParam(defaultValue = HistoryExportService.FORMAT_NDJSON) String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        String resolved = historyExportService.resolveFormat(format);
+        return stream("activities", resolved, gzip,
+                out -> historyExportService.exportActivities(eventId, afterId, resolved, out));
+    }
+    
+    /**
+     * Выгрузить историю реакций в NDJSON или CSV (админ)
+     */
+    @GetMapping("/reactions")
+    public ResponseEntity<StreamingResponseBody> exportReactions(
+            @RequestParam(required = false) Long eventId,
+            @RequestParam(defaultValue = "0") Long afterId,
+            @RequestParam(defaultValue = HistoryExportService.FORMAT_NDJSON) String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        String resolved = historyExportService.resolveFormat(format);
+        return stream("reactions", resolved, gzip,
+                out -> historyExportService.exportReactions(eventId, afterId, resolved, out));
+    }
+    
+    /**
+     * Выгрузить историю комментариев в NDJSON или CSV (админ)
+     */
+    @GetMapping("/comments")
+    public ResponseEntity<StreamingResponseBody> exportComments(
+            @RequestParam(required = false) Long eventId,
+            @RequestParam(defaultValue = "0") Long afterId,
+            @RequestParam(defaultValue = HistoryExportService.FORMAT_NDJSON) String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        String resolved = historyExportService.resolveFormat(format);
+        return stream("comments", resolved, gzip,
+                out -> historyExportService.exportComments(eventId, afterId, resolved, out));
+    }
+    
+    private ResponseEntity<StreamingResponseBody> stream(String name, String format, boolean gzip,
+                                                         StreamingResponseBody body) {
+        String fileName = name + "." + format;
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(HistoryExportService.FORMAT_CSV.equals(format) ? CSV : NDJSON);
+        if (!gzip) {
+            return response.body(body);
+        }
+        // Sync flush so that every flush of the exporter reaches the client as a complete gzip block
+        return response
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .body(out -> {
+                    GZIPOutputStream compressed = new GZIPOutputStream(out, 8192, true);
+                    body.writeTo(compressed);
+                    compressed.finish();
+                    compressed.flush();
+                });
+    }
+}
@@ -5,6 +5,7 @@ import com.app.dto.InviteParticipantRequest;
 import com.app.dto.MessageResponse;
 import com.app.model.TeamInvitation;
 import com.app.security.JwtUtil;
+import com.app.service.IdempotencyService;
 import com.app.service.InvitationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -27,6 +28,9 @@ public class InvitationController {
     @Autowired
     private JwtUtil jwtUtil;
     
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
     /**
      * Получить все приглашения участника
      */
@@ -61,15 +65,15 @@ public class InvitationController {
      * Принять приглашение в команду
      */
     @PostMapping("/invitations/{invitationId}/accept")
-    public ResponseEntity<Map<String, Object>> acceptInvitation(
+    public ResponseEntity<MessageResponse> acceptInvitation(
             @PathVariable Long invitationId,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             HttpServletRequest httpRequest) {
         Long userId = extractUserIdFromRequest(httpRequest);
-        invitationService.acceptInvitation(invitationId, userId);
-        
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", "Invitation accepted");
-        return ResponseEntity.ok(response);
+        return idempotencyService.execute(idempotencyKey, "team-invitation-accept", invitationId, MessageResponse.class, () -> {
+            invitationService.acceptInvitation(invitationId, userId);
+            return ResponseEntity.ok(new MessageResponse("Invitation accepted"));
+        });
     }
     
     /**
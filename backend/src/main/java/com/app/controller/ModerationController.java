@@ -43,11 +43,39 @@ public class ModerationController {
             @RequestParam(defaultValue = "20") int size,
             @AuthenticationPrincipal UserDetails userDetails
     ) {
+        Participant moderator = participantRepository.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("Moderator not found"));
         List<ActivityModerationResponse> activities = moderationService.getPendingActivities(
-                eventId, teamId, page, size);
+                moderator.getId(), eventId, teamId, page, size);
+        return ResponseEntity.ok(activities);
+    }
+    
+    @PostMapping("/activities/claim")
+    @PreAuthorize("hasAnyRole('MODERATOR', 'ADMIN')")
+    public ResponseEntity<List<ActivityModerationResponse>> claimActivities(
+            @RequestParam(required = false) Long eventId,
+            @RequestParam(defaultValue = "5") int count,
+            @AuthenticationPrincipal UserDetails userDetails
+    ) {
+        Participant moderator = participantRepository.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("Moderator not found"));
+        List<ActivityModerationResponse> activities = moderationService.claimNextActivities(
+                moderator.getId(), eventId, count);
         return ResponseEntity.ok(activities);
     }
     
+    @PostMapping("/activities/{id}/release")
+    @PreAuthorize("hasAnyRole('MODERATOR', 'ADMIN')")
+    public ResponseEntity<Void> releaseActivity(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserDetails userDetails
+    ) {
+        Participant moderator = participantRepository.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("Moderator not found"));
+        moderationService.releaseActivity(id, moderator.getId());
+        return ResponseEntity.ok().build();
+    }
+    
     @PostMapping("/activities/{id}/approve")
     @PreAuthorize("hasAnyRole('MODERATOR', 'ADMIN')")
     public ResponseEntity<Void> approveActivity(
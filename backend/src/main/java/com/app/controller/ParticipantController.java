@@ -7,10 +7,13 @@ import com.app.dto.ParticipantResponse;
 import com.app.dto.ParticipantSearchResponse;
 import com.app.dto.ParticipantUpdateRequest;
 import com.app.service.ParticipantService;
+import com.app.service.RequestCoalescer;
+import com.app.service.ResourceVersions;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -22,6 +25,12 @@ public class ParticipantController {
     @Autowired
     private ParticipantService participantService;
     
+    @Autowired
+    private ResourceVersions resourceVersions;
+    
+    @Autowired
+    private RequestCoalescer requestCoalescer;
+    
     /**
      * Получить информацию об участнике
      */
@@ -77,9 +86,15 @@ public class ParticipantController {
      */
     @GetMapping("/rankings")
     public ResponseEntity<List<ParticipantRankingResponse>> getParticipantRankings(
-            @RequestParam Long eventId) {
-        List<ParticipantRankingResponse> rankings = participantService.getParticipantRankings(eventId);
-        return ResponseEntity.ok(rankings);
+            @RequestParam Long eventId, WebRequest request) {
+        String version = resourceVersions.tag(null, ResourceVersions.STANDINGS, ResourceVersions.PARTICIPANTS);
+        if (resourceVersions.checkNotModifiedTag(request, version)) {
+            return null;
+        }
+        RequestCoalescer.Result<List<ParticipantRankingResponse>> rankings = requestCoalescer.get(
+                "participant-rankings", eventId, version, () -> participantService.getParticipantRankings(eventId));
+        resourceVersions.setTag(request, rankings.getVersion());
+        return ResponseEntity.ok(rankings.getValue());
     }
     
     /**
@@ -5,15 +5,19 @@ import com.app.model.Team;
 import com.app.security.JwtUtil;
 import com.app.service.ActivityService;
 import com.app.service.ImageService;
+import com.app.service.RequestCoalescer;
+import com.app.service.ResourceVersions;
 import com.app.service.TeamService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.servlet.http.HttpServletRequest;
 import java.io.IOException;
+import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -26,6 +30,12 @@ public class TeamController {
     @Autowired
     private TeamService teamService;
     
+    @Autowired
+    private ResourceVersions resourceVersions;
+    
+    @Autowired
+    private RequestCoalescer requestCoalescer;
+    
     @Autowired
     private ActivityService activityService;
     
@@ -39,10 +49,14 @@ public class TeamController {
      * Получить список всех команд
      */
     @GetMapping
-    public ResponseEntity<List<TeamListResponse>> getAllTeams(@RequestParam(required = false) Long eventId) {
+    public ResponseEntity<List<TeamListResponse>> getAllTeams(
+            @RequestParam(required = false) Long eventId,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String sort) {
         List<TeamListResponse> teams = eventId != null 
-            ? teamService.getTeamsByEventId(eventId)
-            : teamService.getAllTeams();
+            ? teamService.getTeamsByEventId(eventId, page, size, sort)
+            : teamService.getAllTeams(page, size, sort);
         return ResponseEntity.ok(teams);
     }
     
@@ -144,18 +158,31 @@ public class TeamController {
      * Получить рейтинг команд
      */
     @GetMapping("/rankings")
-    public ResponseEntity<List<TeamRankingResponse>> getTeamRankings() {
-        List<TeamRankingResponse> rankings = teamService.getTeamRankings();
-        return ResponseEntity.ok(rankings);
+    public ResponseEntity<List<TeamRankingResponse>> getTeamRankings(WebRequest request) {
+        String version = resourceVersions.tag(null, ResourceVersions.STANDINGS);
+        if (resourceVersions.checkNotModifiedTag(request, version)) {
+            return null;
+        }
+        RequestCoalescer.Result<List<TeamRankingResponse>> rankings =
+                requestCoalescer.get("team-rankings", null, version, teamService::getTeamRankings);
+        resourceVersions.setTag(request, rankings.getVersion());
+        return ResponseEntity.ok(rankings.getValue());
     }
     
     /**
      * Получить статистику регулярности активностей команд
      */
     @GetMapping("/regularity-stats")
-    public ResponseEntity<List<TeamRegularityResponse>> getTeamRegularityStats() {
-        List<TeamRegularityResponse> stats = teamService.getTeamRegularityStats();
-        return ResponseEntity.ok(stats);
+    public ResponseEntity<List<TeamRegularityResponse>> getTeamRegularityStats(WebRequest request) {
+        // Streaks are counted up to today, so the ETag also expires at midnight
+        String version = resourceVersions.tag(ChronoUnit.DAYS, ResourceVersions.STANDINGS);
+        if (resourceVersions.checkNotModifiedTag(request, version)) {
+            return null;
+        }
+        RequestCoalescer.Result<List<TeamRegularityResponse>> stats =
+                requestCoalescer.get("team-regularity-stats", null, version, teamService::getTeamRegularityStats);
+        resourceVersions.setTag(request, stats.getVersion());
+        return ResponseEntity.ok(stats.getValue());
     }
     
     /**
@@ -171,15 +198,18 @@ public class TeamController {
      * Загрузить изображение команды
      */
     @PostMapping("/{id}/upload-image")
-    public ResponseEntity<Map<String, String>> uploadTeamImage(
+    public ResponseEntity<Map<String, Object>> uploadTeamImage(
             @PathVariable Long id,
             @RequestParam("image") MultipartFile image) {
         try {
-            String imageUrl = imageService.saveTeamImage(image);
-            teamService.updateTeamImage(id, imageUrl);
+            ImageInfo saved = imageService.saveTeamImage(image);
+            teamService.updateTeamImage(id, saved);
             
-            Map<String, String> response = new HashMap<>();
-            response.put("imageUrl", imageUrl);
+            Map<String, Object> response = new HashMap<>();
+            response.put("imageUrl", saved.getUrl());
+            response.put("imageWidth", saved.getWidth());
+            response.put("imageHeight", saved.getHeight());
+            response.put("imagePlaceholder", saved.getPlaceholder());
             return ResponseEntity.ok(response);
         } catch (IOException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
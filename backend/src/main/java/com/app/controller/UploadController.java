@@ -0,0 +1,90 @@
+package com.app.controller;
+
+import com.app.dto.CreateUploadRequest;
+import com.app.dto.UploadSessionResponse;
+import com.app.model.Participant;
+import com.app.repository.ParticipantRepository;
+import com.app.service.ResumableUploadService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+
+/**
+ * Докачиваемая загрузка фотографий по частям.
+ *
+ * Порядок работы клиента:
+ * 1. POST /api/uploads с размером файла — получить id загрузки
+ * 2. PUT /api/uploads/{id}?offset=N с телом application/octet-stream — отправить
+ *    очередной чанк; при обрыве узнать смещение через GET /api/uploads/{id}
+ * 3. POST /api/uploads/{id}/complete — обработать фото
+ * 4. Передать id в uploadIds при создании активности
+ */
+@RestController
+@RequestMapping("/api/uploads")
+@CrossOrigin(origins = "http://localhost:3000")
+public class UploadController {
+    
+    public static final String CHUNK_CHECKSUM_HEADER = "X-Chunk-SHA256";
+    
+    @Autowired
+    private ResumableUploadService resumableUploadService;
+    
+    @Autowired
+    private ParticipantRepository participantRepository;
+    
+    @PostMapping
+    public ResponseEntity<UploadSessionResponse> createUpload(
+            @RequestBody CreateUploadRequest request,
+            Authentication authentication) {
+        UploadSessionResponse response = resumableUploadService.createSession(getCurrentUserId(authentication), request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+    
+    @GetMapping("/{id}")
+    public ResponseEntity<UploadSessionResponse> getUpload(
+            @PathVariable String id,
+            Authentication authentication) {
+        return ResponseEntity.ok(resumableUploadService.getSession(id, getCurrentUserId(authentication)));
+    }
+    
+    /**
+     * Записать чанк с байта offset. Тело читается потоком прямо в файл
+     */
+    @PutMapping(value = "/{id}", consumes = "application/octet-stream")
+    public ResponseEntity<UploadSessionResponse> uploadChunk(
+            @PathVariable String id,
+            @RequestParam long offset,
+            @RequestHeader(value = CHUNK_CHECKSUM_HEADER, required = false) String chunkSha256,
+            HttpServletRequest httpRequest,
+            Authentication authentication) throws IOException {
+        UploadSessionResponse response = resumableUploadService.appendChunk(id, getCurrentUserId(authentication),
+                offset, httpRequest.getContentLengthLong(), chunkSha256, httpRequest.getInputStream());
+        return ResponseEntity.ok(response);
+    }
+    
+    @PostMapping("/{id}/complete")
+    public ResponseEntity<UploadSessionResponse> completeUpload(
+            @PathVariable String id,
+            Authentication authentication) {
+        return ResponseEntity.ok(resumableUploadService.complete(id, getCurrentUserId(authentication)));
+    }
+    
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancelUpload(
+            @PathVariable String id,
+            Authentication authentication) {
+        resumableUploadService.cancel(id, getCurrentUserId(authentication));
+        return ResponseEntity.noContent().build();
+    }
+    
+    private Long getCurrentUserId(Authentication authentication) {
+        return participantRepository.findByUsername(authentication.getName())
+                .map(Participant::getId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+}
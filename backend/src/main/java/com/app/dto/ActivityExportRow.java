@@ -0,0 +1,29 @@
+package com.app.dto;
+
+import com.app.model.ActivityStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ActivityExportRow {
+    private Long id;
+    private Long eventId;
+    private Long teamId;
+    private String teamName;
+    private Long participantId;
+    private String participantUsername;
+    private String activityType;
+    private Integer energy;
+    private Integer durationMinutes;
+    private ActivityStatus status;
+    private String description;
+    private LocalDateTime createdAt;
+    private Long moderatedById;
+    private LocalDateTime moderatedAt;
+    private String rejectionReason;
+}
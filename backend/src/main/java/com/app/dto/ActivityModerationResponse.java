@@ -26,4 +26,9 @@ public class ActivityModerationResponse {
     private LocalDateTime createdAt;
     private List<ParticipantSimpleDto> participants;
     private Integer totalTeamParticipants;
+    private Long claimedById;
+    private String claimedByName;
+    private LocalDateTime claimExpiresAt;
+    // Other activities with a near-identical photo, most similar first
+    private List<PossibleDuplicateResponse> possibleDuplicates;
 }
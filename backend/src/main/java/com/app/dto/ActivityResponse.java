@@ -23,10 +23,13 @@ public class ActivityResponse {
     private String participantAvatarUrl;
     private String photoUrl;
     private List<String> photoUrls;
+    // Same photos with size and blurhash placeholder, in display order
+    private List<ImageInfo> photos;
     private LocalDateTime createdAt;
     private Long teamId;
     private String teamName;
     private String teamAvatarUrl;
+    private String teamAvatarPlaceholder;
     private Long eventId;
     private String eventName;
     private Boolean teamBasedCompetition;
@@ -0,0 +1,24 @@
+package com.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ActivityTypeImportResponse {
+    private String jobId;
+    private String status;
+    private Integer processedRows;
+    private Integer importedCount;
+    private Integer skippedCount;
+    private Integer errorCount;
+    private List<ImportRowError> errors;
+    private String message;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
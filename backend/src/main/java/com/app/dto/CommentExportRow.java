@@ -0,0 +1,22 @@
+package com.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CommentExportRow {
+    private Long id;
+    private Long activityId;
+    private Long eventId;
+    private Long participantId;
+    private String participantUsername;
+    private String text;
+    private Long mentionedParticipantId;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,15 @@
+package com.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateUploadRequest {
+    private String fileName;
+    private Long size;
+    // Optional hex SHA-256 of the whole file
+    private String sha256;
+}
@@ -0,0 +1,21 @@
+package com.app.dto;
+
+import com.app.model.EventStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EventListRow {
+    private Long id;
+    private String name;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+    private EventStatus status;
+    private Boolean displayOnHomepage;
+    private String dashboardTypes;
+}
@@ -0,0 +1,16 @@
+package com.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EventStorageUsage {
+    // null for files not tied to an event (profile photos, uploads not yet attached)
+    private Long eventId;
+    private String eventName;
+    private Long files;
+    private Long bytes;
+}
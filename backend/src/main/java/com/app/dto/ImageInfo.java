@@ -0,0 +1,29 @@
+package com.app.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Сохранённое изображение: URL, размер итогового JPEG и blurhash-заглушка,
+ * по которой клиент рисует размытое превью до загрузки самого файла.
+ * Перцептивный хэш используется только на сервере для поиска повторов
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImageInfo {
+    private String url;
+    private Integer width;
+    private Integer height;
+    private String placeholder;
+    
+    // dHash for duplicate detection; internal, never sent to clients
+    @JsonIgnore
+    private Long perceptualHash;
+    
+    public ImageInfo(String url, Integer width, Integer height, String placeholder) {
+        this(url, width, height, placeholder, null);
+    }
+}
@@ -0,0 +1,14 @@
+package com.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportRowError {
+    private Integer rowNumber;
+    private String value;
+    private String message;
+}
@@ -0,0 +1,33 @@
+package com.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class InvalidationMessage {
+    
+    public enum Type {
+        // Resources (ResourceVersions names) changed: ETags and results computed from them are stale
+        RESOURCES_CHANGED,
+        // An event reminder became due at dueAt; the next due time is moved earlier if needed
+        REMINDER_DUE
+    }
+    
+    private Type type;
+    private List<String> resources;
+    private LocalDateTime dueAt;
+    
+    public static InvalidationMessage resourcesChanged(List<String> resources) {
+        return new InvalidationMessage(Type.RESOURCES_CHANGED, resources, null);
+    }
+    
+    public static InvalidationMessage reminderDue(LocalDateTime dueAt) {
+        return new InvalidationMessage(Type.REMINDER_DUE, null, dueAt);
+    }
+}
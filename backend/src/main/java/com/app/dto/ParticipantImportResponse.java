@@ -0,0 +1,20 @@
+package com.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ParticipantImportResponse {
+    private Integer totalRows;
+    private Integer createdCount;
+    private Integer skippedCount;
+    private Integer failedCount;
+    private Integer enrolledCount;
+    private Long durationMs;
+    private List<ParticipantImportRowResult> rows;
+}
@@ -0,0 +1,17 @@
+package com.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ParticipantImportRowResult {
+    private Integer rowNumber;
+    private String username;
+    private String status;
+    private Long participantId;
+    private Boolean enrolled;
+    private String message;
+}
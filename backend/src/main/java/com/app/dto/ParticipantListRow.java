@@ -0,0 +1,19 @@
+package com.app.dto;
+
+import com.app.model.Role;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ParticipantListRow {
+    private Long id;
+    private String username;
+    private String name;
+    private String email;
+    private String phone;
+    private String profileImageUrl;
+    private Role role;
+}
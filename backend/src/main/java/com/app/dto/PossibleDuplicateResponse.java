@@ -0,0 +1,25 @@
+package com.app.dto;
+
+import com.app.model.ActivityStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Другая активность с почти таким же фото (расстояние Хэмминга dHash в битах из 64)
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PossibleDuplicateResponse {
+    private Long activityId;
+    private Long participantId;
+    private String participantName;
+    private ActivityStatus status;
+    private LocalDateTime createdAt;
+    private String photoUrl;
+    private String duplicatePhotoUrl;
+    private Integer distance;
+}
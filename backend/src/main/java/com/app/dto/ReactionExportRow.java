@@ -0,0 +1,21 @@
+package com.app.dto;
+
+import com.app.model.ReactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReactionExportRow {
+    private Long id;
+    private Long activityId;
+    private Long eventId;
+    private Long participantId;
+    private String participantUsername;
+    private ReactionType reactionType;
+    private LocalDateTime createdAt;
+}
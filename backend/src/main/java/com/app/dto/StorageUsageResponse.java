@@ -0,0 +1,24 @@
+package com.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StorageUsageResponse {
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Long referencedFiles;
+    private Long referencedBytes;
+    // Unreferenced files still within the grace period
+    private Long unreferencedFiles;
+    private Long unreferencedBytes;
+    private Long deletedFiles;
+    private Long deletedBytes;
+    private List<EventStorageUsage> events;
+}
@@ -14,6 +14,9 @@ public class TeamDetailResponse {
     private String name;
     private String motto;
     private String imageUrl;
+    private Integer imageWidth;
+    private Integer imageHeight;
+    private String imagePlaceholder;
     private Integer totalPoints;
     private Integer rank;
     private List<TeamParticipantDto> participants;
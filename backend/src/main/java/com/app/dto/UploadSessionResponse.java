@@ -0,0 +1,20 @@
+package com.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UploadSessionResponse {
+    private String id;
+    private String fileName;
+    private Long totalSize;
+    private Long receivedBytes;
+    private String status;
+    private String photoUrl;
+    private LocalDateTime expiresAt;
+}
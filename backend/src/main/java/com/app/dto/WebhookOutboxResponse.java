@@ -0,0 +1,23 @@
+package com.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class WebhookOutboxResponse {
+    private Long id;
+    private Long eventId;
+    private String targetUrl;
+    private String messageType;
+    private String status;
+    private Integer attempts;
+    private LocalDateTime nextAttemptAt;
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime deliveredAt;
+}
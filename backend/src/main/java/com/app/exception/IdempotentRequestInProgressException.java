@@ -0,0 +1,15 @@
+package com.app.exception;
+
+public class IdempotentRequestInProgressException extends RuntimeException {
+    
+    private final long retryAfterSeconds;
+    
+    public IdempotentRequestInProgressException(long retryAfterSeconds) {
+        super("The original request with this Idempotency-Key is still being processed, retry in " + retryAfterSeconds + " s");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
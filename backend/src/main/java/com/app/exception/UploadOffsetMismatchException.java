@@ -0,0 +1,15 @@
+package com.app.exception;
+
+public class UploadOffsetMismatchException extends RuntimeException {
+    
+    private final long expectedOffset;
+    
+    public UploadOffsetMismatchException(long expectedOffset) {
+        super("Chunk offset does not match the upload, expected " + expectedOffset);
+        this.expectedOffset = expectedOffset;
+    }
+    
+    public long getExpectedOffset() {
+        return expectedOffset;
+    }
+}
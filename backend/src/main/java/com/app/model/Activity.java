@@ -12,11 +12,26 @@ import java.util.List;
 
 @Entity
 @Table(name = "activities")
+// Card data for feeds and moderation; photos and participants come in batches (default_batch_fetch_size)
+@NamedEntityGraph(name = Activity.GRAPH_SUMMARY, attributeNodes = {
+        @NamedAttributeNode(value = "team", subgraph = "team"),
+        @NamedAttributeNode("participant"),
+        @NamedAttributeNode("activityType")
+}, subgraphs = @NamedSubgraph(name = "team", attributeNodes = @NamedAttributeNode("event")))
+@NamedEntityGraph(name = Activity.GRAPH_MODERATION, attributeNodes = {
+        @NamedAttributeNode(value = "team", subgraph = "team"),
+        @NamedAttributeNode("participant"),
+        @NamedAttributeNode("activityType"),
+        @NamedAttributeNode("claimedBy")
+}, subgraphs = @NamedSubgraph(name = "team", attributeNodes = @NamedAttributeNode("event")))
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Activity {
+    public static final String GRAPH_SUMMARY = "Activity.summary";
+    public static final String GRAPH_MODERATION = "Activity.moderation";
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -70,4 +85,11 @@ public class Activity {
     
     @Column(name = "rejection_reason", columnDefinition = "TEXT")
     private String rejectionReason;
+    
+    @ManyToOne(fetch = FetchType.LAZY, optional = true)
+    @JoinColumn(name = "claimed_by")
+    private Participant claimedBy;
+    
+    @Column(name = "claim_expires_at")
+    private LocalDateTime claimExpiresAt;
 }
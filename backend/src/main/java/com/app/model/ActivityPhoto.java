@@ -26,6 +26,18 @@ public class ActivityPhoto {
     @Column(name = "photo_url", nullable = false)
     private String photoUrl;
     
+    // Size of the stored JPEG and its blurhash, so clients can lay out and paint before it loads
+    private Integer width;
+    
+    private Integer height;
+    
+    @Column(length = 64)
+    private String placeholder;
+    
+    // dHash of the stored JPEG; null for photos not hashed yet
+    @Column(name = "perceptual_hash")
+    private Long perceptualHash;
+    
     @Column(name = "display_order")
     private Integer displayOrder;
     
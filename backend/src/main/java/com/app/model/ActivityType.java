@@ -1,5 +1,6 @@
 package com.app.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -28,6 +29,8 @@ public class ActivityType {
     @Column(name = "default_energy")
     private Integer defaultEnergy;
     
+    // Lazy and not needed by clients; would fail to serialize outside the session
+    @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY, optional = true)
     @JoinColumn(name = "event_id")
     private Event event;
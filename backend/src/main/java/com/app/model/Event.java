@@ -18,7 +18,10 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@NamedEntityGraph(name = Event.GRAPH_WITH_ADMINS, attributeNodes = @NamedAttributeNode("eventAdmins"))
 public class Event {
+    public static final String GRAPH_WITH_ADMINS = "Event.withAdmins";
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -0,0 +1,47 @@
+package com.app.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "event_reminders", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"event_id", "reminder_type", "target_at"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventReminder {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "event_id", nullable = false)
+    private Event event;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "reminder_type", nullable = false, length = 30)
+    private EventReminderType reminderType;
+    
+    @Column(name = "due_at", nullable = false)
+    private LocalDateTime dueAt;
+    
+    @Column(name = "target_at", nullable = false)
+    private LocalDateTime targetAt;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EventReminderStatus status = EventReminderStatus.PENDING;
+    
+    @Column(name = "recipient_count")
+    private Integer recipientCount;
+    
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+}
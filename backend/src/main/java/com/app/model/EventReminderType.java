@@ -0,0 +1,7 @@
+package com.app.model;
+
+public enum EventReminderType {
+    EVENT_START,
+    REGISTRATION_DEADLINE,
+    EVENT_END
+}
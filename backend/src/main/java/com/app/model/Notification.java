@@ -14,7 +14,13 @@ import java.time.LocalDateTime;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
+@NamedEntityGraph(name = Notification.GRAPH_WITH_ACTIVITY, attributeNodes = {
+        @NamedAttributeNode("participant"),
+        @NamedAttributeNode(value = "activity", subgraph = "activity")
+}, subgraphs = @NamedSubgraph(name = "activity", attributeNodes = @NamedAttributeNode("activityType")))
 public class Notification {
+    public static final String GRAPH_WITH_ACTIVITY = "Notification.withActivity";
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -6,5 +6,6 @@ public enum NotificationType {
     TEAM_INVITATION,
     EVENT_INVITATION,
     GENERAL,
-    ADMIN_MESSAGE
+    ADMIN_MESSAGE,
+    EVENT_REMINDER
 }
@@ -1,5 +1,6 @@
 package com.app.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -27,6 +28,18 @@ public class Team {
     @Column(name = "image_url")
     private String imageUrl;
     
+    @Column(name = "image_width")
+    private Integer imageWidth;
+    
+    @Column(name = "image_height")
+    private Integer imageHeight;
+    
+    // Blurhash of the team image, shown until the image itself loads
+    @Column(name = "image_placeholder", length = 64)
+    private String imagePlaceholder;
+    
+    // Lazy and not needed by clients; would fail to serialize outside the session
+    @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY, optional = true)
     @JoinColumn(name = "event_id")
     private Event event;
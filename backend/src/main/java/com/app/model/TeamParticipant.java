@@ -16,7 +16,10 @@ import java.time.LocalDateTime;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
+@NamedEntityGraph(name = TeamParticipant.GRAPH_WITH_PARTICIPANT, attributeNodes = @NamedAttributeNode("participant"))
 public class TeamParticipant {
+    public static final String GRAPH_WITH_PARTICIPANT = "TeamParticipant.withParticipant";
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
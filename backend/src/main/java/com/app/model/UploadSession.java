@@ -0,0 +1,64 @@
+package com.app.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "upload_sessions")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSession {
+    // Random UUID: it is the only thing a client needs to resume the upload
+    @Id
+    @Column(length = 36)
+    private String id;
+    
+    @Column(name = "participant_id", nullable = false)
+    private Long participantId;
+    
+    @Column(name = "file_name")
+    private String fileName;
+    
+    @Column(name = "total_size", nullable = false)
+    private Long totalSize;
+    
+    // Bytes durably written to the part file; the next chunk must start here
+    @Column(name = "received_bytes", nullable = false)
+    private Long receivedBytes = 0L;
+    
+    // Optional SHA-256 of the whole file declared by the client, checked on completion
+    @Column(length = 64)
+    private String sha256;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private UploadSessionStatus status = UploadSessionStatus.UPLOADING;
+    
+    @Column(name = "photo_url")
+    private String photoUrl;
+    
+    @Column(name = "photo_width")
+    private Integer photoWidth;
+    
+    @Column(name = "photo_height")
+    private Integer photoHeight;
+    
+    @Column(name = "photo_placeholder", length = 64)
+    private String photoPlaceholder;
+    
+    @Column(name = "photo_hash")
+    private Long photoHash;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,7 @@
+package com.app.model;
+
+public enum UploadSessionStatus {
+    UPLOADING,
+    COMPLETED,
+    ATTACHED
+}
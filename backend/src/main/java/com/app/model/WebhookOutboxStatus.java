@@ -0,0 +1,7 @@
+package com.app.model;
+
+public enum WebhookOutboxStatus {
+    PENDING,
+    DELIVERED,
+    DEAD
+}
@@ -1,12 +1,16 @@
 package com.app.repository;
 
+import com.app.dto.CommentExportRow;
 import com.app.model.ActivityComment;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ActivityCommentRepository extends JpaRepository<ActivityComment, Long> {
@@ -14,4 +18,12 @@ public interface ActivityCommentRepository extends JpaRepository<ActivityComment
     
     @Query("SELECT COUNT(c) FROM ActivityComment c WHERE c.activity.id = :activityId")
     Long countByActivityId(@Param("activityId") Long activityId);
+    
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.app.dto.CommentExportRow(c.id, a.id, t.event.id, p.id, p.username, c.text, mp.id, " +
+           "c.createdAt, c.updatedAt) " +
+           "FROM ActivityComment c JOIN c.activity a JOIN a.team t JOIN c.participant p " +
+           "LEFT JOIN c.mentionedParticipant mp " +
+           "WHERE c.id > :afterId AND (:eventId IS NULL OR t.event.id = :eventId) ORDER BY c.id")
+    Stream<CommentExportRow> streamExportRows(@Param("eventId") Long eventId, @Param("afterId") Long afterId);
 }
@@ -1,12 +1,27 @@
 package com.app.repository;
 
 import com.app.model.ActivityPhoto;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 @Repository
 public interface ActivityPhotoRepository extends JpaRepository<ActivityPhoto, Long> {
     List<ActivityPhoto> findByActivityIdOrderByDisplayOrderAsc(Long activityId);
+    
+    /**
+     * Фото без перцептивного хэша после указанного id — для дозаполнения
+     */
+    List<ActivityPhoto> findByIdGreaterThanAndPerceptualHashIsNullOrderByIdAsc(Long id, Pageable pageable);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE ActivityPhoto p SET p.perceptualHash = :hash WHERE p.id = :id")
+    int updatePerceptualHash(@Param("id") Long id, @Param("hash") Long hash);
 }
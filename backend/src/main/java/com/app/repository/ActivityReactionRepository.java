@@ -1,15 +1,19 @@
 package com.app.repository;
 
+import com.app.dto.ReactionExportRow;
 import com.app.model.ActivityReaction;
 import com.app.model.ReactionType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ActivityReactionRepository extends JpaRepository<ActivityReaction, Long> {
@@ -24,4 +28,10 @@ public interface ActivityReactionRepository extends JpaRepository<ActivityReacti
     
     @Query("SELECT COUNT(ar) FROM ActivityReaction ar WHERE ar.activity.id = :activityId")
     Long countByActivityId(@Param("activityId") Long activityId);
+    
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.app.dto.ReactionExportRow(r.id, a.id, t.event.id, p.id, p.username, r.reactionType, r.createdAt) " +
+           "FROM ActivityReaction r JOIN r.activity a JOIN a.team t JOIN r.participant p " +
+           "WHERE r.id > :afterId AND (:eventId IS NULL OR t.event.id = :eventId) ORDER BY r.id")
+    Stream<ReactionExportRow> streamExportRows(@Param("eventId") Long eventId, @Param("afterId") Long afterId);
 }
@@ -1,15 +1,25 @@
 package com.app.repository;
 
+import com.app.dto.ActivityExportRow;
 import com.app.model.Activity;
 import com.app.model.ActivityStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ActivityRepository extends JpaRepository<Activity, Long>, JpaSpecificationExecutor<Activity> {
@@ -28,15 +38,90 @@ public interface ActivityRepository extends JpaRepository<Activity, Long>, JpaSp
     @Query("SELECT SUM(a.energy) FROM Activity a WHERE a.team.id = :teamId AND a.status IN :statuses")
     Integer sumEnergyByTeamIdAndStatusIn(@Param("teamId") Long teamId, @Param("statuses") List<ActivityStatus> statuses);
     
+    @EntityGraph(Activity.GRAPH_SUMMARY)
     @Query("SELECT DISTINCT a FROM Activity a LEFT JOIN FETCH a.adjustments adj LEFT JOIN FETCH adj.bonusType WHERE a.id = :id")
     Activity findByIdWithAdjustments(@Param("id") Long id);
     
+    @EntityGraph(Activity.GRAPH_SUMMARY)
     @Query("SELECT DISTINCT a FROM Activity a LEFT JOIN FETCH a.adjustments adj LEFT JOIN FETCH adj.bonusType WHERE a.status IN :statuses ORDER BY a.createdAt DESC")
     List<Activity> findAllWithAdjustmentsByStatusIn(@Param("statuses") List<ActivityStatus> statuses);
     
+    @EntityGraph(Activity.GRAPH_SUMMARY)
     @Query("SELECT DISTINCT a FROM Activity a LEFT JOIN FETCH a.adjustments adj LEFT JOIN FETCH adj.bonusType WHERE a.team.id = :teamId AND a.status IN :statuses ORDER BY a.createdAt DESC")
     List<Activity> findByTeamIdWithAdjustments(@Param("teamId") Long teamId, @Param("statuses") List<ActivityStatus> statuses);
     
+    @EntityGraph(Activity.GRAPH_SUMMARY)
     @Query("SELECT DISTINCT a FROM Activity a LEFT JOIN FETCH a.adjustments adj LEFT JOIN FETCH adj.bonusType WHERE a.team.event.id = :eventId AND a.status IN :statuses ORDER BY a.createdAt DESC")
     List<Activity> findByEventIdWithAdjustments(@Param("eventId") Long eventId, @Param("statuses") List<ActivityStatus> statuses);
+    
+    /**
+     * Страница ленты: сначала выбираются только ID (LIMIT/OFFSET в БД),
+     * затем сами активности загружаются через findFeedItemsByIdIn
+     */
+    @Query("SELECT a.id FROM Activity a WHERE a.status IN :statuses ORDER BY a.createdAt DESC, a.id DESC")
+    List<Long> findFeedIds(@Param("statuses") List<ActivityStatus> statuses, Pageable pageable);
+    
+    @Query("SELECT a.id FROM Activity a WHERE a.team.event.id = :eventId AND a.status IN :statuses ORDER BY a.createdAt DESC, a.id DESC")
+    List<Long> findEventFeedIds(@Param("eventId") Long eventId, @Param("statuses") List<ActivityStatus> statuses, Pageable pageable);
+    
+    @EntityGraph(Activity.GRAPH_SUMMARY)
+    @Query("SELECT DISTINCT a FROM Activity a LEFT JOIN FETCH a.adjustments adj LEFT JOIN FETCH adj.bonusType WHERE a.id IN :ids")
+    List<Activity> findFeedItemsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Override
+    @EntityGraph(Activity.GRAPH_MODERATION)
+    Page<Activity> findAll(Specification<Activity> spec, Pageable pageable);
+    
+    @EntityGraph(Activity.GRAPH_MODERATION)
+    List<Activity> findByIdIn(Collection<Long> ids);
+    
+    /**
+     * Выбрать ID свободных активностей на модерации с блокировкой строк.
+     * 
+     * Строки, уже заблокированные другой транзакцией, пропускаются (SKIP LOCKED),
+     * поэтому параллельные модераторы получают непересекающиеся наборы.
+     * Свободной считается активность без захвата, с истекшим захватом
+     * или захваченная самим модератором (повторный захват продлевает аренду).
+     */
+    @Query(value = "SELECT a.id FROM activities a " +
+            "WHERE a.status = 'PENDING' " +
+            "AND (a.claimed_by IS NULL OR a.claim_expires_at < :now OR a.claimed_by = :moderatorId) " +
+            "ORDER BY a.created_at ASC " +
+            "LIMIT :limit FOR UPDATE OF a SKIP LOCKED", nativeQuery = true)
+    List<Number> lockClaimablePendingIds(@Param("moderatorId") Long moderatorId,
+                                       @Param("now") LocalDateTime now,
+                                       @Param("limit") int limit);
+    
+    @Query(value = "SELECT a.id FROM activities a JOIN teams t ON t.id = a.team_id " +
+            "WHERE a.status = 'PENDING' AND t.event_id = :eventId " +
+            "AND (a.claimed_by IS NULL OR a.claim_expires_at < :now OR a.claimed_by = :moderatorId) " +
+            "ORDER BY a.created_at ASC " +
+            "LIMIT :limit FOR UPDATE OF a SKIP LOCKED", nativeQuery = true)
+    List<Number> lockClaimablePendingIdsByEventId(@Param("eventId") Long eventId,
+                                                @Param("moderatorId") Long moderatorId,
+                                                @Param("now") LocalDateTime now,
+                                                @Param("limit") int limit);
+    
+    @Modifying
+    @Query(value = "UPDATE activities SET claimed_by = :moderatorId, claim_expires_at = :expiresAt WHERE id IN (:ids)", nativeQuery = true)
+    int claimActivities(@Param("ids") List<Long> ids,
+                        @Param("moderatorId") Long moderatorId,
+                        @Param("expiresAt") LocalDateTime expiresAt);
+    
+    @Modifying
+    @Query(value = "UPDATE activities SET claimed_by = NULL, claim_expires_at = NULL " +
+            "WHERE id = :activityId AND claimed_by = :moderatorId AND status = 'PENDING'", nativeQuery = true)
+    int releaseClaim(@Param("activityId") Long activityId, @Param("moderatorId") Long moderatorId);
+    
+    @Modifying
+    @Query(value = "UPDATE activities SET claimed_by = NULL, claim_expires_at = NULL " +
+            "WHERE claimed_by IS NOT NULL AND claim_expires_at < :now", nativeQuery = true)
+    int releaseExpiredClaims(@Param("now") LocalDateTime now);
+    
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.app.dto.ActivityExportRow(a.id, t.event.id, t.id, t.name, p.id, p.username, ty.name, " +
+           "a.energy, a.durationMinutes, a.status, a.description, a.createdAt, m.id, a.moderatedAt, a.rejectionReason) " +
+           "FROM Activity a JOIN a.team t JOIN a.participant p JOIN a.activityType ty LEFT JOIN a.moderatedBy m " +
+           "WHERE a.id > :afterId AND (:eventId IS NULL OR t.event.id = :eventId) ORDER BY a.id")
+    Stream<ActivityExportRow> streamExportRows(@Param("eventId") Long eventId, @Param("afterId") Long afterId);
 }
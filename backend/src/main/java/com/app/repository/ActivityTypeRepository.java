@@ -2,6 +2,7 @@ package com.app.repository;
 
 import com.app.model.ActivityType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,4 +13,7 @@ public interface ActivityTypeRepository extends JpaRepository<ActivityType, Long
     Optional<ActivityType> findByName(String name);
     List<ActivityType> findAllByOrderByNameAsc();
     List<ActivityType> findByEventIdOrderByNameAsc(Long eventId);
+    
+    @Query("SELECT a.name FROM ActivityType a")
+    List<String> findAllNames();
 }
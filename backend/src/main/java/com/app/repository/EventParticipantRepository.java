@@ -3,6 +3,8 @@ package com.app.repository;
 import com.app.model.EventParticipant;
 import com.app.model.EventParticipantStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,4 +17,14 @@ public interface EventParticipantRepository extends JpaRepository<EventParticipa
     List<EventParticipant> findByEventId(Long eventId);
     Optional<EventParticipant> findByEventIdAndParticipantId(Long eventId, Long participantId);
     boolean existsByEventIdAndParticipantIdAndStatus(Long eventId, Long participantId, EventParticipantStatus status);
+    
+    /**
+     * ID всех участников мероприятия: принявшие приглашение и члены команд мероприятия.
+     */
+    @Query(value = "SELECT ep.participant_id FROM event_participants ep " +
+            "WHERE ep.event_id = :eventId AND ep.status = 'ACCEPTED' " +
+            "UNION " +
+            "SELECT tp.participant_id FROM team_participants tp JOIN teams t ON t.id = tp.team_id " +
+            "WHERE t.event_id = :eventId", nativeQuery = true)
+    List<Number> findAllMemberIdsByEventId(@Param("eventId") Long eventId);
 }
@@ -0,0 +1,45 @@
+package com.app.repository;
+
+import com.app.model.EventReminder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EventReminderRepository extends JpaRepository<EventReminder, Long> {
+    
+    /**
+     * Выбрать наступившие напоминания с блокировкой строк.
+     * SKIP LOCKED гарантирует, что каждое напоминание обрабатывает только один узел.
+     */
+    @Query(value = "SELECT * FROM event_reminders " +
+            "WHERE status = 'PENDING' AND due_at <= :now " +
+            "ORDER BY due_at ASC " +
+            "LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<EventReminder> lockDueReminders(@Param("now") LocalDateTime now, @Param("limit") int limit);
+    
+    @Query("SELECT MIN(r.dueAt) FROM EventReminder r WHERE r.status = com.app.model.EventReminderStatus.PENDING")
+    LocalDateTime findNextDueAt();
+    
+    /**
+     * Добавить напоминание, если для этого момента (target_at) его еще нет (в том числе уже отправленного).
+     * ON CONFLICT делает пересчет индекса идемпотентным при рестартах и на нескольких узлах.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO event_reminders (event_id, reminder_type, due_at, target_at, status) " +
+            "VALUES (:eventId, :reminderType, :dueAt, :targetAt, 'PENDING') " +
+            "ON CONFLICT (event_id, reminder_type, target_at) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("eventId") Long eventId,
+                       @Param("reminderType") String reminderType,
+                       @Param("dueAt") LocalDateTime dueAt,
+                       @Param("targetAt") LocalDateTime targetAt);
+    
+    @Modifying
+    @Query(value = "DELETE FROM event_reminders WHERE event_id = :eventId AND status = 'PENDING'", nativeQuery = true)
+    int deletePendingByEventId(@Param("eventId") Long eventId);
+}
@@ -1,7 +1,10 @@
 package com.app.repository;
 
+import com.app.dto.EventListRow;
 import com.app.model.Event;
 import com.app.model.EventStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -14,11 +17,22 @@ import java.util.Optional;
 public interface EventRepository extends JpaRepository<Event, Long> {
     List<Event> findByStatus(EventStatus status);
     
+    @EntityGraph(Event.GRAPH_WITH_ADMINS)
     Optional<Event> findByDisplayOnHomepageTrue();
     
+    @EntityGraph(Event.GRAPH_WITH_ADMINS)
+    Optional<Event> findWithAdminsById(Long id);
+    
+    @EntityGraph(Event.GRAPH_WITH_ADMINS)
     @Query("SELECT e FROM Event e WHERE e.startDate <= :now AND e.endDate >= :now AND e.status = 'ACTIVE'")
     List<Event> findActiveEvents(LocalDateTime now);
     
     @Query("SELECT e FROM Event e JOIN e.eventAdmins a WHERE a.id = :participantId")
     List<Event> findByEventAdminId(Long participantId);
+    
+    List<Event> findByEndDateAfterAndStatusIn(LocalDateTime date, List<EventStatus> statuses);
+    
+    @Query("SELECT new com.app.dto.EventListRow(e.id, e.name, e.startDate, e.endDate, e.status, " +
+           "e.displayOnHomepage, e.dashboardTypes) FROM Event e")
+    List<EventListRow> findListRows(Pageable pageable);
 }
@@ -0,0 +1,60 @@
+package com.app.repository;
+
+import com.app.model.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, Long> {
+    
+    /**
+     * Занять ключ (или заменить истёкший либо брошенный упавшим узлом).
+     * Возвращает 0, если ключ уже использован или его обрабатывает другой запрос.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (owner, scope, idempotency_key, request_hash, created_at, expires_at, locked_until) " +
+            "VALUES (:owner, :scope, :key, :requestHash, :now, :expiresAt, :lockedUntil) " +
+            "ON CONFLICT (owner, scope, idempotency_key) DO UPDATE SET " +
+            "request_hash = EXCLUDED.request_hash, response_status = NULL, response_body = NULL, " +
+            "created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at, locked_until = EXCLUDED.locked_until " +
+            "WHERE idempotency_keys.expires_at < :now " +
+            "OR (idempotency_keys.response_status IS NULL AND idempotency_keys.locked_until < :now)", nativeQuery = true)
+    int claim(@Param("owner") String owner,
+              @Param("scope") String scope,
+              @Param("key") String key,
+              @Param("requestHash") String requestHash,
+              @Param("now") LocalDateTime now,
+              @Param("expiresAt") LocalDateTime expiresAt,
+              @Param("lockedUntil") LocalDateTime lockedUntil);
+    
+    Optional<IdempotencyKey> findByOwnerAndScopeAndIdempotencyKey(String owner, String scope, String idempotencyKey);
+    
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.responseStatus = :status, k.responseBody = :body, k.lockedUntil = NULL " +
+            "WHERE k.owner = :owner AND k.scope = :scope AND k.idempotencyKey = :key")
+    int complete(@Param("owner") String owner,
+                 @Param("scope") String scope,
+                 @Param("key") String key,
+                 @Param("status") int status,
+                 @Param("body") String body);
+    
+    /**
+     * Освободить занятый, но не завершённый ключ, чтобы клиент мог повторить запрос
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k " +
+            "WHERE k.owner = :owner AND k.scope = :scope AND k.idempotencyKey = :key AND k.responseStatus IS NULL")
+    int release(@Param("owner") String owner,
+                @Param("scope") String scope,
+                @Param("key") String key);
+    
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_keys WHERE expires_at < :now", nativeQuery = true)
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -1,6 +1,7 @@
 package com.app.repository;
 
 import com.app.model.Notification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -8,8 +9,10 @@ import java.util.List;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
+    @EntityGraph(Notification.GRAPH_WITH_ACTIVITY)
     List<Notification> findByParticipantIdOrderByCreatedAtDesc(Long participantId);
     
+    @EntityGraph(Notification.GRAPH_WITH_ACTIVITY)
     List<Notification> findByParticipantIdAndIsReadFalseOrderByCreatedAtDesc(Long participantId);
     
     long countByParticipantIdAndIsReadFalse(Long participantId);
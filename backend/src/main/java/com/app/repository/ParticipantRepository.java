@@ -1,6 +1,9 @@
 package com.app.repository;
 
+import com.app.dto.ParticipantListRow;
+import com.app.dto.ParticipantSearchResponse;
 import com.app.model.Participant;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,6 +16,11 @@ import java.util.Optional;
 public interface ParticipantRepository extends JpaRepository<Participant, Long> {
     Optional<Participant> findByUsername(String username);
     
-    @Query("SELECT p FROM Participant p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :query, '%'))")
-    List<Participant> searchByName(@Param("query") String query);
+    @Query("SELECT new com.app.dto.ParticipantSearchResponse(p.id, p.name) FROM Participant p " +
+           "WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :query, '%'))")
+    List<ParticipantSearchResponse> searchByName(@Param("query") String query);
+    
+    @Query("SELECT new com.app.dto.ParticipantListRow(p.id, p.username, p.name, p.email, p.phone, " +
+           "p.profileImageUrl, p.role) FROM Participant p")
+    List<ParticipantListRow> findListRows(Pageable pageable);
 }
@@ -1,11 +1,13 @@
 package com.app.repository;
 
 import com.app.model.TeamParticipant;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,6 +15,15 @@ import java.util.Optional;
 public interface TeamParticipantRepository extends JpaRepository<TeamParticipant, Long> {
     List<TeamParticipant> findByTeamId(Long teamId);
     
+    @EntityGraph(TeamParticipant.GRAPH_WITH_PARTICIPANT)
+    List<TeamParticipant> findWithParticipantByTeamId(Long teamId);
+    
+    long countByTeamId(Long teamId);
+    
+    // [teamId, count] for teams that have members
+    @Query("SELECT tp.team.id, COUNT(tp) FROM TeamParticipant tp WHERE tp.team.id IN :teamIds GROUP BY tp.team.id")
+    List<Object[]> countByTeamIdIn(@Param("teamIds") Collection<Long> teamIds);
+    
     List<TeamParticipant> findByParticipantId(Long participantId);
     
     Optional<TeamParticipant> findByTeamIdAndParticipantId(Long teamId, Long participantId);
@@ -1,7 +1,11 @@
 package com.app.repository;
 
+import com.app.dto.TeamListResponse;
 import com.app.model.Team;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,4 +13,10 @@ import java.util.List;
 @Repository
 public interface TeamRepository extends JpaRepository<Team, Long> {
     List<Team> findByEventId(Long eventId);
+    
+    @Query("SELECT new com.app.dto.TeamListResponse(t.id, t.name) FROM Team t")
+    List<TeamListResponse> findListItems(Pageable pageable);
+    
+    @Query("SELECT new com.app.dto.TeamListResponse(t.id, t.name) FROM Team t WHERE t.event.id = :eventId")
+    List<TeamListResponse> findListItemsByEventId(@Param("eventId") Long eventId, Pageable pageable);
 }
@@ -0,0 +1,56 @@
+package com.app.repository;
+
+import com.app.model.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+    
+    /**
+     * Сдвинуть смещение после записи чанка. Возвращает 0, если смещение уже
+     * изменил другой запрос — тогда чанк не засчитывается.
+     * Своя транзакция: чанк пишется на диск без удержания соединения с БД.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.receivedBytes = :newOffset " +
+            "WHERE s.id = :id AND s.receivedBytes = :offset AND s.status = com.app.model.UploadSessionStatus.UPLOADING")
+    int advance(@Param("id") String id, @Param("offset") long offset, @Param("newOffset") long newOffset);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.status = com.app.model.UploadSessionStatus.COMPLETED, s.photoUrl = :photoUrl, " +
+            "s.photoWidth = :width, s.photoHeight = :height, s.photoPlaceholder = :placeholder, s.photoHash = :hash " +
+            "WHERE s.id = :id AND s.status = com.app.model.UploadSessionStatus.UPLOADING")
+    int markCompleted(@Param("id") String id,
+                      @Param("photoUrl") String photoUrl,
+                      @Param("width") Integer width,
+                      @Param("height") Integer height,
+                      @Param("placeholder") String placeholder,
+                      @Param("hash") Long hash);
+    
+    /**
+     * Привязать завершённые загрузки участника к активности. Истёкшие не
+     * привязываются: их фото может уже удалять очистка
+     */
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.status = com.app.model.UploadSessionStatus.ATTACHED " +
+            "WHERE s.id IN :ids AND s.participantId = :participantId " +
+            "AND s.status = com.app.model.UploadSessionStatus.COMPLETED AND s.expiresAt > :now")
+    int attach(@Param("ids") Collection<String> ids,
+               @Param("participantId") Long participantId,
+               @Param("now") LocalDateTime now);
+    
+    List<UploadSession> findByIdIn(Collection<String> ids);
+    
+    List<UploadSession> findTop100ByExpiresAtBefore(LocalDateTime now);
+}
@@ -0,0 +1,29 @@
+package com.app.repository;
+
+import com.app.model.WebhookOutboxMessage;
+import com.app.model.WebhookOutboxStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface WebhookOutboxRepository extends JpaRepository<WebhookOutboxMessage, Long> {
+    
+    /**
+     * Выбрать готовые к отправке сообщения с блокировкой строк.
+     * SKIP LOCKED позволяет нескольким узлам разбирать очередь параллельно.
+     */
+    @Query(value = "SELECT * FROM webhook_outbox " +
+            "WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+            "ORDER BY id ASC " +
+            "LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<WebhookOutboxMessage> lockDueMessages(@Param("now") LocalDateTime now, @Param("limit") int limit);
+    
+    List<WebhookOutboxMessage> findByEventIdAndStatusOrderByCreatedAtDesc(Long eventId, WebhookOutboxStatus status);
+    
+    long countByStatus(WebhookOutboxStatus status);
+}
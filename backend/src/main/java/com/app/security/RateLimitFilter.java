@@ -0,0 +1,366 @@
+package com.app.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ограничение частоты запросов к API.
+ *
+ * Клиент определяется по userId из JWT, а для анонимных запросов (вход,
+ * регистрация) — по IP. Каждый запрос к /api расходует общий бюджет клиента
+ * и бюджет первого подходящего правила из app.rate-limit.rules. При исчерпании
+ * отдаётся 429 с Retry-After. Фильтр стоит до JwtAuthenticationFilter, чтобы
+ * отклонённые запросы не доходили до БД.
+ *
+ * Анонимные клиенты за одним NAT делят IP, поэтому правило для входа считается
+ * по паре IP + имя пользователя из тела запроса: соседи по сети не блокируют
+ * друг друга, а подбор пароля к одной учётной записи ограничен. Перебор имён
+ * с одного адреса сдерживает отдельный, более широкий бюджет входа на IP.
+ *
+ * Бюджет — token bucket в форме GCRA: состояние ведра — один AtomicLong с
+ * моментом, когда ведро снова станет полным, и обновляется CAS без блокировок.
+ * Вёдра лежат в ConcurrentHashMap; полные вёдра периодически удаляются.
+ * Проверенные токены запоминаются, чтобы не проверять подпись на каждом запросе.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+    
+    private static final int MAX_CACHED_TOKENS = 10000;
+    
+    private static final String LOGIN_PATH = "/api/auth/login";
+    
+    // Login bodies are a username and a password; anything larger is limited by IP alone
+    private static final int MAX_LOGIN_BODY_BYTES = 4096;
+    
+    private static final int MAX_USERNAME_KEY_LENGTH = 100;
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.rate-limit.rules:}")
+    private List<String> ruleSpecs;
+    
+    @Value("${app.rate-limit.default:600/1m}")
+    private String defaultSpec;
+    
+    @Value("${app.rate-limit.login-per-ip:100/1m}")
+    private String loginPerIpSpec;
+    
+    private final List<Rule> rules = new ArrayList<>();
+    
+    private Rule defaultRule;
+    
+    private Rule loginIpRule;
+    
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    
+    // Verifying a JWT signature costs far more than the limiter itself, and tokens live for days
+    private final Map<String, Long> tokenUserIds = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    void parseRules() {
+        for (String spec : ruleSpecs) {
+            if (spec.isBlank()) {
+                continue;
+            }
+            String[] parts = spec.trim().split("\\s+");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid rate limit rule (expected 'METHOD pattern capacity/period'): " + spec);
+            }
+            rules.add(Rule.parse("r" + rules.size(), parts[0], parts[1], parts[2]));
+        }
+        defaultRule = Rule.parse("default", "*", "/api/**", defaultSpec.trim());
+        loginIpRule = Rule.parse("login-ip", "POST", LOGIN_PATH, loginPerIpSpec.trim());
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled
+                || "OPTIONS".equals(request.getMethod())
+                || !request.getRequestURI().startsWith("/api/");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String client = clientKey(request);
+        String path = request.getRequestURI();
+        long now = System.nanoTime();
+        
+        String ruleClient = client;
+        if (client.startsWith("ip") && "POST".equals(request.getMethod()) && LOGIN_PATH.equals(path)) {
+            if (reject(loginIpRule, client, now, response)) {
+                return;
+            }
+            byte[] body = readLoginBody(request);
+            if (body != null) {
+                request = new CachedBodyRequest(request, body);
+                String username = loginUsername(body);
+                if (!username.isEmpty()) {
+                    ruleClient = client + ":" + username;
+                }
+            }
+        }
+        
+        for (Rule rule : rules) {
+            if (rule.matches(request.getMethod(), path)) {
+                if (reject(rule, ruleClient, now, response)) {
+                    return;
+                }
+                break;
+            }
+        }
+        if (reject(defaultRule, client, now, response)) {
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+    
+    /**
+     * Удалить полные вёдра: они ничем не отличаются от отсутствующих
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.cleanup-interval-ms:60000}")
+    public void evictFullBuckets() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        if (tokenUserIds.size() >= MAX_CACHED_TOKENS) {
+            tokenUserIds.clear();
+        }
+    }
+    
+    private boolean reject(Rule rule, String client, long now, HttpServletResponse response) throws IOException {
+        AtomicLong bucket = buckets.computeIfAbsent(rule.id + ':' + client, key -> new AtomicLong(now));
+        long waitNanos = rule.tryAcquire(bucket, now);
+        if (waitNanos == 0) {
+            return false;
+        }
+        
+        meterRegistry.counter("app.ratelimit.rejected", "rule", rule.description).increment();
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("{\"message\":\"Too many requests, retry in " + retryAfterSeconds
+                + " s\",\"error\":\"RATE_LIMITED\"}");
+        return true;
+    }
+    
+    private String clientKey(HttpServletRequest request) {
+        String authorizationHeader = request.getHeader("Authorization");
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
+            String token = authorizationHeader.substring(7);
+            Long userId = tokenUserIds.get(token);
+            if (userId == null) {
+                try {
+                    userId = jwtUtil.extractUserId(token);
+                } catch (Exception e) {
+                    // Invalid or expired token: the request is limited as anonymous and rejected later
+                }
+                if (userId != null && tokenUserIds.size() < MAX_CACHED_TOKENS) {
+                    tokenUserIds.put(token, userId);
+                }
+            }
+            if (userId != null) {
+                return "u" + userId;
+            }
+        }
+        // The client address behind nginx comes from X-Forwarded-For (server.forward-headers-strategy)
+        return "ip" + request.getRemoteAddr();
+    }
+    
+    private byte[] readLoginBody(HttpServletRequest request) throws IOException {
+        int length = request.getContentLength();
+        if (length < 0 || length > MAX_LOGIN_BODY_BYTES) {
+            return null;
+        }
+        return request.getInputStream().readNBytes(length);
+    }
+    
+    private String loginUsername(byte[] body) {
+        try {
+            String username = objectMapper.readTree(body).path("username").asText("").trim().toLowerCase();
+            return username.length() > MAX_USERNAME_KEY_LENGTH ? username.substring(0, MAX_USERNAME_KEY_LENGTH) : username;
+        } catch (IOException e) {
+            // Malformed body: limited by IP alone and rejected by the controller
+            return "";
+        }
+    }
+    
+    /**
+     * Запрос с уже прочитанным телом: фильтр читает тело входа, чтобы узнать
+     * имя пользователя, и отдаёт его дальше из памяти
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        
+        private final byte[] body;
+        
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+        
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+                
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+                
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // The whole body is already in memory: it is available at once and read to the end by the listener
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+                
+                @Override
+                public int read() {
+                    return in.read();
+                }
+                
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+        
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+    
+    private static final class Rule {
+        
+        private final String id;
+        
+        private final String description;
+        
+        private final String method;
+        
+        private final String pattern;
+        
+        // One token is added every intervalNanos, up to capacity tokens per periodNanos
+        private final long intervalNanos;
+        
+        private final long periodNanos;
+        
+        private Rule(String id, String method, String pattern, long capacity, long periodNanos) {
+            this.id = id;
+            this.description = method + " " + pattern;
+            this.method = method;
+            this.pattern = pattern;
+            this.periodNanos = periodNanos;
+            this.intervalNanos = periodNanos / capacity;
+        }
+        
+        static Rule parse(String id, String method, String pattern, String budget) {
+            String[] parts = budget.split("/");
+            if (parts.length != 2 || parts[1].length() < 2) {
+                throw new IllegalArgumentException("Invalid rate limit budget (expected capacity/period, e.g. 10/1m): " + budget);
+            }
+            long capacity = Long.parseLong(parts[0]);
+            long amount = Long.parseLong(parts[1].substring(0, parts[1].length() - 1));
+            TimeUnit unit;
+            switch (parts[1].charAt(parts[1].length() - 1)) {
+                case 's':
+                    unit = TimeUnit.SECONDS;
+                    break;
+                case 'm':
+                    unit = TimeUnit.MINUTES;
+                    break;
+                case 'h':
+                    unit = TimeUnit.HOURS;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Invalid rate limit period unit (s, m or h): " + budget);
+            }
+            if (capacity <= 0 || amount <= 0) {
+                throw new IllegalArgumentException("Rate limit capacity and period must be positive: " + budget);
+            }
+            return new Rule(id, method.toUpperCase(), pattern, capacity, unit.toNanos(amount));
+        }
+        
+        boolean matches(String requestMethod, String path) {
+            return ("*".equals(method) || method.equals(requestMethod)) && PATH_MATCHER.match(pattern, path);
+        }
+        
+        /**
+         * Взять токен из ведра. Ведро хранит момент, когда оно снова станет полным;
+         * возвращает 0 при успехе или время до появления токена
+         */
+        long tryAcquire(AtomicLong bucket, long now) {
+            while (true) {
+                long fullAt = bucket.get();
+                long next = Math.max(fullAt - now, 0) + now + intervalNanos;
+                long excess = next - now - periodNanos;
+                if (excess > 0) {
+                    return excess;
+                }
+                if (bucket.compareAndSet(fullAt, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
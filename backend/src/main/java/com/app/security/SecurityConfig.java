@@ -2,6 +2,7 @@ package com.app.security;
 
 import com.app.service.CustomUserDetailsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -29,6 +30,15 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
     
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+    
+    @Value("${server.port:8080}")
+    private int serverPort;
+    
+    @Value("${management.server.port:${server.port:8080}}")
+    private int managementPort;
+    
     @Override
     protected void configure(AuthenticationManagerBuilder auth) throws Exception {
         auth.userDetailsService(userDetailsService).passwordEncoder(passwordEncoder());
@@ -42,11 +52,17 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                 .antMatchers("/uploads/**").permitAll()
                 .antMatchers("/api/participants/*/change-password").permitAll()
                 .antMatchers("/api/public/**").permitAll()
+                .antMatchers("/actuator/health").permitAll()
+                // The management port is not published outside the deployment network; Prometheus scrapes it there
+                .requestMatchers(request -> managementPort != serverPort && request.getLocalPort() == managementPort).permitAll()
+                .antMatchers("/actuator/**").hasRole("ADMIN")
                 .anyRequest().authenticated()
                 .and()
                 .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS);
         
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        // After CORS, so that 429 responses are readable by the browser, and before the user is loaded from the DB
+        http.addFilterBefore(rateLimitFilter, JwtAuthenticationFilter.class);
     }
     
     @Bean
@@ -89,6 +89,7 @@ public class ActivityCommentService {
         activityCommentRepository.delete(comment);
     }
     
+    @Transactional(readOnly = true)
     public List<CommentResponse> getActivityComments(Long activityId, Long currentUserId) {
         List<ActivityComment> comments = activityCommentRepository.findByActivityIdOrderByCreatedAtAsc(activityId);
         
@@ -3,6 +3,7 @@ package com.app.service;
 import com.app.dto.ActivityHeatmapResponse;
 import com.app.dto.ActivityResponse;
 import com.app.dto.CreateActivityResponse;
+import com.app.dto.ImageInfo;
 import com.app.model.Activity;
 import com.app.model.ActivityParticipant;
 import com.app.model.ActivityPhoto;
@@ -16,24 +17,38 @@ import com.app.repository.ActivityRepository;
 import com.app.repository.ActivityTypeRepository;
 import com.app.repository.ParticipantRepository;
 import com.app.repository.TeamRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.annotation.PostConstruct;
 import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
 public class ActivityService {
     
+    private static final Logger log = LoggerFactory.getLogger(ActivityService.class);
+    
     @Autowired
     private ActivityRepository activityRepository;
     
+    @Autowired
+    private ResourceVersions resourceVersions;
+    
     @Autowired
     private TeamRepository teamRepository;
     
@@ -46,6 +61,9 @@ public class ActivityService {
     @Autowired
     private ImageService imageService;
     
+    @Autowired
+    private ResumableUploadService resumableUploadService;
+    
     @Autowired
     private ActivityPhotoRepository activityPhotoRepository;
     
@@ -55,6 +73,19 @@ public class ActivityService {
     @Autowired
     private ActivityCommentService activityCommentService;
     
+    @Autowired
+    private WebhookOutboxService webhookOutboxService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private TransactionTemplate transactionTemplate;
+    
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
     /**
      * Получить все активности команды
      * 
@@ -65,6 +96,7 @@ public class ActivityService {
      * @param currentUserId ID текущего пользователя для получения его реакций
      * @return список активностей команды
      */
+    @Transactional(readOnly = true)
     public List<ActivityResponse> getTeamActivities(Long teamId, Long currentUserId) {
         List<ActivityStatus> approvedStatuses = Arrays.asList(ActivityStatus.APPROVED, ActivityStatus.AUTO_APPROVED);
         return activityRepository.findByTeamIdWithAdjustments(teamId, approvedStatuses).stream()
@@ -80,6 +112,7 @@ public class ActivityService {
      * @param currentUserId ID текущего пользователя для получения его реакций
      * @return список всех активностей
      */
+    @Transactional(readOnly = true)
     public List<ActivityResponse> getAllActivities(Long currentUserId) {
         List<ActivityStatus> approvedStatuses = Arrays.asList(ActivityStatus.APPROVED, ActivityStatus.AUTO_APPROVED);
         return activityRepository.findAllWithAdjustmentsByStatusIn(approvedStatuses).stream()
@@ -98,14 +131,11 @@ public class ActivityService {
      * @param size размер страницы
      * @return список активностей для указанной страницы
      */
+    @Transactional(readOnly = true)
     public List<ActivityResponse> getAllActivities(Long currentUserId, int page, int size) {
         List<ActivityStatus> approvedStatuses = Arrays.asList(ActivityStatus.APPROVED, ActivityStatus.AUTO_APPROVED);
-        return activityRepository.findAllWithAdjustmentsByStatusIn(approvedStatuses).stream()
-                .sorted(Comparator.comparing(Activity::getCreatedAt).reversed())
-                .skip((long) page * size)
-                .limit(size)
-                .map(a -> toActivityResponse(a, currentUserId))
-                .collect(Collectors.toList());
+        List<Long> ids = activityRepository.findFeedIds(approvedStatuses, PageRequest.of(page, size));
+        return loadFeedPage(ids, currentUserId);
     }
     
     /**
@@ -119,12 +149,23 @@ public class ActivityService {
      * @param size размер страницы
      * @return список активностей для указанной страницы
      */
+    @Transactional(readOnly = true)
     public List<ActivityResponse> getEventActivities(Long eventId, Long currentUserId, int page, int size) {
         List<ActivityStatus> approvedStatuses = Arrays.asList(ActivityStatus.APPROVED, ActivityStatus.AUTO_APPROVED);
-        return activityRepository.findByEventIdWithAdjustments(eventId, approvedStatuses).stream()
-                .sorted(Comparator.comparing(Activity::getCreatedAt).reversed())
-                .skip((long) page * size)
-                .limit(size)
+        List<Long> ids = activityRepository.findEventFeedIds(eventId, approvedStatuses, PageRequest.of(page, size));
+        return loadFeedPage(ids, currentUserId);
+    }
+    
+    // Loads one feed page with its fetch plan and restores the order of the ID query
+    private List<ActivityResponse> loadFeedPage(List<Long> ids, Long currentUserId) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Activity> byId = activityRepository.findFeedItemsByIdIn(ids).stream()
+                .collect(Collectors.toMap(Activity::getId, a -> a));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
                 .map(a -> toActivityResponse(a, currentUserId))
                 .collect(Collectors.toList());
     }
@@ -140,6 +181,7 @@ public class ActivityService {
      * @return детальная информация об активности
      * @throws RuntimeException если активность не найдена
      */
+    @Transactional(readOnly = true)
     public ActivityResponse getActivityById(Long id, Long currentUserId) {
         Activity a = activityRepository.findByIdWithAdjustments(id);
         if (a == null) {
@@ -160,6 +202,10 @@ public class ActivityService {
      * Если событие требует модерации, активность создается со статусом PENDING,
      * иначе - AUTO_APPROVED.
      * 
+     * Фото обрабатываются до транзакции, чтобы она не держала соединение с БД
+     * на время работы с изображениями; если транзакция откатывается, уже
+     * сохранённые файлы удаляются.
+     * 
      * @param teamId ID команды
      * @param participantId ID создателя активности
      * @param type тип активности
@@ -168,16 +214,63 @@ public class ActivityService {
      * @param durationMinutes длительность в минутах
      * @param photos список файлов фотографий (максимум 10)
      * @param participantIds список ID дополнительных участников
+     * @param uploadIds id завершённых докачиваемых загрузок создателя (фото добавляются после photos)
      * @return информация о созданной активности
      * @throws RuntimeException если превышен лимит фото, команда/участник не найдены
      */
     public CreateActivityResponse createActivity(Long teamId, Long participantId, String type, 
-                                                  Integer energy, String description, Integer durationMinutes, List<MultipartFile> photos, List<Long> participantIds) {
+                                                  Integer energy, String description, Integer durationMinutes, List<MultipartFile> photos, List<Long> participantIds,
+                                                  List<String> uploadIds) {
         // Validate photo count
-        if (photos != null && photos.size() > 10) {
+        int photoCount = (photos != null ? photos.size() : 0) + (uploadIds != null ? uploadIds.size() : 0);
+        if (photoCount > 10) {
             throw new RuntimeException("Maximum 10 photos allowed per activity");
         }
         
+        // Image processing takes seconds, so it runs before the transaction instead of holding a connection
+        List<ImageInfo> savedPhotos = saveActivityPhotos(photos);
+        try {
+            return transactionTemplate.execute(status -> insertActivity(teamId, participantId, type, energy,
+                    description, durationMinutes, savedPhotos, participantIds, uploadIds));
+        } catch (RuntimeException e) {
+            deleteActivityPhotos(savedPhotos);
+            throw e;
+        }
+    }
+    
+    private List<ImageInfo> saveActivityPhotos(List<MultipartFile> photos) {
+        List<ImageInfo> saved = new ArrayList<>();
+        if (photos == null) {
+            return saved;
+        }
+        for (MultipartFile photo : photos) {
+            if (photo != null && !photo.isEmpty()) {
+                try {
+                    saved.add(imageService.saveActivityImage(photo));
+                } catch (IOException e) {
+                    log.error("Failed to save activity photo", e);
+                    deleteActivityPhotos(saved);
+                    throw new RuntimeException("Failed to save activity photo: " + e.getMessage(), e);
+                }
+            }
+        }
+        return saved;
+    }
+    
+    private void deleteActivityPhotos(List<ImageInfo> photos) {
+        for (ImageInfo photo : photos) {
+            try {
+                imageService.deleteImage(photo.getUrl());
+            } catch (IOException e) {
+                // The orphan sweep removes whatever is left behind
+                log.warn("Failed to delete activity photo {}: {}", photo.getUrl(), e.getMessage());
+            }
+        }
+    }
+    
+    private CreateActivityResponse insertActivity(Long teamId, Long participantId, String type, Integer energy,
+                                                  String description, Integer durationMinutes, List<ImageInfo> savedPhotos,
+                                                  List<Long> participantIds, List<String> uploadIds) {
         Team team = teamRepository.findById(teamId)
                 .orElseThrow(() -> new RuntimeException("Team not found"));
         
@@ -218,32 +311,32 @@ public class ActivityService {
             activityRepository.save(activity);
         }
         
-        if (photos != null && !photos.isEmpty()) {
+        // Photos uploaded in chunks are already processed; a rollback releases them for another attempt
+        List<ImageInfo> images = new ArrayList<>(savedPhotos);
+        images.addAll(resumableUploadService.attach(uploadIds, participantId));
+        if (!images.isEmpty()) {
             int order = 0;
-            for (MultipartFile photo : photos) {
-                if (photo != null && !photo.isEmpty()) {
-                    try {
-                        String photoUrl = imageService.saveActivityImage(photo);
-                        
-                        ActivityPhoto activityPhoto = new ActivityPhoto();
-                        activityPhoto.setActivity(activity);
-                        activityPhoto.setPhotoUrl(photoUrl);
-                        activityPhoto.setDisplayOrder(order++);
-                        activityPhotoRepository.save(activityPhoto);
-                        
-                        if (activity.getPhotoUrl() == null) {
-                            activity.setPhotoUrl(photoUrl);
-                        }
-                    } catch (IOException e) {
-                        System.err.println("Failed to save activity photo: " + e.getMessage());
-                        e.printStackTrace();
-                        throw new RuntimeException("Failed to save activity photo: " + e.getMessage(), e);
-                    }
+            for (ImageInfo image : images) {
+                ActivityPhoto activityPhoto = new ActivityPhoto();
+                activityPhoto.setActivity(activity);
+                activityPhoto.setPhotoUrl(image.getUrl());
+                activityPhoto.setWidth(image.getWidth());
+                activityPhoto.setHeight(image.getHeight());
+                activityPhoto.setPlaceholder(image.getPlaceholder());
+                activityPhoto.setPerceptualHash(image.getPerceptualHash());
+                activityPhoto.setDisplayOrder(order++);
+                activityPhotoRepository.save(activityPhoto);
+                
+                if (activity.getPhotoUrl() == null) {
+                    activity.setPhotoUrl(image.getUrl());
                 }
             }
             activityRepository.save(activity);
         }
         
+        webhookOutboxService.enqueueActivityMessage(activity, WebhookOutboxService.ACTIVITY_CREATED);
+        resourceVersions.bump(ResourceVersions.STANDINGS);
+        
         return new CreateActivityResponse(
                 activity.getId(),
                 activity.getActivityType().getName(),
@@ -261,6 +354,7 @@ public class ActivityService {
      * @param teamId идентификатор команды
      * @return список дат с количеством активностей
      */
+    @Transactional(readOnly = true)
     public List<ActivityHeatmapResponse> getTeamActivityHeatmap(Long teamId) {
         LocalDateTime threeMonthsAgo = LocalDateTime.now().minusDays(90);
         List<Activity> activities = activityRepository.findByTeamIdAndCreatedAtAfter(teamId, threeMonthsAgo);
@@ -288,6 +382,7 @@ public class ActivityService {
      * @param participantId ID участника
      * @throws RuntimeException если активность не найдена
      */
+    @Transactional
     public void leaveActivity(Long activityId, Long participantId) {
         Activity activity = activityRepository.findById(activityId)
                 .orElseThrow(() -> new RuntimeException("Activity not found"));
@@ -296,13 +391,14 @@ public class ActivityService {
             ap.getParticipant().getId().equals(participantId));
         
         activityRepository.save(activity);
+        resourceVersions.bump(ResourceVersions.STANDINGS);
     }
     
     /**
      * Преобразовать Activity в ActivityResponse
      * 
      * Формирует полный ответ с:
-     * - Списком всех фотографий
+     * - Списком всех фотографий с размерами и BlurHash-заглушками
      * - Информацией о реакциях и комментариях
      * - Финальными баллами с учетом бонусов/штрафов
      * - Реакцией текущего пользователя
@@ -318,6 +414,9 @@ public class ActivityService {
         List<String> photoUrls = a.getPhotos().stream()
                 .map(ActivityPhoto::getPhotoUrl)
                 .collect(Collectors.toList());
+        List<ImageInfo> photos = a.getPhotos().stream()
+                .map(p -> new ImageInfo(p.getPhotoUrl(), p.getWidth(), p.getHeight(), p.getPlaceholder()))
+                .collect(Collectors.toList());
         
         Boolean teamBased = a.getTeam() != null && a.getTeam().getEvent() != null 
                 ? a.getTeam().getEvent().getTeamBasedCompetition() 
@@ -368,10 +467,12 @@ public class ActivityService {
                 a.getParticipant().getProfileImageUrl(),
                 a.getPhotoUrl(),
                 photoUrls,
+                photos,
                 a.getCreatedAt(),
                 a.getTeam() != null ? a.getTeam().getId() : null,
                 a.getTeam() != null ? a.getTeam().getName() : null,
                 a.getTeam() != null ? a.getTeam().getImageUrl() : null,
+                a.getTeam() != null ? a.getTeam().getImagePlaceholder() : null,
                 eventId,
                 eventName,
                 teamBased,
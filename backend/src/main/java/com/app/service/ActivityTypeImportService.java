@@ -0,0 +1,370 @@
+package com.app.service;
+
+import com.app.dto.ActivityTypeImportResponse;
+import com.app.dto.ImportRowError;
+import com.app.repository.ActivityTypeRepository;
+import com.app.repository.EventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Потоковый импорт типов активностей из Excel.
+ *
+ * Лист читается SAX-парсером построчно, поэтому в памяти не держится весь
+ * документ. Существующие названия загружаются одним запросом, новые строки
+ * вставляются пачками через JDBC. По каждой отклонённой строке формируется
+ * ошибка с номером строки. Большие файлы можно импортировать в фоне и
+ * опрашивать прогресс по идентификатору задачи.
+ */
+@Service
+public class ActivityTypeImportService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ActivityTypeImportService.class);
+    
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+    
+    private static final int MAX_NAME_LENGTH = 100;
+    private static final int MAX_DESCRIPTION_LENGTH = 255;
+    
+    private static final String INSERT_SQL =
+            "INSERT INTO activity_types (name, description, default_energy, event_id, created_at) " +
+            "VALUES (?, ?, ?, ?, ?) ON CONFLICT (name) DO NOTHING";
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private ActivityTypeRepository activityTypeRepository;
+    
+    @Autowired
+    private EventRepository eventRepository;
+    
+    @Autowired
+    private ResourceVersions resourceVersions;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${app.import.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${app.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+    
+    @Value("${app.import.worker-threads:2}")
+    private int workerThreads;
+    
+    @Value("${app.import.queue-capacity:10}")
+    private int queueCapacity;
+    
+    @Value("${app.import.job-ttl-minutes:60}")
+    private long jobTtlMinutes;
+    
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    
+    private TransactionTemplate transactionTemplate;
+    
+    private ExecutorService executor;
+    
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        executor = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "activity-type-import");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        new ExecutorServiceMetrics(executor, "activity-type-import", Tags.empty()).bindTo(meterRegistry);
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    /**
+     * Импортировать файл синхронно и вернуть итоговый отчёт
+     */
+    public ActivityTypeImportResponse importNow(MultipartFile file, Long eventId) {
+        checkEventExists(eventId);
+        Path spooled = spool(file);
+        ImportJob job = new ImportJob(null);
+        try {
+            runImport(job, spooled, eventId);
+        } finally {
+            deleteQuietly(spooled);
+        }
+        if (STATUS_FAILED.equals(job.status)) {
+            throw new RuntimeException("Import failed: " + job.message);
+        }
+        return job.toResponse();
+    }
+    
+    /**
+     * Запустить импорт в фоне и вернуть идентификатор задачи
+     */
+    public ActivityTypeImportResponse startImport(MultipartFile file, Long eventId) {
+        checkEventExists(eventId);
+        Path spooled = spool(file);
+        ImportJob job = new ImportJob(UUID.randomUUID().toString());
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> {
+                try {
+                    runImport(job, spooled, eventId);
+                } finally {
+                    deleteQuietly(spooled);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            deleteQuietly(spooled);
+            throw new RuntimeException("Too many imports in progress, try again later");
+        }
+        return job.toResponse();
+    }
+    
+    /**
+     * Получить прогресс фоновой задачи импорта
+     */
+    public ActivityTypeImportResponse getJob(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new RuntimeException("Import job not found");
+        }
+        return job.toResponse();
+    }
+    
+    /**
+     * Удалить завершённые задачи старше job-ttl-minutes
+     */
+    @Scheduled(fixedDelayString = "${app.import.cleanup-interval-ms:300000}")
+    public void purgeFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(jobTtlMinutes);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+    
+    private void checkEventExists(Long eventId) {
+        if (!eventRepository.existsById(eventId)) {
+            throw new RuntimeException("Event not found");
+        }
+    }
+    
+    // Keep the upload on disk so OPCPackage can read it with random access instead of buffering it
+    private Path spool(MultipartFile file) {
+        if (file.isEmpty()) {
+            throw new RuntimeException("File is empty");
+        }
+        try {
+            Path path = Files.createTempFile("activity-types-", ".xlsx");
+            try (InputStream in = file.getInputStream()) {
+                Files.copy(in, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return path;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read uploaded file: " + e.getMessage());
+        }
+    }
+    
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete temp file {}: {}", path, e.getMessage());
+        }
+    }
+    
+    private void runImport(ImportJob job, Path path, Long eventId) {
+        RowCollector collector = new RowCollector(job, eventId, new HashSet<>(activityTypeRepository.findAllNames()));
+        try {
+            XlsxRowReader.readFirstSheet(path, 3, collector);
+            collector.flush();
+            job.finish(STATUS_COMPLETED, null);
+        } catch (Exception e) {
+            log.error("Activity type import failed after {} rows", job.processedRows.get(), e);
+            job.finish(STATUS_FAILED, e.getMessage());
+        }
+    }
+    
+    private void insertBatch(List<Object[]> batch, AtomicInteger imported, AtomicInteger skipped) {
+        int[] counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(INSERT_SQL, batch));
+        resourceVersions.bump(ResourceVersions.ACTIVITY_TYPES);
+        for (int count : counts) {
+            // Rows inserted concurrently by another import are ignored by ON CONFLICT
+            if (count == 0) {
+                skipped.incrementAndGet();
+            } else {
+                imported.incrementAndGet();
+            }
+        }
+    }
+    
+    private static Integer parseEnergy(String value) {
+        double parsed = Double.parseDouble(value.trim().replace(',', '.'));
+        if (Double.isNaN(parsed) || Double.isInfinite(parsed)) {
+            throw new NumberFormatException(value);
+        }
+        return (int) parsed;
+    }
+    
+    /**
+     * Валидирует прочитанную строку и добавляет её в текущую пачку вставки.
+     */
+    private class RowCollector implements XlsxRowReader.RowHandler {
+        
+        private final ImportJob job;
+        private final Long eventId;
+        private final Set<String> knownNames;
+        private final List<Object[]> batch = new ArrayList<>();
+        
+        RowCollector(ImportJob job, Long eventId, Set<String> knownNames) {
+            this.job = job;
+            this.eventId = eventId;
+            this.knownNames = knownNames;
+        }
+        
+        @Override
+        public void row(int rowNum, String[] cells) {
+            // Row 0 is the header
+            if (rowNum == 0) {
+                return;
+            }
+            String name = cells[0] != null ? cells[0].trim() : "";
+            if (name.isEmpty()) {
+                return;
+            }
+            job.processedRows.incrementAndGet();
+            int excelRow = rowNum + 1;
+            
+            if (name.length() > MAX_NAME_LENGTH) {
+                job.reject(excelRow, name, "Name is longer than " + MAX_NAME_LENGTH + " characters", maxReportedErrors);
+                return;
+            }
+            String description = cells[1] != null ? cells[1].trim() : "";
+            if (description.length() > MAX_DESCRIPTION_LENGTH) {
+                job.reject(excelRow, name, "Description is longer than " + MAX_DESCRIPTION_LENGTH + " characters",
+                        maxReportedErrors);
+                return;
+            }
+            Integer energy = 0;
+            if (cells[2] != null && !cells[2].trim().isEmpty()) {
+                try {
+                    energy = parseEnergy(cells[2]);
+                } catch (NumberFormatException e) {
+                    job.reject(excelRow, name, "Invalid energy value: " + cells[2], maxReportedErrors);
+                    return;
+                }
+            }
+            // Covers both names already in the database and duplicates within the file
+            if (!knownNames.add(name)) {
+                job.skippedCount.incrementAndGet();
+                return;
+            }
+            
+            batch.add(new Object[]{name, description, energy, eventId, Timestamp.valueOf(LocalDateTime.now())});
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+        
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            insertBatch(new ArrayList<>(batch), job.importedCount, job.skippedCount);
+            batch.clear();
+        }
+    }
+    
+    private static class ImportJob {
+        
+        private final String id;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicInteger processedRows = new AtomicInteger();
+        private final AtomicInteger importedCount = new AtomicInteger();
+        private final AtomicInteger skippedCount = new AtomicInteger();
+        private final AtomicInteger errorCount = new AtomicInteger();
+        private final List<ImportRowError> errors = new ArrayList<>();
+        private volatile String status = STATUS_RUNNING;
+        private volatile String message;
+        private volatile LocalDateTime finishedAt;
+        
+        ImportJob(String id) {
+            this.id = id;
+        }
+        
+        void reject(int rowNumber, String value, String reason, int maxReported) {
+            errorCount.incrementAndGet();
+            synchronized (errors) {
+                if (errors.size() < maxReported) {
+                    errors.add(new ImportRowError(rowNumber, value, reason));
+                }
+            }
+        }
+        
+        void finish(String finalStatus, String failure) {
+            message = failure;
+            finishedAt = LocalDateTime.now();
+            status = finalStatus;
+        }
+        
+        ActivityTypeImportResponse toResponse() {
+            List<ImportRowError> snapshot;
+            synchronized (errors) {
+                snapshot = new ArrayList<>(errors);
+            }
+            return new ActivityTypeImportResponse(
+                    id,
+                    status,
+                    processedRows.get(),
+                    importedCount.get(),
+                    skippedCount.get(),
+                    errorCount.get(),
+                    snapshot,
+                    message,
+                    startedAt,
+                    finishedAt
+            );
+        }
+    }
+}
@@ -6,14 +6,9 @@ import com.app.model.ActivityType;
 import com.app.model.Event;
 import com.app.repository.ActivityTypeRepository;
 import com.app.repository.EventRepository;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -26,6 +21,9 @@ public class ActivityTypeService {
     @Autowired
     private EventRepository eventRepository;
     
+    @Autowired
+    private ResourceVersions resourceVersions;
+    
     public List<ActivityTypeResponse> getAllActivityTypes() {
         return activityTypeRepository.findAllByOrderByNameAsc().stream()
                 .map(this::toResponse)
@@ -61,6 +59,7 @@ public class ActivityTypeService {
         }
         
         activityType = activityTypeRepository.save(activityType);
+        resourceVersions.bump(ResourceVersions.ACTIVITY_TYPES);
         return toResponse(activityType);
     }
     
@@ -73,96 +72,13 @@ public class ActivityTypeService {
         activityType.setDefaultEnergy(request.getDefaultEnergy());
         
         activityType = activityTypeRepository.save(activityType);
+        resourceVersions.bump(ResourceVersions.ACTIVITY_TYPES);
         return toResponse(activityType);
     }
     
     public void deleteActivityType(Long id) {
         activityTypeRepository.deleteById(id);
-    }
-    
-    public int importFromExcel(MultipartFile file, Long eventId) throws IOException {
-        Event event = eventRepository.findById(eventId)
-                .orElseThrow(() -> new RuntimeException("Event not found"));
-        
-        List<ActivityType> activityTypes = new ArrayList<>();
-        
-        try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
-            Sheet sheet = workbook.getSheetAt(0);
-            
-            // Skip header row (row 0)
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) continue;
-                
-                Cell nameCell = row.getCell(0);
-                Cell descriptionCell = row.getCell(1);
-                Cell energyCell = row.getCell(2);
-                
-                if (nameCell == null || getCellValueAsString(nameCell).trim().isEmpty()) {
-                    continue;
-                }
-                
-                String name = getCellValueAsString(nameCell).trim();
-                String description = descriptionCell != null ? getCellValueAsString(descriptionCell).trim() : "";
-                Integer defaultEnergy = energyCell != null ? (int) getCellValueAsNumber(energyCell) : 0;
-                
-                // Check if activity type already exists
-                if (activityTypeRepository.findByName(name).isPresent()) {
-                    continue;
-                }
-                
-                ActivityType activityType = new ActivityType();
-                activityType.setName(name);
-                activityType.setDescription(description);
-                activityType.setDefaultEnergy(defaultEnergy);
-                activityType.setEvent(event);
-                
-                activityTypes.add(activityType);
-            }
-        }
-        
-        if (!activityTypes.isEmpty()) {
-            activityTypeRepository.saveAll(activityTypes);
-        }
-        
-        return activityTypes.size();
-    }
-    
-    private String getCellValueAsString(Cell cell) {
-        if (cell == null) return "";
-        
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getDateCellValue().toString();
-                }
-                return String.valueOf((int) cell.getNumericCellValue());
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                return cell.getCellFormula();
-            default:
-                return "";
-        }
-    }
-    
-    private double getCellValueAsNumber(Cell cell) {
-        if (cell == null) return 0;
-        
-        switch (cell.getCellType()) {
-            case NUMERIC:
-                return cell.getNumericCellValue();
-            case STRING:
-                try {
-                    return Double.parseDouble(cell.getStringCellValue());
-                } catch (NumberFormatException e) {
-                    return 0;
-                }
-            default:
-                return 0;
-        }
+        resourceVersions.bump(ResourceVersions.ACTIVITY_TYPES);
     }
     
     private ActivityTypeResponse toResponse(ActivityType activityType) {
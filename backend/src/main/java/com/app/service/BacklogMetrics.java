@@ -0,0 +1,59 @@
+package com.app.service;
+
+import com.app.model.ActivityStatus;
+import com.app.model.WebhookOutboxStatus;
+import com.app.repository.ActivityRepository;
+import com.app.repository.WebhookOutboxRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Метрики очередей, хранящихся в базе: бэклог модерации и webhook outbox.
+ * 
+ * Значения пересчитываются по расписанию, а не при каждом scrape, чтобы
+ * частота опроса Prometheus не влияла на нагрузку на базу.
+ */
+@Service
+public class BacklogMetrics {
+    
+    @Autowired
+    private ActivityRepository activityRepository;
+    
+    @Autowired
+    private WebhookOutboxRepository webhookOutboxRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private final AtomicLong moderationBacklog = new AtomicLong();
+    
+    private final AtomicLong outboxPending = new AtomicLong();
+    
+    private final AtomicLong outboxDead = new AtomicLong();
+    
+    @PostConstruct
+    void init() {
+        Gauge.builder("app.moderation.backlog", moderationBacklog, AtomicLong::get)
+                .description("Activities waiting for moderation")
+                .register(meterRegistry);
+        Gauge.builder("app.webhooks.outbox", outboxPending, AtomicLong::get)
+                .tag("status", "pending")
+                .register(meterRegistry);
+        Gauge.builder("app.webhooks.outbox", outboxDead, AtomicLong::get)
+                .tag("status", "dead")
+                .register(meterRegistry);
+    }
+    
+    @Scheduled(fixedDelayString = "${app.metrics.backlog-refresh-ms:30000}")
+    public void refresh() {
+        moderationBacklog.set(activityRepository.countByStatus(ActivityStatus.PENDING));
+        outboxPending.set(webhookOutboxRepository.countByStatus(WebhookOutboxStatus.PENDING));
+        outboxDead.set(webhookOutboxRepository.countByStatus(WebhookOutboxStatus.DEAD));
+    }
+}
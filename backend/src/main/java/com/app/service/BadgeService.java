@@ -8,6 +8,7 @@ import com.app.repository.ParticipantBadgeRepository;
 import com.app.repository.ParticipantRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -22,6 +23,7 @@ public class BadgeService {
     @Autowired
     private ParticipantRepository participantRepository;
     
+    @Transactional
     public ParticipantBadgeResponse awardBadge(Long participantId, BadgeType badgeType, Long awardedById, String reason) {
         // Check if badge already exists
         if (badgeRepository.existsByParticipantIdAndBadgeType(participantId, badgeType)) {
@@ -47,6 +49,7 @@ public class BadgeService {
         return toBadgeResponse(badge);
     }
     
+    @Transactional(readOnly = true)
     public List<ParticipantBadgeResponse> getParticipantBadges(Long participantId) {
         return badgeRepository.findByParticipantIdOrderByAwardedAtDesc(participantId).stream()
                 .map(this::toBadgeResponse)
@@ -0,0 +1,138 @@
+package com.app.service;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Кодирование изображения в строку BlurHash (https://blurha.sh): несколько
+ * коэффициентов косинусного преобразования в base83, 20-30 символов.
+ * Клиент декодирует строку в размытое превью без запроса к серверу.
+ */
+final class BlurHashEncoder {
+    
+    private static final String BASE83 =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+    
+    // The hash only keeps a few low frequencies, so a thumbnail gives the same result far cheaper
+    private static final int SAMPLE_SIZE = 32;
+    
+    private BlurHashEncoder() {
+    }
+    
+    /**
+     * BlurHash с 4 компонентами по длинной стороне и 3 по короткой
+     */
+    static String encode(BufferedImage image) {
+        boolean landscape = image.getWidth() >= image.getHeight();
+        return encode(image, landscape ? 4 : 3, landscape ? 3 : 4);
+    }
+    
+    static String encode(BufferedImage image, int componentsX, int componentsY) {
+        BufferedImage sample = thumbnail(image);
+        int width = sample.getWidth();
+        int height = sample.getHeight();
+        int[] pixels = sample.getRGB(0, 0, width, height, null, 0, width);
+        
+        double[] linear = new double[pixels.length * 3];
+        for (int i = 0; i < pixels.length; i++) {
+            linear[i * 3] = srgbToLinear((pixels[i] >> 16) & 0xff);
+            linear[i * 3 + 1] = srgbToLinear((pixels[i] >> 8) & 0xff);
+            linear[i * 3 + 2] = srgbToLinear(pixels[i] & 0xff);
+        }
+        
+        double[][] factors = new double[componentsX * componentsY][];
+        for (int j = 0; j < componentsY; j++) {
+            for (int i = 0; i < componentsX; i++) {
+                factors[j * componentsX + i] = basisFactor(linear, width, height, i, j);
+            }
+        }
+        
+        StringBuilder hash = new StringBuilder();
+        encode83(hash, (componentsX - 1) + (componentsY - 1) * 9, 1);
+        
+        double maximumValue = 1;
+        if (factors.length > 1) {
+            double actualMaximum = 0;
+            for (int k = 1; k < factors.length; k++) {
+                for (double value : factors[k]) {
+                    actualMaximum = Math.max(actualMaximum, Math.abs(value));
+                }
+            }
+            int quantisedMaximum = (int) Math.max(0, Math.min(82, Math.floor(actualMaximum * 166 - 0.5)));
+            maximumValue = (quantisedMaximum + 1) / 166.0;
+            encode83(hash, quantisedMaximum, 1);
+        } else {
+            encode83(hash, 0, 1);
+        }
+        
+        double[] dc = factors[0];
+        encode83(hash, (linearToSrgb(dc[0]) << 16) + (linearToSrgb(dc[1]) << 8) + linearToSrgb(dc[2]), 4);
+        for (int k = 1; k < factors.length; k++) {
+            encode83(hash, encodeAc(factors[k], maximumValue), 2);
+        }
+        return hash.toString();
+    }
+    
+    private static BufferedImage thumbnail(BufferedImage image) {
+        double scale = Math.min(1.0, (double) SAMPLE_SIZE / Math.max(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+        
+        BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = thumbnail.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(image, 0, 0, width, height, null);
+        g.dispose();
+        return thumbnail;
+    }
+    
+    private static double[] basisFactor(double[] linear, int width, int height, int i, int j) {
+        double r = 0;
+        double g = 0;
+        double b = 0;
+        for (int y = 0; y < height; y++) {
+            double basisY = Math.cos(Math.PI * j * y / height);
+            for (int x = 0; x < width; x++) {
+                double basis = Math.cos(Math.PI * i * x / width) * basisY;
+                int offset = (y * width + x) * 3;
+                r += basis * linear[offset];
+                g += basis * linear[offset + 1];
+                b += basis * linear[offset + 2];
+            }
+        }
+        double scale = (i == 0 && j == 0 ? 1.0 : 2.0) / (width * height);
+        return new double[] {r * scale, g * scale, b * scale};
+    }
+    
+    private static int encodeAc(double[] value, double maximumValue) {
+        int r = quantiseAc(value[0] / maximumValue);
+        int g = quantiseAc(value[1] / maximumValue);
+        int b = quantiseAc(value[2] / maximumValue);
+        return r * 19 * 19 + g * 19 + b;
+    }
+    
+    private static int quantiseAc(double value) {
+        double signedRoot = Math.copySign(Math.sqrt(Math.abs(value)), value);
+        return (int) Math.max(0, Math.min(18, Math.floor(signedRoot * 9 + 9.5)));
+    }
+    
+    private static double srgbToLinear(int value) {
+        double v = value / 255.0;
+        return v <= 0.04045 ? v / 12.92 : Math.pow((v + 0.055) / 1.055, 2.4);
+    }
+    
+    private static int linearToSrgb(double value) {
+        double v = Math.max(0, Math.min(1, value));
+        if (v <= 0.0031308) {
+            return (int) (v * 12.92 * 255 + 0.5);
+        }
+        return (int) ((1.055 * Math.pow(v, 1 / 2.4) - 0.055) * 255 + 0.5);
+    }
+    
+    private static void encode83(StringBuilder hash, int value, int length) {
+        for (int i = 1; i <= length; i++) {
+            int digit = (value / (int) Math.pow(83, length - i)) % 83;
+            hash.append(BASE83.charAt(digit));
+        }
+    }
+}
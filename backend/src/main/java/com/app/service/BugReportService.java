@@ -10,6 +10,7 @@ import com.app.repository.BugReportRepository;
 import com.app.repository.ParticipantRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -27,6 +28,7 @@ public class BugReportService {
     @Autowired
     private BadgeService badgeService;
     
+    @Transactional
     public BugReportResponse createBugReport(Long participantId, BugReportRequest request) {
         Participant participant = participantRepository.findById(participantId)
                 .orElseThrow(() -> new RuntimeException("Participant not found"));
@@ -62,18 +64,21 @@ public class BugReportService {
         return toBugReportResponse(bugReport);
     }
     
+    @Transactional(readOnly = true)
     public List<BugReportResponse> getUserBugReports(Long participantId) {
         return bugReportRepository.findByParticipantIdOrderByCreatedAtDesc(participantId).stream()
                 .map(this::toBugReportResponse)
                 .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
     public List<BugReportResponse> getAllBugReports() {
         return bugReportRepository.findAllByOrderByCreatedAtDesc().stream()
                 .map(this::toBugReportResponse)
                 .collect(Collectors.toList());
     }
     
+    @Transactional
     public BugReportResponse updateBugReportStatus(Long bugReportId, String status, Long adminId, String adminNotes, Boolean awardBadge) {
         BugReport bugReport = bugReportRepository.findById(bugReportId)
                 .orElseThrow(() -> new RuntimeException("Bug report not found"));
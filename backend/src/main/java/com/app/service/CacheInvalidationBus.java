@@ -0,0 +1,323 @@
+package com.app.service;
+
+import com.app.dto.InvalidationMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Шина инвалидации in-process кэшей между экземплярами backend.
+ *
+ * Сообщения передаются через PostgreSQL NOTIFY в канал app.invalidation.channel,
+ * другой инфраструктуры не требуется. Сообщения, опубликованные в транзакции,
+ * отправляются одним NOTIFY в её же соединении перед коммитом, поэтому другие
+ * узлы получают их ровно тогда, когда изменения становятся видны, и не получают
+ * при откате. Сообщения вне пишущей транзакции отправляются отдельным
+ * соединением из пула primary, минуя маршрутизацию на реплики.
+ *
+ * Каждый узел держит отдельное соединение с primary, на котором выполнен LISTEN.
+ * NOTIFY не хранится: то, что пришло, пока узел не слушал, теряется. Поэтому при
+ * каждом (пере)подключении вызываются обработчики onResync, которые считают
+ * устаревшим всё локальное состояние.
+ */
+@Service
+public class CacheInvalidationBus {
+    
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+    
+    private static final TypeReference<List<InvalidationMessage>> MESSAGE_LIST = new TypeReference<>() {};
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    // Present when read replicas are enabled; the application DataSource then routes by the read-only flag
+    @Autowired(required = false)
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+    
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${app.invalidation.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.invalidation.channel:app_cache_invalidation}")
+    private String channel;
+    
+    @Value("${app.invalidation.poll-interval-ms:10000}")
+    private int pollIntervalMs;
+    
+    @Value("${app.invalidation.reconnect-initial-delay-ms:1000}")
+    private long reconnectInitialDelayMs;
+    
+    @Value("${app.invalidation.reconnect-max-delay-ms:30000}")
+    private long reconnectMaxDelayMs;
+    
+    // Messages from this node are applied locally by the publisher and skipped by the listener
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    
+    private final Map<InvalidationMessage.Type, List<Consumer<InvalidationMessage>>> handlers = new ConcurrentHashMap<>();
+    
+    private final List<Runnable> resyncHandlers = new CopyOnWriteArrayList<>();
+    
+    private volatile boolean running;
+    
+    private Thread listenerThread;
+    
+    /**
+     * Подписаться на сообщения типа type от других узлов
+     */
+    public void subscribe(InvalidationMessage.Type type, Consumer<InvalidationMessage> handler) {
+        handlers.computeIfAbsent(type, key -> new CopyOnWriteArrayList<>()).add(handler);
+    }
+    
+    /**
+     * Обработчик, сбрасывающий всё локальное состояние, если сообщения могли быть потеряны
+     */
+    public void onResync(Runnable handler) {
+        resyncHandlers.add(handler);
+    }
+    
+    /**
+     * Отправить сообщение остальным узлам.
+     *
+     * В пишущей транзакции сообщения копятся и уходят одним NOTIFY перед коммитом;
+     * вне транзакции (или в read-only, где NOTIFY невозможен на реплике) — сразу или
+     * после коммита отдельным запросом к primary
+     */
+    public void publish(InvalidationMessage message) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            send(List.of(message), false);
+            return;
+        }
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(List.of(message), false);
+                }
+            });
+            return;
+        }
+        
+        @SuppressWarnings("unchecked")
+        List<InvalidationMessage> pending = (List<InvalidationMessage>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<InvalidationMessage> batch = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, batch);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    send(batch, true);
+                }
+                
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CacheInvalidationBus.this);
+                }
+            });
+            pending = batch;
+        }
+        merge(pending, message);
+    }
+    
+    // One message per type keeps the NOTIFY payload small (its limit is 8000 bytes) however much the transaction did
+    private void merge(List<InvalidationMessage> pending, InvalidationMessage message) {
+        for (InvalidationMessage existing : pending) {
+            if (existing.getType() != message.getType()) {
+                continue;
+            }
+            switch (message.getType()) {
+                case RESOURCES_CHANGED:
+                    Set<String> resources = new LinkedHashSet<>(existing.getResources());
+                    resources.addAll(message.getResources());
+                    existing.setResources(new ArrayList<>(resources));
+                    return;
+                case REMINDER_DUE:
+                    if (message.getDueAt().isBefore(existing.getDueAt())) {
+                        existing.setDueAt(message.getDueAt());
+                    }
+                    return;
+                default:
+                    break;
+            }
+        }
+        pending.add(message);
+    }
+    
+    private void send(List<InvalidationMessage> messages, boolean inTransaction) {
+        try {
+            String payload = objectMapper.writeValueAsString(Map.of("node", nodeId, "messages", messages));
+            if (inTransaction) {
+                jdbcTemplate.query("SELECT pg_notify(?, ?)", (ResultSetExtractor<Void>) rs -> null, channel, payload);
+            } else {
+                notifyOnPrimary(payload);
+            }
+            for (InvalidationMessage message : messages) {
+                meterRegistry.counter("app.invalidation.messages", "direction", "sent", "type", message.getType().name()).increment();
+            }
+        } catch (JsonProcessingException | SQLException | RuntimeException e) {
+            // Other nodes fall back to their max-age/idle rechecks; the write itself must not fail
+            log.warn("Failed to publish cache invalidation {}: {}", messages, e.getMessage());
+        }
+    }
+    
+    // In afterCommit the read-only flag is still set and the transaction's connection may still be bound,
+    // so neither JdbcTemplate nor the routing DataSource is guaranteed to reach the primary
+    private void notifyOnPrimary(String payload) throws SQLException {
+        DataSource target = primaryDataSource != null ? primaryDataSource : dataSource;
+        try (Connection connection = target.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            statement.setString(1, channel);
+            statement.setString(2, payload);
+            statement.execute();
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listen, "invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+    
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+    
+    private void listen() {
+        long delay = reconnectInitialDelayMs;
+        while (running) {
+            // A dedicated connection to the primary: pooled connections are recycled, and replicas never see NOTIFY
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+                 Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN \"" + channel + "\"");
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                log.info("Listening for cache invalidations on channel {} as node {}", channel, nodeId);
+                // Anything sent while this node was not listening is lost
+                resync();
+                delay = reconnectInitialDelayMs;
+                
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollIntervalMs);
+                    if (notifications == null || notifications.length == 0) {
+                        // A silently dropped connection only shows up when it is used
+                        statement.execute("SELECT 1");
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        receive(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation listener disconnected ({}), reconnecting in {} ms", e.getMessage(), delay);
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                delay = Math.min(delay * 2, reconnectMaxDelayMs);
+            }
+        }
+    }
+    
+    private void receive(String payload) {
+        List<InvalidationMessage> messages;
+        try {
+            JsonNode root = objectMapper.readTree(payload);
+            if (nodeId.equals(root.path("node").asText())) {
+                return;
+            }
+            messages = objectMapper.convertValue(root.path("messages"), MESSAGE_LIST);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            // Unknown format (e.g. a newer node during a rolling deploy): drop everything to be safe
+            log.warn("Unreadable cache invalidation payload, resyncing: {}", e.getMessage());
+            resync();
+            return;
+        }
+        
+        for (InvalidationMessage message : messages) {
+            meterRegistry.counter("app.invalidation.messages", "direction", "received", "type", message.getType().name()).increment();
+            for (Consumer<InvalidationMessage> handler : handlers.getOrDefault(message.getType(), List.of())) {
+                try {
+                    handler.accept(message);
+                } catch (RuntimeException e) {
+                    log.warn("Cache invalidation handler failed for {}: {}", message, e.getMessage());
+                }
+            }
+        }
+    }
+    
+    private void resync() {
+        meterRegistry.counter("app.invalidation.resyncs").increment();
+        for (Runnable handler : resyncHandlers) {
+            try {
+                handler.run();
+            } catch (RuntimeException e) {
+                log.warn("Cache invalidation resync handler failed: {}", e.getMessage());
+            }
+        }
+    }
+}
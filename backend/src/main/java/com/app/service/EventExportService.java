@@ -0,0 +1,194 @@
+package com.app.service;
+
+import com.app.repository.EventRepository;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+
+/**
+ * Выгрузка результатов мероприятия в Excel.
+ * 
+ * Строки читаются однонаправленным JDBC-курсором (fetch size) в read-only
+ * транзакции и пишутся в SXSSFWorkbook, который держит в памяти только
+ * последние ROW_WINDOW строк, а остальные сбрасывает во временный файл.
+ * Поэтому расход памяти не зависит от количества строк.
+ */
+@Service
+public class EventExportService {
+    
+    public static final String XLSX_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+    
+    private static final int ROW_WINDOW = 100;
+    
+    private static final String APPROVED_STATUSES = "('APPROVED', 'AUTO_APPROVED')";
+    
+    private static final String TEAM_STANDINGS_SQL =
+            "SELECT t.name, " +
+            "(SELECT COUNT(*) FROM team_participants tp WHERE tp.team_id = t.id) AS members, " +
+            "COUNT(a.id) AS activities, " +
+            "COALESCE(SUM(a.energy), 0) AS points, " +
+            "COALESCE(SUM(a.duration_minutes), 0) AS minutes " +
+            "FROM teams t " +
+            "LEFT JOIN activities a ON a.team_id = t.id AND a.status IN " + APPROVED_STATUSES + " " +
+            "WHERE t.event_id = ? " +
+            "GROUP BY t.id, t.name " +
+            "ORDER BY points DESC, t.name ASC";
+    
+    private static final String PARTICIPANT_RANKINGS_SQL =
+            "SELECT p.name, p.username, t.name AS team_name, " +
+            "COUNT(a.id) AS activities, " +
+            "SUM(a.energy) AS points, " +
+            "COALESCE(SUM(a.duration_minutes), 0) AS minutes " +
+            "FROM activities a " +
+            "JOIN teams t ON t.id = a.team_id " +
+            "JOIN participants p ON p.id = a.participant_id " +
+            "WHERE t.event_id = ? AND a.status IN " + APPROVED_STATUSES + " " +
+            "GROUP BY p.id, p.name, p.username, t.name " +
+            "ORDER BY points DESC, p.name ASC";
+    
+    private static final String ACTIVITY_LOG_SQL =
+            "SELECT a.id, a.created_at, p.name AS participant_name, p.username, t.name AS team_name, " +
+            "at.name AS activity_type, a.energy, " +
+            "COALESCE((SELECT SUM(adj.points_adjustment) FROM activity_adjustments adj WHERE adj.activity_id = a.id), 0) AS adjustment, " +
+            "a.duration_minutes, a.status, a.description, m.name AS moderator_name, a.moderated_at, a.rejection_reason " +
+            "FROM activities a " +
+            "JOIN teams t ON t.id = a.team_id " +
+            "JOIN participants p ON p.id = a.participant_id " +
+            "JOIN activity_types at ON at.id = a.activity_type_id " +
+            "LEFT JOIN participants m ON m.id = a.moderated_by " +
+            "WHERE t.event_id = ? " +
+            "ORDER BY a.created_at ASC, a.id ASC";
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private EventRepository eventRepository;
+    
+    @Value("${app.export.fetch-size:1000}")
+    private int fetchSize;
+    
+    private JdbcTemplate cursorJdbcTemplate;
+    
+    private TransactionTemplate readOnlyTransaction;
+    
+    @PostConstruct
+    void init() {
+        cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        cursorJdbcTemplate.setFetchSize(fetchSize);
+        
+        // PostgreSQL only uses a server-side cursor when autocommit is off
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+    
+    /**
+     * Проверить, что мероприятие существует, до начала потоковой записи ответа
+     * 
+     * @throws RuntimeException если мероприятие не найдено
+     */
+    public void checkEventExists(Long eventId) {
+        if (!eventRepository.existsById(eventId)) {
+            throw new RuntimeException("Event not found");
+        }
+    }
+    
+    public void exportTeamStandings(Long eventId, OutputStream out) throws IOException {
+        writeWorkbook(out, "Команды",
+                new String[]{"Место", "Команда", "Участников", "Активностей", "Баллы", "Минуты"},
+                TEAM_STANDINGS_SQL, eventId, true);
+    }
+    
+    public void exportParticipantRankings(Long eventId, OutputStream out) throws IOException {
+        writeWorkbook(out, "Участники",
+                new String[]{"Место", "Участник", "Логин", "Команда", "Активностей", "Баллы", "Минуты"},
+                PARTICIPANT_RANKINGS_SQL, eventId, true);
+    }
+    
+    public void exportActivityLog(Long eventId, OutputStream out) throws IOException {
+        writeWorkbook(out, "Активности",
+                new String[]{"ID", "Дата", "Участник", "Логин", "Команда", "Тип активности", "Энергия",
+                        "Бонусы/штрафы", "Минуты", "Статус", "Описание", "Модератор", "Дата модерации",
+                        "Причина отклонения"},
+                ACTIVITY_LOG_SQL, eventId, false);
+    }
+    
+    private void writeWorkbook(OutputStream out, String sheetName, String[] headers,
+                               String sql, Long eventId, boolean withRank) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            SXSSFSheet sheet = workbook.createSheet(sheetName);
+            
+            CellStyle headerStyle = workbook.createCellStyle();
+            Font headerFont = workbook.createFont();
+            headerFont.setBold(true);
+            headerStyle.setFont(headerFont);
+            
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.createDataFormat().getFormat("dd.mm.yyyy hh:mm"));
+            
+            Row headerRow = sheet.createRow(0);
+            for (int i = 0; i < headers.length; i++) {
+                Cell cell = headerRow.createCell(i);
+                cell.setCellValue(headers[i]);
+                cell.setCellStyle(headerStyle);
+            }
+            sheet.createFreezePane(0, 1);
+            
+            int[] rowIndex = {1};
+            readOnlyTransaction.executeWithoutResult(status ->
+                    cursorJdbcTemplate.query(sql, rs -> {
+                        ResultSetMetaData meta = rs.getMetaData();
+                        Row row = sheet.createRow(rowIndex[0]);
+                        int col = 0;
+                        if (withRank) {
+                            row.createCell(col++).setCellValue(rowIndex[0]);
+                        }
+                        for (int i = 1; i <= meta.getColumnCount(); i++) {
+                            setCellValue(row.createCell(col++), rs.getObject(i), dateStyle);
+                        }
+                        rowIndex[0]++;
+                    }, eventId));
+            
+            workbook.write(out);
+            out.flush();
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+    
+    private void setCellValue(Cell cell, Object value, CellStyle dateStyle) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof Number) {
+            cell.setCellValue(((Number) value).doubleValue());
+        } else if (value instanceof Timestamp) {
+            cell.setCellValue(((Timestamp) value).toLocalDateTime());
+            cell.setCellStyle(dateStyle);
+        } else {
+            cell.setCellValue(value.toString());
+        }
+    }
+}
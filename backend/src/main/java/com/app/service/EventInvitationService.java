@@ -31,6 +31,9 @@ public class EventInvitationService {
     @Autowired
     private ParticipantRepository participantRepository;
     
+    @Autowired
+    private ResourceVersions resourceVersions;
+    
     @Autowired
     private EventParticipantRepository eventParticipantRepository;
     
@@ -111,6 +114,7 @@ public class EventInvitationService {
         eventInvitationRepository.delete(invitation);
     }
     
+    @Transactional(readOnly = true)
     public List<EventInvitationResponse> getEventInvitations(Long eventId, HttpServletRequest httpRequest) {
         return eventInvitationRepository.findByEventId(eventId)
                 .stream()
@@ -118,6 +122,7 @@ public class EventInvitationService {
                 .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
     public EventInvitationResponse getInvitationByToken(String token, HttpServletRequest httpRequest) {
         EventInvitation invitation = eventInvitationRepository.findByInvitationToken(token)
                 .orElseThrow(() -> new RuntimeException("Invitation not found"));
@@ -153,6 +158,7 @@ public class EventInvitationService {
         eventParticipant.setInvitedBy(invitation.getCreatedBy());
         eventParticipant.setJoinedAt(LocalDateTime.now());
         eventParticipantRepository.save(eventParticipant);
+        resourceVersions.bump(ResourceVersions.STANDINGS);
         
         EventInvitationUsage usage = new EventInvitationUsage();
         usage.setInvitation(invitation);
@@ -167,6 +173,7 @@ public class EventInvitationService {
         return participant;
     }
     
+    @Transactional(readOnly = true)
     public EventInvitationStatsResponse getEventInvitationStats(Long eventId) {
         Event event = eventRepository.findById(eventId)
                 .orElseThrow(() -> new RuntimeException("Event not found"));
@@ -207,6 +214,7 @@ public class EventInvitationService {
         );
     }
     
+    @Transactional(readOnly = true)
     public List<EventInvitationUsageResponse> getInvitationUsages(Long invitationId) {
         return eventInvitationUsageRepository.findByInvitationId(invitationId)
                 .stream()
@@ -27,6 +27,10 @@ public class EventNewsService {
     @Autowired
     private ParticipantRepository participantRepository;
     
+    @Autowired
+    private ResourceVersions resourceVersions;
+    
+    @Transactional(readOnly = true)
     public List<EventNewsResponse> getEventNews(Long eventId) {
         return eventNewsRepository.findByEventIdOrderByCreatedAtDesc(eventId).stream()
                 .map(this::toResponse)
@@ -47,6 +51,7 @@ public class EventNewsService {
         news.setCreatedBy(participant);
         
         news = eventNewsRepository.save(news);
+        resourceVersions.bump(ResourceVersions.EVENT_NEWS);
         return toResponse(news);
     }
     
@@ -57,12 +62,14 @@ public class EventNewsService {
         
         news.setContent(request.getContent());
         news = eventNewsRepository.save(news);
+        resourceVersions.bump(ResourceVersions.EVENT_NEWS);
         return toResponse(news);
     }
     
     @Transactional
     public void deleteEventNews(Long newsId) {
         eventNewsRepository.deleteById(newsId);
+        resourceVersions.bump(ResourceVersions.EVENT_NEWS);
     }
     
     private EventNewsResponse toResponse(EventNews news) {
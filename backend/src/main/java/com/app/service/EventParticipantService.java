@@ -7,6 +7,7 @@ import com.app.repository.EventRepository;
 import com.app.repository.ParticipantRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -25,9 +26,13 @@ public class EventParticipantService {
     @Autowired
     private ParticipantRepository participantRepository;
     
+    @Autowired
+    private ResourceVersions resourceVersions;
+    
     @Autowired
     private NotificationService notificationService;
     
+    @Transactional
     public List<EventParticipantResponse> inviteParticipantsToEvent(Long eventId, List<Long> participantIds, Long invitedById) {
         Event event = eventRepository.findById(eventId)
                 .orElseThrow(() -> new RuntimeException("Event not found"));
@@ -103,6 +108,7 @@ public class EventParticipantService {
                 .collect(Collectors.toList());
     }
     
+    @Transactional
     public EventParticipantResponse acceptInvitation(Long invitationId, Long participantId) {
         EventParticipant eventParticipant = eventParticipantRepository.findById(invitationId)
                 .orElseThrow(() -> new RuntimeException("Invitation not found"));
@@ -118,10 +124,12 @@ public class EventParticipantService {
         eventParticipant.setStatus(EventParticipantStatus.ACCEPTED);
         eventParticipant.setJoinedAt(LocalDateTime.now());
         eventParticipant = eventParticipantRepository.save(eventParticipant);
+        resourceVersions.bump(ResourceVersions.STANDINGS);
         
         return toEventParticipantResponse(eventParticipant);
     }
     
+    @Transactional
     public EventParticipantResponse declineInvitation(Long invitationId, Long participantId) {
         EventParticipant eventParticipant = eventParticipantRepository.findById(invitationId)
                 .orElseThrow(() -> new RuntimeException("Invitation not found"));
@@ -140,6 +148,7 @@ public class EventParticipantService {
         return toEventParticipantResponse(eventParticipant);
     }
     
+    @Transactional(readOnly = true)
     public List<EventParticipantResponse> getParticipantInvitations(Long participantId) {
         return eventParticipantRepository.findByParticipantIdAndStatus(participantId, EventParticipantStatus.PENDING)
                 .stream()
@@ -147,6 +156,7 @@ public class EventParticipantService {
                 .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
     public List<EventParticipantResponse> getEventParticipants(Long eventId) {
         return eventParticipantRepository.findByEventId(eventId)
                 .stream()
@@ -0,0 +1,251 @@
+package com.app.service;
+
+import com.app.dto.InvalidationMessage;
+import com.app.model.Event;
+import com.app.model.EventReminder;
+import com.app.model.EventReminderStatus;
+import com.app.model.EventReminderType;
+import com.app.model.EventStatus;
+import com.app.model.NotificationType;
+import com.app.repository.EventParticipantRepository;
+import com.app.repository.EventReminderRepository;
+import com.app.repository.EventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Напоминания о мероприятиях по полю reminderDaysBefore.
+ * 
+ * Для каждого мероприятия заранее рассчитываются напоминания (старт,
+ * закрытие регистрации, завершение) и сохраняются в event_reminders.
+ * Планировщик хранит время ближайшего напоминания и обращается к БД
+ * только когда оно наступило. Новые напоминания с других узлов приходят
+ * через {@link CacheInvalidationBus}; раз в maxIdleMinutes БД проверяется
+ * в любом случае. Выборка идет через SKIP LOCKED,
+ * а статус SENT фиксируется в одной транзакции с уведомлениями, поэтому
+ * каждое напоминание отправляется ровно один раз при рестартах и на нескольких узлах.
+ */
+@Service
+public class EventReminderService {
+    
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+    
+    private static final List<EventStatus> SCHEDULABLE_STATUSES = Arrays.asList(EventStatus.DRAFT, EventStatus.ACTIVE);
+    
+    @Autowired
+    private EventReminderRepository eventReminderRepository;
+    
+    @Autowired
+    private EventRepository eventRepository;
+    
+    @Autowired
+    private EventParticipantRepository eventParticipantRepository;
+    
+    @Autowired
+    private NotificationService notificationService;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private CacheInvalidationBus invalidationBus;
+    
+    @Value("${app.reminders.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.reminders.batch-size:20}")
+    private int batchSize;
+    
+    @Value("${app.reminders.max-idle-minutes:5}")
+    private long maxIdleMinutes;
+    
+    private volatile LocalDateTime nextDueAt;
+    
+    private volatile LocalDateTime lastCheckAt;
+    
+    @PostConstruct
+    void subscribe() {
+        invalidationBus.subscribe(InvalidationMessage.Type.REMINDER_DUE, message -> moveNextDueAt(message.getDueAt()));
+        // Missed messages: look at the database on the next tick
+        invalidationBus.onResync(() -> lastCheckAt = null);
+    }
+    
+    /**
+     * Пересчитать напоминания мероприятия после создания или изменения
+     * 
+     * Вызывается в транзакции, сохраняющей мероприятие, чтобы напоминания
+     * фиксировались или откатывались вместе с ним.
+     * Неотправленные напоминания удаляются и создаются заново по текущим датам.
+     * Уже отправленные сохраняются, поэтому повторного напоминания о той же дате
+     * не будет, даже если изменился reminderDaysBefore.
+     * 
+     * @param event сохраненное мероприятие
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void rescheduleEvent(Event event) {
+        eventReminderRepository.deletePendingByEventId(event.getId());
+        scheduleReminders(event);
+    }
+    
+    /**
+     * Построить индекс напоминаний для предстоящих мероприятий при старте
+     * 
+     * Вставка идемпотентна, поэтому одновременный старт нескольких узлов безопасен.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIndex() {
+        if (!enabled) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status ->
+                eventRepository.findByEndDateAfterAndStatusIn(LocalDateTime.now(), SCHEDULABLE_STATUSES)
+                        .forEach(this::scheduleReminders));
+        nextDueAt = eventReminderRepository.findNextDueAt();
+        lastCheckAt = LocalDateTime.now();
+    }
+    
+    @Scheduled(fixedDelayString = "${app.reminders.poll-interval-ms:30000}")
+    public void fireDueReminders() {
+        if (!enabled) {
+            return;
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        boolean idleExpired = lastCheckAt == null || now.isAfter(lastCheckAt.plusMinutes(maxIdleMinutes));
+        boolean somethingDue = nextDueAt != null && !now.isBefore(nextDueAt);
+        if (!somethingDue && !idleExpired) {
+            return;
+        }
+        
+        Integer fired;
+        do {
+            fired = transactionTemplate.execute(status -> fireBatch(LocalDateTime.now()));
+        } while (fired != null && fired == batchSize);
+        
+        nextDueAt = eventReminderRepository.findNextDueAt();
+        lastCheckAt = now;
+    }
+    
+    private int fireBatch(LocalDateTime now) {
+        List<EventReminder> due = eventReminderRepository.lockDueReminders(now, batchSize);
+        
+        for (EventReminder reminder : due) {
+            Event event = reminder.getEvent();
+            
+            // Target moment already passed (e.g. the node was down) or event switched off reminders
+            if (!reminder.getTargetAt().isAfter(now)
+                    || !Boolean.TRUE.equals(event.getNotificationsEnabled())
+                    || !SCHEDULABLE_STATUSES.contains(event.getStatus())) {
+                reminder.setStatus(EventReminderStatus.SKIPPED);
+                continue;
+            }
+            
+            Set<Long> recipientIds = eventParticipantRepository.findAllMemberIdsByEventId(event.getId()).stream()
+                    .map(Number::longValue)
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+            
+            int count = notificationService.createBulkNotifications(
+                    recipientIds,
+                    getTitle(reminder.getReminderType()),
+                    getMessage(reminder, event),
+                    NotificationType.EVENT_REMINDER
+            );
+            
+            reminder.setStatus(EventReminderStatus.SENT);
+            reminder.setSentAt(now);
+            reminder.setRecipientCount(count);
+        }
+        
+        eventReminderRepository.saveAll(due);
+        return due.size();
+    }
+    
+    private void scheduleReminders(Event event) {
+        if (!Boolean.TRUE.equals(event.getNotificationsEnabled())
+                || event.getReminderDaysBefore() == null
+                || !SCHEDULABLE_STATUSES.contains(event.getStatus())) {
+            return;
+        }
+        
+        int days = event.getReminderDaysBefore();
+        scheduleReminder(event, EventReminderType.EVENT_START, event.getStartDate(), days);
+        scheduleReminder(event, EventReminderType.REGISTRATION_DEADLINE, event.getRegistrationDeadline(), days);
+        scheduleReminder(event, EventReminderType.EVENT_END, event.getEndDate(), days);
+    }
+    
+    private void scheduleReminder(Event event, EventReminderType type, LocalDateTime targetAt, int days) {
+        if (targetAt == null || !targetAt.isAfter(LocalDateTime.now())) {
+            return;
+        }
+        
+        // The unique key is the target moment, not due_at: a reminder already sent for this date
+        // is not inserted again when reminderDaysBefore changes
+        LocalDateTime dueAt = targetAt.minusDays(days);
+        eventReminderRepository.insertIfAbsent(event.getId(), type.name(), dueAt, targetAt);
+        // Until commit the scheduler would not see the row and would move nextDueAt past it again
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    moveNextDueAt(dueAt);
+                }
+            });
+        } else {
+            moveNextDueAt(dueAt);
+        }
+        invalidationBus.publish(InvalidationMessage.reminderDue(dueAt));
+    }
+    
+    private void moveNextDueAt(LocalDateTime dueAt) {
+        LocalDateTime currentNext = nextDueAt;
+        if (currentNext == null || dueAt.isBefore(currentNext)) {
+            nextDueAt = dueAt;
+        }
+    }
+    
+    private String getTitle(EventReminderType type) {
+        switch (type) {
+            case EVENT_START:
+                return "Скоро старт мероприятия";
+            case REGISTRATION_DEADLINE:
+                return "Скоро закрытие регистрации";
+            case EVENT_END:
+                return "Мероприятие скоро завершится";
+            default:
+                return "Напоминание о мероприятии";
+        }
+    }
+    
+    private String getMessage(EventReminder reminder, Event event) {
+        String when = reminder.getTargetAt().format(DATE_FORMAT);
+        switch (reminder.getReminderType()) {
+            case EVENT_START:
+                return String.format("Мероприятие \"%s\" начнется %s.", event.getName(), when);
+            case REGISTRATION_DEADLINE:
+                return String.format("Регистрация на мероприятие \"%s\" закрывается %s.", event.getName(), when);
+            case EVENT_END:
+                return String.format("Мероприятие \"%s\" завершается %s. Не забудьте добавить свои активности!", event.getName(), when);
+            default:
+                return event.getName();
+        }
+    }
+}
@@ -2,12 +2,14 @@ package com.app.service;
 
 import com.app.dto.EventAdminDto;
 import com.app.dto.EventListResponse;
+import com.app.dto.EventListRow;
 import com.app.dto.EventRequest;
 import com.app.dto.EventResponse;
 import com.app.model.*;
 import com.app.repository.EventRepository;
 import com.app.repository.ParticipantRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,24 +29,34 @@ public class EventService {
     @Autowired
     private ParticipantRepository participantRepository;
     
-    public List<EventListResponse> getAllEvents() {
-        return eventRepository.findAll().stream()
+    @Autowired
+    private EventReminderService eventReminderService;
+    
+    @Autowired
+    private ResourceVersions resourceVersions;
+    
+    public List<EventListResponse> getAllEvents(Integer page, int size, String sort) {
+        Pageable pageable = PageRequests.of(page, size, sort, "id", "id", "name", "startDate", "endDate", "status");
+        return eventRepository.findListRows(pageable).stream()
                 .map(this::toListResponse)
                 .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
     public EventResponse getEvent(Long id) {
-        Event event = eventRepository.findById(id)
+        Event event = eventRepository.findWithAdminsById(id)
                 .orElseThrow(() -> new RuntimeException("Event not found"));
         return toResponse(event);
     }
     
+    @Transactional(readOnly = true)
     public List<EventResponse> getActiveEvents() {
         return eventRepository.findActiveEvents(LocalDateTime.now()).stream()
                 .map(this::toResponse)
                 .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
     public EventResponse getDisplayedEvent() {
         return eventRepository.findByDisplayOnHomepageTrue()
                 .map(this::toResponse)
@@ -56,6 +68,8 @@ public class EventService {
         Event event = new Event();
         updateEventFromRequest(event, request);
         event = eventRepository.save(event);
+        eventReminderService.rescheduleEvent(event);
+        resourceVersions.bump(ResourceVersions.EVENTS);
         return toResponse(event);
     }
     
@@ -78,12 +92,17 @@ public class EventService {
         
         updateEventFromRequest(event, request);
         event = eventRepository.save(event);
+        eventReminderService.rescheduleEvent(event);
+        resourceVersions.bump(ResourceVersions.EVENTS);
         return toResponse(event);
     }
     
     @Transactional
     public void deleteEvent(Long id) {
         eventRepository.deleteById(id);
+        // News, activity types, bonus types and teams of the event are removed with it
+        resourceVersions.bump(ResourceVersions.EVENTS, ResourceVersions.EVENT_NEWS, ResourceVersions.ACTIVITY_TYPES,
+                ResourceVersions.BONUS_TYPES, ResourceVersions.STANDINGS);
     }
     
     @Transactional
@@ -99,6 +118,7 @@ public class EventService {
                 .orElseThrow(() -> new RuntimeException("Event not found"));
         event.setDisplayOnHomepage(true);
         event = eventRepository.save(event);
+        resourceVersions.bump(ResourceVersions.EVENTS);
         return toResponse(event);
     }
     
@@ -108,6 +128,7 @@ public class EventService {
                 .orElseThrow(() -> new RuntimeException("Event not found"));
         event.setDisplayOnHomepage(false);
         eventRepository.save(event);
+        resourceVersions.bump(ResourceVersions.EVENTS);
     }
     
     private void updateEventFromRequest(Event event, EventRequest request) {
@@ -248,18 +269,18 @@ public class EventService {
         );
     }
     
-    private EventListResponse toListResponse(Event event) {
-        List<String> dashboardTypes = event.getDashboardTypes() != null && !event.getDashboardTypes().isEmpty()
-                ? Arrays.asList(event.getDashboardTypes().split(","))
+    private EventListResponse toListResponse(EventListRow row) {
+        List<String> dashboardTypes = row.getDashboardTypes() != null && !row.getDashboardTypes().isEmpty()
+                ? Arrays.asList(row.getDashboardTypes().split(","))
                 : List.of();
         
         return new EventListResponse(
-                event.getId(),
-                event.getName(),
-                event.getStartDate(),
-                event.getEndDate(),
-                event.getStatus().name(),
-                event.getDisplayOnHomepage(),
+                row.getId(),
+                row.getName(),
+                row.getStartDate(),
+                row.getEndDate(),
+                row.getStatus().name(),
+                row.getDisplayOnHomepage(),
                 dashboardTypes
         );
     }
@@ -0,0 +1,206 @@
+package com.app.service;
+
+import com.app.dto.ActivityExportRow;
+import com.app.dto.CommentExportRow;
+import com.app.dto.ReactionExportRow;
+import com.app.repository.ActivityCommentRepository;
+import com.app.repository.ActivityReactionRepository;
+import com.app.repository.ActivityRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Потоковая выгрузка истории активностей, реакций и комментариев для аналитики.
+ *
+ * Строки читаются из read-only транзакции как {@link Stream} плоских проекций
+ * (без загрузки сущностей) с fetch size, поэтому драйвер держит в памяти
+ * только текущую порцию. Каждая строка сразу пишется в ответ в формате
+ * NDJSON или CSV. Для инкрементальной выгрузки используется afterId:
+ * строки отдаются по возрастанию id.
+ */
+@Service
+public class HistoryExportService {
+    
+    public static final String FORMAT_NDJSON = "ndjson";
+    public static final String FORMAT_CSV = "csv";
+    
+    private static final String[] ACTIVITY_COLUMNS = {
+            "id", "eventId", "teamId", "teamName", "participantId", "participantUsername", "activityType",
+            "energy", "durationMinutes", "status", "description", "createdAt", "moderatedById", "moderatedAt",
+            "rejectionReason"
+    };
+    
+    private static final String[] REACTION_COLUMNS = {
+            "id", "activityId", "eventId", "participantId", "participantUsername", "reactionType", "createdAt"
+    };
+    
+    private static final String[] COMMENT_COLUMNS = {
+            "id", "activityId", "eventId", "participantId", "participantUsername", "text",
+            "mentionedParticipantId", "createdAt", "updatedAt"
+    };
+    
+    @Autowired
+    private ActivityRepository activityRepository;
+    
+    @Autowired
+    private ActivityReactionRepository activityReactionRepository;
+    
+    @Autowired
+    private ActivityCommentRepository activityCommentRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${app.export.flush-every-rows:1000}")
+    private int flushEveryRows;
+    
+    private TransactionTemplate readOnlyTransaction;
+    
+    @PostConstruct
+    void init() {
+        // PostgreSQL only uses a server-side cursor when autocommit is off
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+    
+    /**
+     * Проверить формат выгрузки до начала записи ответа
+     *
+     * @throws RuntimeException если формат не поддерживается
+     */
+    public String resolveFormat(String format) {
+        String normalized = format == null ? FORMAT_NDJSON : format.trim().toLowerCase();
+        if (!FORMAT_NDJSON.equals(normalized) && !FORMAT_CSV.equals(normalized)) {
+            throw new RuntimeException("Unsupported export format: " + format);
+        }
+        return normalized;
+    }
+    
+    public void exportActivities(Long eventId, Long afterId, String format, OutputStream out) throws IOException {
+        writeRows(out, format, ACTIVITY_COLUMNS,
+                () -> activityRepository.streamExportRows(eventId, afterId),
+                row -> new Object[]{
+                        row.getId(), row.getEventId(), row.getTeamId(), row.getTeamName(), row.getParticipantId(),
+                        row.getParticipantUsername(), row.getActivityType(), row.getEnergy(),
+                        row.getDurationMinutes(), row.getStatus(), row.getDescription(), row.getCreatedAt(),
+                        row.getModeratedById(), row.getModeratedAt(), row.getRejectionReason()
+                });
+    }
+    
+    public void exportReactions(Long eventId, Long afterId, String format, OutputStream out) throws IOException {
+        writeRows(out, format, REACTION_COLUMNS,
+                () -> activityReactionRepository.streamExportRows(eventId, afterId),
+                row -> new Object[]{
+                        row.getId(), row.getActivityId(), row.getEventId(), row.getParticipantId(),
+                        row.getParticipantUsername(), row.getReactionType(), row.getCreatedAt()
+                });
+    }
+    
+    public void exportComments(Long eventId, Long afterId, String format, OutputStream out) throws IOException {
+        writeRows(out, format, COMMENT_COLUMNS,
+                () -> activityCommentRepository.streamExportRows(eventId, afterId),
+                row -> new Object[]{
+                        row.getId(), row.getActivityId(), row.getEventId(), row.getParticipantId(),
+                        row.getParticipantUsername(), row.getText(), row.getMentionedParticipantId(),
+                        row.getCreatedAt(), row.getUpdatedAt()
+                });
+    }
+    
+    private <T> void writeRows(OutputStream out, String format, String[] columns,
+                               Supplier<Stream<T>> query,
+                               Function<T, Object[]> csvValues) throws IOException {
+        try {
+            if (FORMAT_CSV.equals(format)) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                writeCsvLine(writer, columns);
+                writer.flush();
+                streamRows(query, row -> writeCsvLine(writer, csvValues.apply(row)), writer::flush);
+                writer.flush();
+            } else {
+                ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                streamRows(query, row -> {
+                    writer.writeValue(generator, row);
+                    generator.writeRaw('\n');
+                }, generator::flush);
+                generator.close();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    private <T> void streamRows(Supplier<Stream<T>> query, RowWriter<T> rowWriter,
+                                Flusher flusher) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<T> rows = query.get()) {
+                long[] count = {0};
+                rows.forEach(row -> {
+                    try {
+                        rowWriter.write(row);
+                        count[0]++;
+                        // Push the first row out immediately, then in fixed-size chunks
+                        if (count[0] == 1 || count[0] % flushEveryRows == 0) {
+                            flusher.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        });
+    }
+    
+    private void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values[i];
+            if (value != null) {
+                writer.write(escapeCsv(value.toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+    
+    private String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+    
+    @FunctionalInterface
+    private interface RowWriter<T> {
+        void write(T row) throws IOException;
+    }
+    
+    @FunctionalInterface
+    private interface Flusher {
+        void flush() throws IOException;
+    }
+}
@@ -0,0 +1,289 @@
+package com.app.service;
+
+import com.app.exception.IdempotentRequestInProgressException;
+import com.app.model.IdempotencyKey;
+import com.app.repository.IdempotencyKeyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Идемпотентность повторяемых POST-запросов по заголовку Idempotency-Key.
+ *
+ * Ключ действует в пределах пользователя и операции (scope). Первый запрос
+ * занимает ключ в таблице idempotency_keys, выполняется и сохраняет ответ.
+ * Занятие ключа и сохранение ответа — отдельные короткие транзакции, сама
+ * операция выполняется между ними и не держит соединение с БД. При ошибке
+ * ключ освобождается, и клиент может повторить запрос. Повтор с тем же ключом
+ * получает сохранённый ответ с заголовком Idempotent-Replayed, не выполняя
+ * операцию заново; тот же ключ с другим запросом отклоняется.
+ *
+ * Одновременные повторы выполняются строго по очереди: на одном узле они ждут
+ * в памяти, между узлами — опрашивают таблицу, пока ключ занят. Ждут не дольше
+ * waitSeconds, после чего отвечают 409 с Retry-After, чтобы медленная операция
+ * не занимала поток на каждый повтор. Ключ, брошенный упавшим узлом, можно
+ * занять снова через lockSeconds. Недавние ответы
+ * дополнительно хранятся в памяти, чтобы повтор не обращался к БД.
+ */
+@Service
+public class IdempotencyService {
+    
+    public static final String HEADER = "Idempotency-Key";
+    
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    
+    private static final int MAX_KEY_LENGTH = 100;
+    
+    private static final int MAX_CACHED_RESPONSES = 10000;
+    
+    private static final long POLL_INTERVAL_MS = 200;
+    
+    private static final long RETRY_AFTER_SECONDS = 1;
+    
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${app.idempotency.ttl-hours:24}")
+    private long ttlHours;
+    
+    @Value("${app.idempotency.cache-ttl-minutes:10}")
+    private long cacheTtlMinutes;
+    
+    @Value("${app.idempotency.lock-seconds:120}")
+    private long lockSeconds;
+    
+    @Value("${app.idempotency.wait-seconds:10}")
+    private long waitSeconds;
+    
+    private final Map<String, StoredResponse> recentResponses = new ConcurrentHashMap<>();
+    
+    private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+    
+    /**
+     * Выполнить action не более одного раза для ключа idempotencyKey.
+     *
+     * @param idempotencyKey значение заголовка Idempotency-Key или null (тогда action выполняется как обычно)
+     * @param scope операция, например "activity-create"
+     * @param request всё, что определяет запрос (id из пути, параметры, тело); сериализуется в JSON и хэшируется
+     * @param responseType тип тела ответа для повторной отдачи
+     * @param action сама операция
+     */
+    public <T> ResponseEntity<T> execute(String idempotencyKey, String scope, Object request,
+                                         Class<T> responseType, Supplier<ResponseEntity<T>> action) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (idempotencyKey == null || authentication == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException(HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters long");
+        }
+        
+        String owner = authentication.getName();
+        String requestHash = hash(request);
+        String cacheKey = owner + '\n' + scope + '\n' + idempotencyKey;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(waitSeconds);
+        
+        while (true) {
+            StoredResponse cached = recentResponses.get(cacheKey);
+            if (cached != null && cached.expiresAt.isAfter(LocalDateTime.now())) {
+                return replay(scope, cached, requestHash, responseType);
+            }
+            
+            CompletableFuture<Void> mine = new CompletableFuture<>();
+            CompletableFuture<Void> running = inFlight.putIfAbsent(cacheKey, mine);
+            if (running != null) {
+                // The same request is being processed on this node: wait for it instead of holding a DB connection
+                await(running, scope, deadline);
+                continue;
+            }
+            ResponseEntity<T> response;
+            try {
+                response = executeClaimed(owner, scope, idempotencyKey, requestHash, cacheKey, responseType, action);
+            } finally {
+                inFlight.remove(cacheKey, mine);
+                mine.complete(null);
+            }
+            if (response != null) {
+                return response;
+            }
+            // Another node is processing the same request: poll without holding a DB connection
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMs <= 0) {
+                throw inProgress(scope);
+            }
+            try {
+                Thread.sleep(Math.min(POLL_INTERVAL_MS, remainingMs));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for the original request");
+            }
+        }
+    }
+    
+    private void await(CompletableFuture<Void> running, String scope, long deadline) {
+        try {
+            running.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw inProgress(scope);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the original request");
+        } catch (ExecutionException e) {
+            // The in-flight marker is always completed normally
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private IdempotentRequestInProgressException inProgress(String scope) {
+        meterRegistry.counter("app.idempotency.wait-timeouts", "scope", scope).increment();
+        return new IdempotentRequestInProgressException(RETRY_AFTER_SECONDS);
+    }
+    
+    // null when the key is held by a request still running on another node
+    private <T> ResponseEntity<T> executeClaimed(String owner, String scope, String key, String requestHash,
+                                                 String cacheKey, Class<T> responseType,
+                                                 Supplier<ResponseEntity<T>> action) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusHours(ttlHours);
+        StoredResponse existing = transactionTemplate.execute(status -> {
+            if (idempotencyKeyRepository.claim(owner, scope, key, requestHash, now, expiresAt,
+                    now.plusSeconds(lockSeconds)) == 1) {
+                return null;
+            }
+            // Released between the insert and this read: treat as busy and claim it on the next attempt
+            return idempotencyKeyRepository.findByOwnerAndScopeAndIdempotencyKey(owner, scope, key)
+                    .map(k -> new StoredResponse(k.getRequestHash(), k.getResponseStatus(), k.getResponseBody(),
+                            k.getExpiresAt()))
+                    .orElseGet(() -> new StoredResponse(requestHash, null, null, expiresAt));
+        });
+        if (existing != null) {
+            if (existing.status == null && existing.requestHash.equals(requestHash)) {
+                return null;
+            }
+            if (existing.status != null) {
+                remember(cacheKey, existing);
+            }
+            return replay(scope, existing, requestHash, responseType);
+        }
+        
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException | Error e) {
+            release(owner, scope, key);
+            throw e;
+        }
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            // Error responses are not remembered: release the key so that the client can retry
+            release(owner, scope, key);
+            return response;
+        }
+        String body = toJson(response.getBody());
+        transactionTemplate.executeWithoutResult(status ->
+                idempotencyKeyRepository.complete(owner, scope, key, response.getStatusCodeValue(), body));
+        remember(cacheKey, new StoredResponse(requestHash, response.getStatusCodeValue(), body, expiresAt));
+        return response;
+    }
+    
+    private void release(String owner, String scope, String key) {
+        transactionTemplate.executeWithoutResult(status -> idempotencyKeyRepository.release(owner, scope, key));
+    }
+    
+    /**
+     * Удалить истёкшие ключи из таблицы и из памяти
+     */
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-interval-ms:3600000}")
+    public void deleteExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        recentResponses.values().removeIf(stored -> !stored.expiresAt.isAfter(now));
+        transactionTemplate.executeWithoutResult(status -> idempotencyKeyRepository.deleteExpired(now));
+    }
+    
+    private <T> ResponseEntity<T> replay(String scope, StoredResponse stored, String requestHash, Class<T> responseType) {
+        if (!stored.requestHash.equals(requestHash)) {
+            throw new RuntimeException(HEADER + " has already been used for a different request");
+        }
+        meterRegistry.counter("app.idempotency.replays", "scope", scope).increment();
+        try {
+            T body = stored.body != null ? objectMapper.readValue(stored.body, responseType) : null;
+            return ResponseEntity.status(stored.status).header(REPLAYED_HEADER, "true").body(body);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to read stored response: " + e.getMessage());
+        }
+    }
+    
+    private void remember(String cacheKey, StoredResponse stored) {
+        if (recentResponses.size() >= MAX_CACHED_RESPONSES) {
+            return;
+        }
+        LocalDateTime cacheUntil = LocalDateTime.now().plusMinutes(cacheTtlMinutes);
+        recentResponses.put(cacheKey, new StoredResponse(stored.requestHash, stored.status, stored.body,
+                stored.expiresAt.isBefore(cacheUntil) ? stored.expiresAt : cacheUntil));
+    }
+    
+    private String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(toJson(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize: " + e.getMessage());
+        }
+    }
+    
+    private static final class StoredResponse {
+        
+        private final String requestHash;
+        
+        // null while the original request is still being processed
+        private final Integer status;
+        
+        private final String body;
+        
+        private final LocalDateTime expiresAt;
+        
+        private StoredResponse(String requestHash, Integer status, String body, LocalDateTime expiresAt) {
+            this.requestHash = requestHash;
+            this.status = status;
+            this.body = body;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,79 +1,216 @@
 package com.app.service;
 
+import com.app.dto.ImageInfo;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.annotation.PostConstruct;
 import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
 import javax.imageio.ImageWriteParam;
 import javax.imageio.ImageWriter;
-import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.FileImageOutputStream;
+import javax.imageio.stream.ImageInputStream;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.Iterator;
 import java.util.UUID;
 
+/**
+ * Сохранение загруженных изображений: уменьшение до MAX_WIDTH x MAX_HEIGHT и JPEG.
+ *
+ * Файл целиком в память не читается. Multipart-часть, которую Tomcat уже
+ * записал на диск (spring.servlet.multipart.location), переносится в
+ * spool-каталог и декодируется из файла; большие изображения декодируются
+ * с прореживанием, так что в памяти оказывается только растр около 2x от
+ * итогового размера. JPEG пишется во временный файл рядом с итоговым и
+ * атомарно переименовывается, поэтому по URL никогда не отдаётся
+ * недописанный файл. Вместе с URL возвращаются размер JPEG, BlurHash-заглушка
+ * и перцептивный хэш для поиска повторно использованных фото.
+ */
 @Service
 public class ImageService {
     
+    private static final Logger log = LoggerFactory.getLogger(ImageService.class);
+    
     @Value("${app.upload.base-path:/app/uploads}")
     private String uploadBasePath;
     
+    @Value("${app.upload.spool-path:${java.io.tmpdir}/sporttyx-upload-spool}")
+    private String spoolPath;
+    
     private static final int MAX_WIDTH = 800;
     private static final int MAX_HEIGHT = 800;
     private static final float COMPRESSION_QUALITY = 0.85f;
     
-    public String saveTeamImage(MultipartFile file) throws IOException {
+    // Decoding at no less than twice the target size keeps the bilinear downscale free of aliasing
+    private static final int SUBSAMPLING_HEADROOM = 2;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Timer saveImageTimer;
+    
+    @PostConstruct
+    void init() {
+        saveImageTimer = Timer.builder("app.image.save")
+                .description("Decode, resize and JPEG-encode of an uploaded image")
+                .register(meterRegistry);
+        // Tomcat refuses multipart requests when its location does not exist
+        try {
+            Files.createDirectories(Paths.get(spoolPath));
+        } catch (IOException e) {
+            log.warn("Upload spool directory {} is not writable, multipart uploads will fail: {}", spoolPath, e.toString());
+        }
+    }
+    
+    public ImageInfo saveTeamImage(MultipartFile file) throws IOException {
         String uploadDir = uploadBasePath + "/teams/";
         return saveImage(file, uploadDir);
     }
     
-    public String saveActivityImage(MultipartFile file) throws IOException {
+    public ImageInfo saveActivityImage(MultipartFile file) throws IOException {
         String uploadDir = uploadBasePath + "/activities/";
         return saveImage(file, uploadDir);
     }
     
-    private String saveImage(MultipartFile file, String uploadDir) throws IOException {
+    /**
+     * Сохранить фото активности из уже лежащего на диске файла (докачиваемая загрузка)
+     */
+    public ImageInfo saveActivityImage(Path source, String originalFilename) throws IOException {
+        String uploadDir = uploadBasePath + "/activities/";
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return processImage(source, originalFilename, uploadDir);
+        } finally {
+            sample.stop(saveImageTimer);
+        }
+    }
+    
+    /**
+     * Перцептивный хэш уже сохранённого изображения (для фото, загруженных до появления хэшей)
+     */
+    public long computePerceptualHash(String url) throws IOException {
+        Path path = resolveUpload(url);
+        if (path == null || !Files.isRegularFile(path)) {
+            throw new IOException("Image not found: " + url);
+        }
+        return PerceptualHash.dHash(readImage(path, url, MAX_WIDTH, MAX_HEIGHT));
+    }
+    
+    /**
+     * Удалить ранее сохранённое изображение по его URL (/uploads/...)
+     */
+    public void deleteImage(String url) throws IOException {
+        Path path = resolveUpload(url);
+        if (path != null) {
+            Files.deleteIfExists(path);
+        }
+    }
+    
+    // null for external URLs and paths escaping the upload directory
+    private Path resolveUpload(String url) {
+        if (url == null || !url.startsWith("/uploads/")) {
+            return null;
+        }
+        Path base = Paths.get(uploadBasePath).normalize();
+        Path path = base.resolve(url.substring("/uploads/".length())).normalize();
+        return path.startsWith(base) ? path : null;
+    }
+    
+    private ImageInfo saveImage(MultipartFile file, String uploadDir) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return doSaveImage(file, uploadDir);
+        } finally {
+            sample.stop(saveImageTimer);
+        }
+    }
+    
+    private ImageInfo doSaveImage(MultipartFile file, String uploadDir) throws IOException {
         if (file == null || file.isEmpty()) {
             throw new IOException("File is empty");
         }
         
-        Path uploadPath = Paths.get(uploadDir);
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
-        }
-        
-        BufferedImage originalImage;
+        Path spooled = Paths.get(spoolPath, UUID.randomUUID() + ".upload");
+        Files.createDirectories(spooled.getParent());
         try {
-            byte[] bytes = file.getBytes();
-            ByteArrayInputStream bais = new ByteArrayInputStream(bytes);
-            originalImage = ImageIO.read(bais);
-        } catch (Exception e) {
-            throw new IOException("Failed to read image file: " + file.getOriginalFilename(), e);
+            // transferTo(File) goes through Part.write: Tomcat renames its temp file instead of copying it
+            file.transferTo(spooled.toFile());
+            return processImage(spooled, file.getOriginalFilename(), uploadDir);
+        } finally {
+            Files.deleteIfExists(spooled);
         }
+    }
+    
+    private ImageInfo processImage(Path source, String originalFilename, String uploadDir) throws IOException {
+        BufferedImage originalImage = readImage(source, originalFilename, MAX_WIDTH, MAX_HEIGHT);
+        BufferedImage resizedImage = resizeImage(originalImage, MAX_WIDTH, MAX_HEIGHT);
         
-        if (originalImage == null) {
-            throw new IOException("Invalid image file: " + file.getOriginalFilename());
+        Path uploadPath = Paths.get(uploadDir);
+        if (!Files.exists(uploadPath)) {
+            Files.createDirectories(uploadPath);
         }
         
-        BufferedImage resizedImage = resizeImage(originalImage, MAX_WIDTH, MAX_HEIGHT);
-        
         String filename = UUID.randomUUID().toString() + ".jpg";
         Path filePath = uploadPath.resolve(filename);
+        writeJpegAtomically(resizedImage, filePath);
         
-        compressAndSaveImage(resizedImage, filePath);
-        
-        return uploadDir.replace(uploadBasePath, "/uploads") + filename;
+        return new ImageInfo(
+                uploadDir.replace(uploadBasePath, "/uploads") + filename,
+                resizedImage.getWidth(),
+                resizedImage.getHeight(),
+                BlurHashEncoder.encode(resizedImage),
+                PerceptualHash.dHash(resizedImage)
+        );
     }
     
-    private BufferedImage resizeImage(BufferedImage originalImage, int maxWidth, int maxHeight) {
+    /**
+     * Декодирование из файла. Изображения намного больше maxWidth x maxHeight
+     * декодируются с прореживанием строк и столбцов, не создавая полный растр
+     */
+    BufferedImage readImage(Path source, String originalFilename, int maxWidth, int maxHeight) throws IOException {
+        // A file-backed stream: the reader seeks in the file instead of buffering it on the heap
+        try (ImageInputStream stream = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = stream != null ? ImageIO.getImageReaders(stream) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("Invalid image file: " + originalFilename);
+            }
+            
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, true, true);
+                // The dimension that limits the final size decides how much can be skipped
+                int subsampling = Math.max(1, Math.max(
+                        reader.getWidth(0) / (maxWidth * SUBSAMPLING_HEADROOM),
+                        reader.getHeight(0) / (maxHeight * SUBSAMPLING_HEADROOM)));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } catch (IOException | RuntimeException e) {
+                throw new IOException("Failed to read image file: " + originalFilename, e);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+    
+    BufferedImage resizeImage(BufferedImage originalImage, int maxWidth, int maxHeight) {
         int originalWidth = originalImage.getWidth();
         int originalHeight = originalImage.getHeight();
         
@@ -101,9 +238,10 @@ public class ImageService {
         return resizedImage;
     }
     
-    private void compressAndSaveImage(BufferedImage image, Path outputPath) throws IOException {
-        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
-        
+    /**
+     * JPEG-сжатие прямо в файл: временный файл в том же каталоге, fsync и атомарное переименование
+     */
+    void writeJpegAtomically(BufferedImage image, Path target) throws IOException {
         Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpg");
         if (!writers.hasNext()) {
             throw new IOException("No JPEG writer found");
@@ -117,13 +255,24 @@ public class ImageService {
             param.setCompressionQuality(COMPRESSION_QUALITY);
         }
         
-        try (ImageOutputStream ios = ImageIO.createImageOutputStream(compressed)) {
-            writer.setOutput(ios);
-            writer.write(null, new IIOImage(image, null, null), param);
+        Path temp = target.resolveSibling("." + target.getFileName() + ".tmp");
+        try {
+            try (RandomAccessFile file = new RandomAccessFile(temp.toFile(), "rw");
+                 FileImageOutputStream ios = new FileImageOutputStream(file)) {
+                writer.setOutput(ios);
+                writer.write(null, new IIOImage(image, null, null), param);
+                ios.flush();
+                file.getChannel().force(true);
+            } finally {
+                writer.dispose();
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
         } finally {
-            writer.dispose();
+            Files.deleteIfExists(temp);
         }
-        
-        Files.write(outputPath, compressed.toByteArray());
     }
 }
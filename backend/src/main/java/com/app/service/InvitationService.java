@@ -29,6 +29,10 @@ public class InvitationService {
     @Autowired
     private TeamParticipantRepository teamParticipantRepository;
     
+    @Autowired
+    private ResourceVersions resourceVersions;
+    
+    @Transactional(readOnly = true)
     public List<InvitationResponse> getParticipantInvitations(Long participantId) {
         return invitationRepository.findByParticipantIdAndStatus(participantId, InvitationStatus.PENDING)
                 .stream()
@@ -72,6 +76,7 @@ public class InvitationService {
         teamParticipant.setParticipant(participant);
         teamParticipant.setRole(TeamRole.PARTICIPANT);
         teamParticipantRepository.save(teamParticipant);
+        resourceVersions.bump(ResourceVersions.STANDINGS);
         
         // Создаем уведомление (не приглашение)
         TeamInvitation notification = new TeamInvitation();
@@ -109,6 +114,7 @@ public class InvitationService {
         teamParticipant.setParticipant(invitation.getParticipant());
         teamParticipant.setRole(TeamRole.PARTICIPANT);
         teamParticipantRepository.save(teamParticipant);
+        resourceVersions.bump(ResourceVersions.STANDINGS);
         
         invitation.setStatus(InvitationStatus.ACCEPTED);
         invitation.setRespondedAt(LocalDateTime.now());
@@ -4,6 +4,7 @@ import com.app.dto.ActivityModerationResponse;
 import com.app.dto.BonusTypeResponse;
 import com.app.dto.ModerationStatsResponse;
 import com.app.dto.ParticipantSimpleDto;
+import com.app.dto.PossibleDuplicateResponse;
 import com.app.model.*;
 import com.app.repository.ActivityAdjustmentRepository;
 import com.app.repository.ActivityParticipantRepository;
@@ -13,17 +14,22 @@ import com.app.repository.EventRepository;
 import com.app.repository.ParticipantRepository;
 import com.app.repository.TeamParticipantRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.criteria.Predicate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,6 +38,9 @@ public class ModerationService {
     @Autowired
     private ActivityRepository activityRepository;
     
+    @Autowired
+    private ResourceVersions resourceVersions;
+    
     @Autowired
     private ParticipantRepository participantRepository;
     
@@ -53,17 +62,40 @@ public class ModerationService {
     @Autowired
     private NotificationService notificationService;
     
+    @Autowired
+    private WebhookOutboxService webhookOutboxService;
+    
+    @Autowired
+    private PhotoDuplicateIndex photoDuplicateIndex;
+    
+    @Value("${app.moderation.claim-lease-minutes:10}")
+    private long claimLeaseMinutes;
+    
+    @Value("${app.moderation.max-claim-batch:50}")
+    private int maxClaimBatch;
+    
+    /**
+     * Активности на модерации без живых захватов других модераторов:
+     * свои захваты moderatorId видит, чужие — нет
+     */
+    @Transactional(readOnly = true)
     public List<ActivityModerationResponse> getPendingActivities(
+            Long moderatorId,
             Long eventId, 
             Long teamId,
             int page, 
             int size
     ) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+        LocalDateTime now = LocalDateTime.now();
         
         Specification<Activity> spec = (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
             predicates.add(cb.equal(root.get("status"), ActivityStatus.PENDING));
+            predicates.add(cb.or(
+                    cb.isNull(root.get("claimedBy")),
+                    cb.lessThanOrEqualTo(root.get("claimExpiresAt"), now),
+                    cb.equal(root.get("claimedBy").get("id"), moderatorId)));
             
             if (eventId != null) {
                 predicates.add(cb.equal(root.get("team").get("event").get("id"), eventId));
@@ -75,9 +107,77 @@ public class ModerationService {
             return cb.and(predicates.toArray(new Predicate[0]));
         };
         
-        return activityRepository.findAll(spec, pageable)
-                .map(this::toModerationResponse)
-                .getContent();
+        return toModerationResponses(activityRepository.findAll(spec, pageable).getContent());
+    }
+    
+    /**
+     * Захватить следующие N активностей на модерации
+     * 
+     * Выбирает самые старые свободные активности через FOR UPDATE SKIP LOCKED,
+     * поэтому параллельные модераторы никогда не получают одни и те же записи.
+     * Захват действует claimLeaseMinutes минут; брошенные активности
+     * автоматически становятся доступными другим модераторам после истечения аренды.
+     * Уже захваченные этим модератором активности возвращаются повторно с продленной арендой.
+     * 
+     * @param moderatorId ID модератора
+     * @param eventId ID мероприятия (опционально)
+     * @param count количество активностей
+     * @return захваченные активности, от старых к новым
+     */
+    @Transactional
+    public List<ActivityModerationResponse> claimNextActivities(Long moderatorId, Long eventId, int count) {
+        Participant moderator = participantRepository.findById(moderatorId)
+                .orElseThrow(() -> new RuntimeException("Moderator not found"));
+        
+        if (moderator.getRole() != Role.MODERATOR && moderator.getRole() != Role.ADMIN) {
+            throw new RuntimeException("User is not a moderator");
+        }
+        
+        int limit = Math.max(1, Math.min(count, maxClaimBatch));
+        LocalDateTime now = LocalDateTime.now();
+        
+        // Native scalar queries return BigInteger for bigint columns
+        List<Long> ids = (eventId != null
+                ? activityRepository.lockClaimablePendingIdsByEventId(eventId, moderatorId, now, limit)
+                : activityRepository.lockClaimablePendingIds(moderatorId, now, limit))
+                .stream()
+                .map(Number::longValue)
+                .collect(Collectors.toList());
+        
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        activityRepository.claimActivities(ids, moderatorId, now.plusMinutes(claimLeaseMinutes));
+        
+        List<Activity> activities = activityRepository.findByIdIn(ids).stream()
+                .sorted(Comparator.comparing(Activity::getCreatedAt))
+                .collect(Collectors.toList());
+        return toModerationResponses(activities);
+    }
+    
+    /**
+     * Вернуть захваченную активность в общую очередь
+     * 
+     * @param activityId ID активности
+     * @param moderatorId ID модератора, который ее захватил
+     * @throws RuntimeException если активность не захвачена этим модератором
+     */
+    @Transactional
+    public void releaseActivity(Long activityId, Long moderatorId) {
+        if (activityRepository.releaseClaim(activityId, moderatorId) == 0) {
+            throw new RuntimeException("Activity is not claimed by this moderator");
+        }
+    }
+    
+    /**
+     * Периодически очищать истекшие захваты, чтобы список на модерации
+     * не показывал брошенные активности как занятые.
+     */
+    @Scheduled(fixedDelayString = "${app.moderation.claim-sweep-interval-ms:60000}")
+    @Transactional
+    public void releaseExpiredClaims() {
+        activityRepository.releaseExpiredClaims(LocalDateTime.now());
     }
     
     @Transactional
@@ -106,10 +206,14 @@ public class ModerationService {
             throw new RuntimeException("User is not a moderator");
         }
         
+        checkNotClaimedByOther(activity, moderatorId);
+        
         activity.setStatus(ActivityStatus.APPROVED);
         activity.setModeratedBy(moderator);
         activity.setModeratedAt(LocalDateTime.now());
         activity.setRejectionReason(null);
+        activity.setClaimedBy(null);
+        activity.setClaimExpiresAt(null);
         
         activityRepository.save(activity);
         
@@ -148,6 +252,9 @@ public class ModerationService {
         // Create notification for participant with bonus/penalty and comment info
         BonusType adjustmentType = bonusType != null ? bonusType : penaltyType;
         notificationService.createActivityApprovedNotification(activity, moderator, adjustmentType, comment);
+        
+        webhookOutboxService.enqueueActivityMessage(activity, WebhookOutboxService.ACTIVITY_APPROVED);
+        resourceVersions.bump(ResourceVersions.STANDINGS);
     }
     
     @Transactional
@@ -171,10 +278,14 @@ public class ModerationService {
             throw new RuntimeException("User is not a moderator");
         }
         
+        checkNotClaimedByOther(activity, moderatorId);
+        
         activity.setStatus(ActivityStatus.REJECTED);
         activity.setModeratedBy(moderator);
         activity.setModeratedAt(LocalDateTime.now());
         activity.setRejectionReason(reason);
+        activity.setClaimedBy(null);
+        activity.setClaimExpiresAt(null);
         
         activityRepository.save(activity);
         
@@ -196,6 +307,9 @@ public class ModerationService {
         
         // Create notification for participant with penalty info
         notificationService.createActivityRejectedNotification(activity, moderator, reason, penaltyType);
+        
+        webhookOutboxService.enqueueActivityMessage(activity, WebhookOutboxService.ACTIVITY_REJECTED);
+        resourceVersions.bump(ResourceVersions.STANDINGS);
     }
     
     public ModerationStatsResponse getModerationStats(Long moderatorId) {
@@ -213,7 +327,33 @@ public class ModerationService {
         );
     }
     
-    private ActivityModerationResponse toModerationResponse(Activity activity) {
+    private void checkNotClaimedByOther(Activity activity, Long moderatorId) {
+        Participant claimedBy = activity.getClaimedBy();
+        if (claimedBy != null
+                && !claimedBy.getId().equals(moderatorId)
+                && activity.getClaimExpiresAt() != null
+                && activity.getClaimExpiresAt().isAfter(LocalDateTime.now())) {
+            throw new RuntimeException("Activity is claimed by another moderator");
+        }
+    }
+    
+    // Team sizes and possible duplicates are loaded for the whole page at once
+    private List<ActivityModerationResponse> toModerationResponses(List<Activity> activities) {
+        if (activities.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Set<Long> teamIds = activities.stream().map(a -> a.getTeam().getId()).collect(Collectors.toSet());
+        Map<Long, Long> teamSizes = teamParticipantRepository.countByTeamIdIn(teamIds).stream()
+                .collect(Collectors.toMap(row -> (Long) row[0], row -> (Long) row[1]));
+        Map<Long, List<PossibleDuplicateResponse>> duplicates = photoDuplicateIndex.findPossibleDuplicates(activities);
+        return activities.stream()
+                .map(a -> toModerationResponse(a, teamSizes.getOrDefault(a.getTeam().getId(), 0L).intValue(),
+                        duplicates.getOrDefault(a.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+    
+    private ActivityModerationResponse toModerationResponse(Activity activity, int totalTeamParticipants,
+                                                            List<PossibleDuplicateResponse> possibleDuplicates) {
         List<String> photoUrls = activity.getPhotos().stream()
                 .map(ActivityPhoto::getPhotoUrl)
                 .collect(Collectors.toList());
@@ -236,8 +376,14 @@ public class ModerationService {
             ));
         }
         
-        // Get total team participants count
-        int totalTeamParticipants = teamParticipantRepository.findByTeamId(activity.getTeam().getId()).size();
+        // Only report live claims; expired ones are free for anyone to take
+        Participant claimedBy = null;
+        LocalDateTime claimExpiresAt = activity.getClaimExpiresAt();
+        if (activity.getClaimedBy() != null && claimExpiresAt != null && claimExpiresAt.isAfter(LocalDateTime.now())) {
+            claimedBy = activity.getClaimedBy();
+        } else {
+            claimExpiresAt = null;
+        }
         
         return new ActivityModerationResponse(
                 activity.getId(),
@@ -253,7 +399,11 @@ public class ModerationService {
                 activity.getStatus(),
                 activity.getCreatedAt(),
                 participants,
-                totalTeamParticipants
+                totalTeamParticipants,
+                claimedBy != null ? claimedBy.getId() : null,
+                claimedBy != null ? claimedBy.getName() : null,
+                claimExpiresAt,
+                possibleDuplicates
         );
     }
     
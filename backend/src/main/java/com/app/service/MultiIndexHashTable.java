@@ -0,0 +1,115 @@
+package com.app.service;
+
+import java.util.Arrays;
+
+/**
+ * Индекс 64-битных хэшей для поиска по расстоянию Хэмминга (multi-index hashing).
+ *
+ * Хэш делится на 4 части по 16 бит, по каждой части своя таблица из 65536
+ * корзин. Если расстояние до запроса не больше d, то хотя бы в одной части
+ * различаются не больше d / 4 бит, поэтому поиск перебирает только корзины
+ * с такими частями (при d = 10 — 137 корзин на таблицу) и проверяет полное
+ * расстояние у их записей, а не у всех записей индекса.
+ *
+ * Запись — пара (хэш, id активности). Не потокобезопасно.
+ */
+final class MultiIndexHashTable {
+    
+    interface Visitor {
+        void visit(long activityId, int distance);
+    }
+    
+    private static final int TABLES = 4;
+    private static final int CHUNK_BITS = Long.SIZE / TABLES;
+    private static final int BUCKETS = 1 << CHUNK_BITS;
+    
+    private long[] hashes = new long[1024];
+    
+    private long[] activityIds = new long[1024];
+    
+    private int size;
+    
+    // buckets[table][chunk value] holds entry indexes; allocated on first use
+    private final int[][][] buckets = new int[TABLES][BUCKETS][];
+    
+    private final int[][] bucketSizes = new int[TABLES][BUCKETS];
+    
+    /**
+     * Добавить пару (хэш, активность); повторное добавление ничего не меняет
+     */
+    boolean add(long hash, long activityId) {
+        // An existing equal entry is in all four buckets of this hash; the smallest is cheapest to scan
+        int smallest = 0;
+        for (int table = 1; table < TABLES; table++) {
+            if (bucketSizes[table][chunk(hash, table)] < bucketSizes[smallest][chunk(hash, smallest)]) {
+                smallest = table;
+            }
+        }
+        int[] existing = buckets[smallest][chunk(hash, smallest)];
+        for (int i = 0; i < bucketSizes[smallest][chunk(hash, smallest)]; i++) {
+            if (hashes[existing[i]] == hash && activityIds[existing[i]] == activityId) {
+                return false;
+            }
+        }
+        
+        if (size == hashes.length) {
+            hashes = Arrays.copyOf(hashes, size * 2);
+            activityIds = Arrays.copyOf(activityIds, size * 2);
+        }
+        int entry = size++;
+        hashes[entry] = hash;
+        activityIds[entry] = activityId;
+        
+        for (int table = 0; table < TABLES; table++) {
+            int chunk = chunk(hash, table);
+            int[] bucket = buckets[table][chunk];
+            int count = bucketSizes[table][chunk];
+            if (bucket == null) {
+                bucket = new int[2];
+            } else if (count == bucket.length) {
+                bucket = Arrays.copyOf(bucket, count * 2);
+            }
+            bucket[count] = entry;
+            buckets[table][chunk] = bucket;
+            bucketSizes[table][chunk] = count + 1;
+        }
+        return true;
+    }
+    
+    /**
+     * Обойти записи с хэшем на расстоянии не больше maxDistance.
+     * Запись может попасть к visitor несколько раз (по разу на совпавшую часть)
+     */
+    void search(long hash, int maxDistance, Visitor visitor) {
+        int chunkDistance = Math.min(maxDistance / TABLES, CHUNK_BITS);
+        for (int table = 0; table < TABLES; table++) {
+            probe(hash, maxDistance, table, chunk(hash, table), 0, chunkDistance, visitor);
+        }
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    // Visits the bucket of chunk and of every value reachable by flipping up to flips more bits above fromBit
+    private void probe(long hash, int maxDistance, int table, int chunk, int fromBit, int flips, Visitor visitor) {
+        int[] bucket = buckets[table][chunk];
+        for (int i = 0; i < bucketSizes[table][chunk]; i++) {
+            int entry = bucket[i];
+            int distance = PerceptualHash.distance(hash, hashes[entry]);
+            if (distance <= maxDistance) {
+                visitor.visit(activityIds[entry], distance);
+            }
+        }
+        if (flips == 0) {
+            return;
+        }
+        for (int bit = fromBit; bit < CHUNK_BITS; bit++) {
+            probe(hash, maxDistance, table, chunk ^ (1 << bit), bit + 1, flips - 1, visitor);
+        }
+    }
+    
+    private static int chunk(long hash, int table) {
+        return (int) (hash >>> (table * CHUNK_BITS)) & (BUCKETS - 1);
+    }
+}
@@ -6,13 +6,20 @@ import com.app.dto.NotificationTemplateResponse;
 import com.app.dto.SendNotificationRequest;
 import com.app.model.*;
 import com.app.repository.*;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.annotation.PostConstruct;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -42,6 +49,28 @@ public class NotificationService {
     @Autowired
     private TeamParticipantRepository teamParticipantRepository;
     
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private static final int INSERT_BATCH_SIZE = 500;
+    
+    private Timer fanOutTimer;
+    
+    private DistributionSummary fanOutRecipients;
+    
+    @PostConstruct
+    void initMetrics() {
+        fanOutTimer = Timer.builder("app.notifications.fanout")
+                .description("Bulk notification insert for many recipients")
+                .register(meterRegistry);
+        fanOutRecipients = DistributionSummary.builder("app.notifications.fanout.recipients")
+                .baseUnit("notifications")
+                .register(meterRegistry);
+    }
+    
     @Transactional
     public Notification createNotification(Long participantId, String title, String message, NotificationType type, Long activityId) {
         Notification notification = new Notification();
@@ -63,6 +92,43 @@ public class NotificationService {
         return notificationRepository.save(notification);
     }
     
+    /**
+     * Создать одинаковое уведомление для многих получателей
+     * 
+     * Вставка идет пачками через JDBC batch, минуя persistence context,
+     * поэтому рассылка на тысячи участников не создает тысячи сущностей.
+     * 
+     * @param participantIds получатели
+     * @return количество созданных уведомлений
+     */
+    @Transactional
+    public int createBulkNotifications(Collection<Long> participantIds, String title, String message, NotificationType type) {
+        if (participantIds == null || participantIds.isEmpty()) {
+            return 0;
+        }
+        
+        List<Long> recipients = new ArrayList<>(participantIds);
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        
+        Timer.Sample sample = Timer.start(meterRegistry);
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO notifications (participant_id, type, title, message, is_read, created_at) " +
+                        "VALUES (?, ?, ?, ?, false, ?)",
+                recipients,
+                INSERT_BATCH_SIZE,
+                (ps, participantId) -> {
+                    ps.setLong(1, participantId);
+                    ps.setString(2, type.name());
+                    ps.setString(3, title);
+                    ps.setString(4, message);
+                    ps.setTimestamp(5, createdAt);
+                });
+        sample.stop(fanOutTimer);
+        fanOutRecipients.record(recipients.size());
+        
+        return recipients.size();
+    }
+    
     @Transactional
     public Notification createActivityApprovedNotification(Activity activity, Participant moderator) {
         return createActivityApprovedNotification(activity, moderator, null, null);
@@ -148,6 +214,7 @@ public class NotificationService {
         return notificationRepository.save(notification);
     }
     
+    @Transactional(readOnly = true)
     public List<NotificationResponse> getParticipantNotifications(Long participantId) {
         return notificationRepository.findByParticipantIdOrderByCreatedAtDesc(participantId)
                 .stream()
@@ -155,6 +222,7 @@ public class NotificationService {
                 .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
     public List<NotificationResponse> getUnreadNotifications(Long participantId) {
         return notificationRepository.findByParticipantIdAndIsReadFalseOrderByCreatedAtDesc(participantId)
                 .stream()
@@ -254,20 +322,13 @@ public class NotificationService {
                 throw new RuntimeException("Invalid recipient type: " + request.getRecipientType());
         }
         
-        // Создаем уведомления для всех получателей
-        int count = 0;
-        for (Long participantId : recipientIds) {
-            createNotification(
-                participantId,
-                request.getTitle(),
-                request.getMessage(),
-                NotificationType.ADMIN_MESSAGE,
-                null
-            );
-            count++;
-        }
-        
-        return count;
+        // Создаем уведомления для всех получателей одной пакетной вставкой
+        return createBulkNotifications(
+            recipientIds,
+            request.getTitle(),
+            request.getMessage(),
+            NotificationType.ADMIN_MESSAGE
+        );
     }
     
     @Transactional
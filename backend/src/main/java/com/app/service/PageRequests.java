@@ -0,0 +1,52 @@
+package com.app.service;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.Arrays;
+
+/**
+ * Параметры постраничной выдачи для списковых эндпоинтов.
+ *
+ * sort задаётся как "name" или "name,desc"; разрешены только перечисленные
+ * поля. Без page список отдаётся целиком, как раньше, но уже
+ * отсортированным на стороне БД.
+ */
+public final class PageRequests {
+    
+    public static final int MAX_PAGE_SIZE = 200;
+    
+    private PageRequests() {
+    }
+    
+    public static Pageable of(Integer page, int size, String sort, String defaultSort, String... sortable) {
+        Sort order = parseSort(sort != null && !sort.isBlank() ? sort : defaultSort, sortable);
+        if (page == null) {
+            // Unpaged lists keep their old contract; Spring Data 2.x has no sorted unpaged Pageable
+            return PageRequest.of(0, Integer.MAX_VALUE, order);
+        }
+        if (page < 0) {
+            throw new RuntimeException("Page must not be negative");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new RuntimeException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return PageRequest.of(page, size, order);
+    }
+    
+    private static Sort parseSort(String sort, String... sortable) {
+        String[] parts = sort.split(",");
+        String property = parts[0].trim();
+        if (!Arrays.asList(sortable).contains(property)) {
+            throw new RuntimeException("Unsupported sort property: " + property);
+        }
+        Sort.Direction direction = parts.length > 1 && "desc".equalsIgnoreCase(parts[1].trim())
+                ? Sort.Direction.DESC
+                : Sort.Direction.ASC;
+        // Tie-break on id so that pages do not overlap
+        return "id".equals(property)
+                ? Sort.by(direction, "id")
+                : Sort.by(direction, property).and(Sort.by("id"));
+    }
+}
@@ -0,0 +1,443 @@
+package com.app.service;
+
+import com.app.dto.ParticipantImportResponse;
+import com.app.dto.ParticipantImportRowResult;
+import com.app.model.EventParticipantStatus;
+import com.app.model.Role;
+import com.app.repository.EventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Массовый импорт участников из CSV или XLSX.
+ *
+ * Колонки: username, password, name, email, phone, role (первая строка — заголовок).
+ * Занятые логины проверяются одним запросом по всему файлу, пароли хешируются
+ * параллельно на ограниченном пуле потоков, участники вставляются пачками
+ * через JDBC. Если указано мероприятие, созданные участники в той же
+ * транзакции записываются в него со статусом ACCEPTED.
+ */
+@Service
+public class ParticipantImportService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ParticipantImportService.class);
+    
+    public static final String ROW_CREATED = "CREATED";
+    public static final String ROW_SKIPPED = "SKIPPED";
+    public static final String ROW_FAILED = "FAILED";
+    
+    private static final int COLUMNS = 6;
+    private static final int MAX_USERNAME_LENGTH = 50;
+    private static final int MAX_NAME_LENGTH = 100;
+    private static final int MAX_EMAIL_LENGTH = 100;
+    private static final int MAX_PHONE_LENGTH = 20;
+    
+    private static final String EXISTING_USERNAMES_SQL =
+            "SELECT username FROM participants WHERE username = ANY (?)";
+    
+    private static final String INSERT_PARTICIPANT_SQL =
+            "INSERT INTO participants (username, password, name, email, phone, role, password_reset_required, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, false, ?) ON CONFLICT (username) DO NOTHING";
+    
+    private static final String PARTICIPANT_IDS_SQL =
+            "SELECT id, username FROM participants WHERE username = ANY (?)";
+    
+    private static final String INSERT_ENROLLMENT_SQL =
+            "INSERT INTO event_participants (event_id, participant_id, status, invited_at, joined_at, invited_by_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (event_id, participant_id) DO NOTHING";
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private EventRepository eventRepository;
+    
+    @Autowired
+    private ResourceVersions resourceVersions;
+    
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${app.participant-import.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${app.participant-import.max-rows:10000}")
+    private int maxRows;
+    
+    @Value("${app.participant-import.hash-threads:0}")
+    private int hashThreads;
+    
+    private TransactionTemplate transactionTemplate;
+    
+    private ExecutorService hashExecutor;
+    
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        int threads = hashThreads > 0 ? hashThreads : Math.max(2, Runtime.getRuntime().availableProcessors());
+        // BCrypt is CPU-bound: one shared pool caps hashing across concurrent imports
+        hashExecutor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "participant-import-hash");
+            thread.setDaemon(true);
+            return thread;
+        });
+        new ExecutorServiceMetrics(hashExecutor, "participant-import-hash", Tags.empty()).bindTo(meterRegistry);
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        hashExecutor.shutdownNow();
+    }
+    
+    /**
+     * Импортировать участников из файла и, если указано, записать их в мероприятие
+     *
+     * @param eventId мероприятие для записи (может быть null)
+     * @param adminId администратор, выполняющий импорт (invited_by)
+     * @param importerRole роль выполняющего импорт: строки с ролью ADMIN принимаются только от ADMIN
+     */
+    public ParticipantImportResponse importParticipants(MultipartFile file, Long eventId, Long adminId, Role importerRole) {
+        long started = System.currentTimeMillis();
+        if (eventId != null && !eventRepository.existsById(eventId)) {
+            throw new RuntimeException("Event not found");
+        }
+        
+        List<ImportRow> rows = readRows(file);
+        if (rows.size() > maxRows) {
+            throw new RuntimeException("Too many rows: " + rows.size() + " (max " + maxRows + ")");
+        }
+        rows.forEach(row -> validate(row, importerRole));
+        
+        List<ImportRow> candidates = rows.stream().filter(row -> row.status == null).collect(Collectors.toList());
+        markCollisions(candidates);
+        candidates.removeIf(row -> row.status != null);
+        
+        hashPasswords(candidates);
+        
+        for (int from = 0; from < candidates.size(); from += batchSize) {
+            List<ImportRow> batch = candidates.subList(from, Math.min(from + batchSize, candidates.size()));
+            transactionTemplate.executeWithoutResult(status -> insertBatch(batch, eventId, adminId));
+        }
+        
+        List<ParticipantImportRowResult> results = rows.stream()
+                .map(row -> new ParticipantImportRowResult(row.rowNumber, row.username, row.status,
+                        row.participantId, row.enrolled, row.message))
+                .collect(Collectors.toList());
+        int created = count(rows, ROW_CREATED);
+        int enrolled = (int) rows.stream().filter(row -> row.enrolled).count();
+        long duration = System.currentTimeMillis() - started;
+        log.info("Participant import: {} rows, {} created, {} enrolled in {} ms", rows.size(), created, enrolled, duration);
+        
+        return new ParticipantImportResponse(
+                rows.size(),
+                created,
+                count(rows, ROW_SKIPPED),
+                count(rows, ROW_FAILED),
+                enrolled,
+                duration,
+                results
+        );
+    }
+    
+    private int count(List<ImportRow> rows, String status) {
+        return (int) rows.stream().filter(row -> status.equals(row.status)).count();
+    }
+    
+    private void validate(ImportRow row, Role importerRole) {
+        if (row.username.isEmpty()) {
+            row.fail("Username is required");
+        } else if (row.username.length() > MAX_USERNAME_LENGTH) {
+            row.fail("Username is longer than " + MAX_USERNAME_LENGTH + " characters");
+        } else if (row.password.isEmpty()) {
+            row.fail("Password is required");
+        } else if (row.name.length() > MAX_NAME_LENGTH) {
+            row.fail("Name is longer than " + MAX_NAME_LENGTH + " characters");
+        } else if (row.email.length() > MAX_EMAIL_LENGTH) {
+            row.fail("Email is longer than " + MAX_EMAIL_LENGTH + " characters");
+        } else if (row.phone.length() > MAX_PHONE_LENGTH) {
+            row.fail("Phone is longer than " + MAX_PHONE_LENGTH + " characters");
+        } else {
+            try {
+                row.role = row.roleName.isEmpty() ? Role.USER : Role.valueOf(row.roleName.toUpperCase(Locale.ROOT));
+                // Role constants are declared from the most privileged down
+                if (row.role.ordinal() < importerRole.ordinal()) {
+                    row.fail("Cannot import a participant with a role above your own");
+                }
+            } catch (IllegalArgumentException e) {
+                row.fail("Unknown role: " + row.roleName);
+            }
+        }
+    }
+    
+    // One round trip for the whole file instead of findByUsername per row
+    private void markCollisions(List<ImportRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        String[] usernames = rows.stream().map(row -> row.username).distinct().toArray(String[]::new);
+        Set<String> taken = new HashSet<>(jdbcTemplate.queryForList(EXISTING_USERNAMES_SQL, String.class, (Object) usernames));
+        Set<String> seen = new HashSet<>();
+        for (ImportRow row : rows) {
+            if (taken.contains(row.username)) {
+                row.skip("Username already exists");
+            } else if (!seen.add(row.username)) {
+                row.skip("Duplicate username in file");
+            }
+        }
+    }
+    
+    private void hashPasswords(List<ImportRow> rows) {
+        CompletableFuture<?>[] futures = rows.stream()
+                .map(row -> CompletableFuture.runAsync(() -> row.passwordHash = passwordEncoder.encode(row.password),
+                        hashExecutor))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(futures).join();
+    }
+    
+    private void insertBatch(List<ImportRow> batch, Long eventId, Long adminId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> participantArgs = batch.stream()
+                .map(row -> new Object[]{row.username, row.passwordHash, emptyToNull(row.name),
+                        emptyToNull(row.email), emptyToNull(row.phone), row.role.name(), now})
+                .collect(Collectors.toList());
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_PARTICIPANT_SQL, participantArgs);
+        resourceVersions.bump(ResourceVersions.PARTICIPANTS, ResourceVersions.STANDINGS);
+        
+        List<ImportRow> inserted = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            if (counts[i] == 0) {
+                // Taken by a concurrent registration between the collision check and the insert
+                batch.get(i).skip("Username already exists");
+            } else {
+                inserted.add(batch.get(i));
+            }
+        }
+        if (inserted.isEmpty()) {
+            return;
+        }
+        
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query(PARTICIPANT_IDS_SQL,
+                rs -> {
+                    ids.put(rs.getString("username"), rs.getLong("id"));
+                },
+                (Object) inserted.stream().map(row -> row.username).toArray(String[]::new));
+        for (ImportRow row : inserted) {
+            row.status = ROW_CREATED;
+            row.participantId = ids.get(row.username);
+        }
+        
+        if (eventId != null) {
+            List<Object[]> enrollmentArgs = inserted.stream()
+                    .map(row -> new Object[]{eventId, row.participantId, EventParticipantStatus.ACCEPTED.name(),
+                            now, now, adminId})
+                    .collect(Collectors.toList());
+            jdbcTemplate.batchUpdate(INSERT_ENROLLMENT_SQL, enrollmentArgs);
+            inserted.forEach(row -> row.enrolled = true);
+        }
+    }
+    
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+    
+    private List<ImportRow> readRows(MultipartFile file) {
+        if (file.isEmpty()) {
+            throw new RuntimeException("File is empty");
+        }
+        String fileName = file.getOriginalFilename() != null ? file.getOriginalFilename().toLowerCase(Locale.ROOT) : "";
+        List<ImportRow> rows = new ArrayList<>();
+        try {
+            if (fileName.endsWith(".csv")) {
+                try (Reader reader = new BufferedReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+                    readCsv(reader, rows);
+                }
+            } else if (fileName.endsWith(".xlsx")) {
+                Path path = Files.createTempFile("participants-", ".xlsx");
+                try {
+                    try (InputStream in = file.getInputStream()) {
+                        Files.copy(in, path, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                    XlsxRowReader.readFirstSheet(path, COLUMNS, (rowNum, cells) -> {
+                        if (rowNum > 0) {
+                            addRow(rows, rowNum + 1, cells);
+                        }
+                    });
+                } finally {
+                    Files.deleteIfExists(path);
+                }
+            } else {
+                throw new RuntimeException("Unsupported file type, expected .csv or .xlsx");
+            }
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to read file: " + e.getMessage());
+        }
+        return rows;
+    }
+    
+    private void addRow(List<ImportRow> rows, int rowNumber, String[] cells) {
+        boolean blank = true;
+        for (String cell : cells) {
+            if (cell != null && !cell.trim().isEmpty()) {
+                blank = false;
+                break;
+            }
+        }
+        if (!blank) {
+            rows.add(new ImportRow(rowNumber, cells));
+        }
+    }
+    
+    /**
+     * Разбор CSV (RFC 4180): поля в кавычках, удвоенные кавычки, переводы строк внутри кавычек.
+     * Разделитель (запятая или точка с запятой) определяется по строке заголовка.
+     */
+    private void readCsv(Reader reader, List<ImportRow> rows) throws IOException {
+        List<String> record = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        StringBuilder header = new StringBuilder();
+        boolean quoted = false;
+        int recordNumber = 1;
+        int c = reader.read();
+        if (c == '\uFEFF') {
+            c = reader.read();
+        }
+        // The header row decides the delimiter (Excel in many locales saves CSV with ';')
+        while (c != -1 && c != '\n') {
+            header.append((char) c);
+            c = reader.read();
+        }
+        char delimiter = header.indexOf(";") >= 0 && header.indexOf(",") < 0 ? ';' : ',';
+        c = c == -1 ? -1 : reader.read();
+        recordNumber++;
+        
+        while (c != -1) {
+            char ch = (char) c;
+            if (quoted) {
+                if (ch == '"') {
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    field.append(ch);
+                }
+            } else if (ch == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (ch == delimiter) {
+                record.add(field.toString());
+                field.setLength(0);
+            } else if (ch == '\n') {
+                record.add(field.toString());
+                field.setLength(0);
+                addRow(rows, recordNumber++, toCells(record));
+                record.clear();
+            } else if (ch != '\r') {
+                field.append(ch);
+            }
+            c = reader.read();
+        }
+        if (field.length() > 0 || !record.isEmpty()) {
+            record.add(field.toString());
+            addRow(rows, recordNumber, toCells(record));
+        }
+    }
+    
+    private String[] toCells(List<String> record) {
+        String[] cells = new String[COLUMNS];
+        for (int i = 0; i < COLUMNS && i < record.size(); i++) {
+            cells[i] = record.get(i);
+        }
+        return cells;
+    }
+    
+    private static class ImportRow {
+        
+        private final int rowNumber;
+        private final String username;
+        private final String password;
+        private final String name;
+        private final String email;
+        private final String phone;
+        private final String roleName;
+        private Role role;
+        private String passwordHash;
+        private Long participantId;
+        private boolean enrolled;
+        private String status;
+        private String message;
+        
+        ImportRow(int rowNumber, String[] cells) {
+            this.rowNumber = rowNumber;
+            this.username = cell(cells, 0);
+            // Passwords are taken verbatim: surrounding spaces may be intentional
+            this.password = cells[1] != null ? cells[1] : "";
+            this.name = cell(cells, 2);
+            this.email = cell(cells, 3);
+            this.phone = cell(cells, 4);
+            this.roleName = cell(cells, 5);
+        }
+        
+        private static String cell(String[] cells, int index) {
+            return cells[index] != null ? cells[index].trim() : "";
+        }
+        
+        void fail(String reason) {
+            status = ROW_FAILED;
+            message = reason;
+        }
+        
+        void skip(String reason) {
+            status = ROW_SKIPPED;
+            message = reason;
+        }
+    }
+}
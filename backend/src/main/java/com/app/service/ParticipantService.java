@@ -16,10 +16,15 @@ import com.app.repository.EventParticipantRepository;
 import com.app.repository.EventRepository;
 import com.app.repository.ParticipantRepository;
 import com.app.repository.TeamParticipantRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.annotation.PostConstruct;
 import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -32,6 +37,9 @@ public class ParticipantService {
     @Autowired
     private ParticipantRepository participantRepository;
     
+    @Autowired
+    private ResourceVersions resourceVersions;
+    
     @Autowired
     private TeamParticipantRepository teamParticipantRepository;
     
@@ -50,6 +58,17 @@ public class ParticipantService {
     @Autowired
     private EventParticipantRepository eventParticipantRepository;
     
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Timer participantRankingsTimer;
+    
+    @PostConstruct
+    void initMetrics() {
+        participantRankingsTimer = Timer.builder("app.rankings.compute").tag("ranking", "participants").register(meterRegistry);
+    }
+    
+    @Transactional(readOnly = true)
     public ParticipantResponse getParticipant(Long id) {
         Participant participant = participantRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Participant not found"));
@@ -80,6 +99,7 @@ public class ParticipantService {
         );
     }
     
+    @Transactional
     public ParticipantResponse updateParticipant(Long id, ParticipantUpdateRequest request) {
         Participant participant = participantRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Participant not found"));
@@ -98,20 +118,39 @@ public class ParticipantService {
         }
         
         participant = participantRepository.save(participant);
+        resourceVersions.bump(ResourceVersions.PARTICIPANTS, ResourceVersions.STANDINGS);
         
         return getParticipant(participant.getId());
     }
     
     public void deleteParticipant(Long id) {
         participantRepository.deleteById(id);
+        resourceVersions.bump(ResourceVersions.PARTICIPANTS, ResourceVersions.STANDINGS);
     }
     
-    public List<ParticipantSearchResponse> searchParticipants(String query) {
-        return participantRepository.searchByName(query).stream()
-                .map(p -> new ParticipantSearchResponse(p.getId(), p.getName()))
+    public List<ParticipantResponse> getAllParticipants(Integer page, int size, String sort) {
+        Pageable pageable = PageRequests.of(page, size, sort, "id", "id", "username", "name", "createdAt");
+        // Only list columns are selected: no entity hydration and no password hash
+        return participantRepository.findListRows(pageable).stream()
+                .map(row -> new ParticipantResponse(
+                        row.getId(),
+                        row.getUsername(),
+                        row.getName(),
+                        row.getEmail(),
+                        row.getPhone(),
+                        row.getProfileImageUrl(),
+                        row.getRole().name(),
+                        null,
+                        null,
+                        null
+                ))
                 .collect(Collectors.toList());
     }
     
+    public List<ParticipantSearchResponse> searchParticipants(String query) {
+        return participantRepository.searchByName(query);
+    }
+    
     public void changePassword(Long id, ChangePasswordRequest request) {
         Participant participant = participantRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Participant not found"));
@@ -125,7 +164,12 @@ public class ParticipantService {
         participantRepository.save(participant);
     }
     
+    @Transactional(readOnly = true)
     public List<ParticipantRankingResponse> getParticipantRankings(Long eventId) {
+        return participantRankingsTimer.record(() -> computeParticipantRankings(eventId));
+    }
+    
+    private List<ParticipantRankingResponse> computeParticipantRankings(Long eventId) {
         // Получаем всех участников с их активностями для данного мероприятия
         List<Participant> participants = participantRepository.findAll();
         
@@ -160,6 +204,7 @@ public class ParticipantService {
         return rankings;
     }
     
+    @Transactional(readOnly = true)
     public List<EventResponse> getParticipantEvents(Long participantId) {
         // Получаем команды пользователя
         List<TeamParticipant> userTeams = teamParticipantRepository.findByParticipantId(participantId);
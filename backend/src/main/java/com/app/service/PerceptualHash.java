@@ -0,0 +1,65 @@
+package com.app.service;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Перцептивный хэш изображения (dHash, 64 бита): яркость уменьшенного до
+ * 9x8 изображения и знак разницы соседних по горизонтали ячеек.
+ * Пересжатие, изменение размера и небольшая цветокоррекция меняют лишь
+ * несколько бит, поэтому похожесть — это расстояние Хэмминга.
+ */
+final class PerceptualHash {
+    
+    private static final int COLUMNS = 9;
+    private static final int ROWS = 8;
+    
+    // Flat or nearly flat images hash to (almost) all zeros or ones and would match each other
+    private static final int MIN_SIGNIFICANT_BITS = 3;
+    
+    private PerceptualHash() {
+    }
+    
+    static long dHash(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double[] sums = new double[COLUMNS * ROWS];
+        int[] counts = new int[COLUMNS * ROWS];
+        
+        // Box averaging over every pixel: a bilinear downscale to 9x8 would sample only a few of them
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            int cellRow = y * ROWS / height;
+            for (int x = 0; x < width; x++) {
+                int rgb = row[x];
+                double luma = 0.299 * ((rgb >> 16) & 0xff) + 0.587 * ((rgb >> 8) & 0xff) + 0.114 * (rgb & 0xff);
+                int cell = cellRow * COLUMNS + x * COLUMNS / width;
+                sums[cell] += luma;
+                counts[cell]++;
+            }
+        }
+        
+        long hash = 0;
+        for (int r = 0; r < ROWS; r++) {
+            for (int c = 0; c < COLUMNS - 1; c++) {
+                int cell = r * COLUMNS + c;
+                double left = counts[cell] > 0 ? sums[cell] / counts[cell] : 0;
+                double right = counts[cell + 1] > 0 ? sums[cell + 1] / counts[cell + 1] : 0;
+                hash = (hash << 1) | (left > right ? 1 : 0);
+            }
+        }
+        return hash;
+    }
+    
+    static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+    
+    /**
+     * false для однотонных изображений, которые все похожи друг на друга
+     */
+    static boolean isSignificant(long hash) {
+        int bits = Long.bitCount(hash);
+        return bits >= MIN_SIGNIFICANT_BITS && bits <= Long.SIZE - MIN_SIGNIFICANT_BITS;
+    }
+}
@@ -0,0 +1,339 @@
+package com.app.service;
+
+import com.app.dto.PossibleDuplicateResponse;
+import com.app.model.Activity;
+import com.app.model.ActivityPhoto;
+import com.app.repository.ActivityPhotoRepository;
+import com.app.repository.ActivityRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Поиск повторно использованных фото для модерации.
+ *
+ * Перцептивные хэши (dHash) всех фото активностей держатся в памяти в
+ * MultiIndexHashTable: поиск похожих на расстоянии до max-distance бит
+ * проверяет малую долю записей и остаётся быстрым на миллионах фото.
+ *
+ * Индекс строится целиком одним курсорным запросом при старте и затем раз в
+ * rebuild-interval-minutes (так из него уходят удалённые активности), а между
+ * перестроениями дочитывает новые строки activity_photos по id — в том числе
+ * сохранённые другими экземплярами приложения. Фото, загруженные до
+ * появления хэшей, дозаполняются в фоне порциями по backfill-batch-size.
+ */
+@Service
+public class PhotoDuplicateIndex {
+    
+    private static final Logger log = LoggerFactory.getLogger(PhotoDuplicateIndex.class);
+    
+    private static final String HASHES_SQL =
+            "SELECT activity_id, perceptual_hash, id FROM activity_photos " +
+            "WHERE perceptual_hash IS NOT NULL AND id > ? ORDER BY id";
+    
+    // Identity ids are taken at insert but become visible at commit (and on the replica later still),
+    // so rows just below the high-water mark can appear after it was read
+    private static final long CATCH_UP_OVERLAP = 1000;
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private ActivityRepository activityRepository;
+    
+    @Autowired
+    private ActivityPhotoRepository activityPhotoRepository;
+    
+    @Autowired
+    private ImageService imageService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${app.photo-duplicates.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.photo-duplicates.max-distance:10}")
+    private int maxDistance;
+    
+    @Value("${app.photo-duplicates.max-results:5}")
+    private int maxResults;
+    
+    @Value("${app.photo-duplicates.rebuild-interval-minutes:360}")
+    private long rebuildIntervalMinutes;
+    
+    @Value("${app.photo-duplicates.backfill-batch-size:100}")
+    private int backfillBatchSize;
+    
+    @Value("${app.export.fetch-size:1000}")
+    private int fetchSize;
+    
+    private JdbcTemplate cursorJdbcTemplate;
+    
+    private TransactionTemplate readOnlyTransaction;
+    
+    // Readers search under the read lock; catch-up and backfill insert under the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    // null until the first build finishes: no duplicates are reported meanwhile
+    private volatile MultiIndexHashTable index;
+    
+    // Only touched by the scheduler thread (refresh is synchronized)
+    private long highWaterId;
+    
+    private long backfilledUpToId;
+    
+    private Instant lastRebuildAt;
+    
+    @PostConstruct
+    void init() {
+        cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        cursorJdbcTemplate.setFetchSize(fetchSize);
+        
+        // PostgreSQL only uses a server-side cursor when autocommit is off
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        
+        Gauge.builder("app.photo-duplicates.index.size", this, self -> {
+                    MultiIndexHashTable current = self.index;
+                    return current != null ? current.size() : 0;
+                })
+                .description("Distinct (photo hash, activity) pairs in the duplicate index")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Перестроить индекс, если пора, иначе дочитать новые фото; затем дозаполнить порцию хэшей
+     */
+    @Scheduled(fixedDelayString = "${app.photo-duplicates.refresh-interval-ms:10000}")
+    public synchronized void refresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Instant now = Instant.now();
+            if (index == null || now.isAfter(lastRebuildAt.plus(rebuildIntervalMinutes, ChronoUnit.MINUTES))) {
+                rebuild();
+                lastRebuildAt = now;
+            } else {
+                catchUp();
+            }
+            backfill();
+        } catch (RuntimeException e) {
+            log.warn("Photo duplicate index refresh failed: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Другие активности с похожими фото для каждой активности страницы, от самых похожих.
+     * Найденные активности загружаются одним запросом на всю страницу; пусто, пока индекс не построен
+     *
+     * @return id активности -> возможные дубликаты (только для активностей, у которых они есть)
+     */
+    public Map<Long, List<PossibleDuplicateResponse>> findPossibleDuplicates(List<Activity> activities) {
+        Map<Long, List<PossibleDuplicateResponse>> result = new HashMap<>();
+        MultiIndexHashTable current = index;
+        if (current == null) {
+            return result;
+        }
+        
+        Map<Long, List<Match>> matchesByActivity = new HashMap<>();
+        Set<Long> otherIds = new HashSet<>();
+        for (Activity activity : activities) {
+            List<Match> matches = search(current, activity);
+            if (!matches.isEmpty()) {
+                matchesByActivity.put(activity.getId(), matches);
+                matches.forEach(match -> otherIds.add(match.activityId));
+            }
+        }
+        if (otherIds.isEmpty()) {
+            return result;
+        }
+        
+        // Activities deleted since the last rebuild are still indexed and drop out here
+        Map<Long, Activity> others = activityRepository.findByIdIn(otherIds).stream()
+                .collect(Collectors.toMap(Activity::getId, Function.identity()));
+        
+        matchesByActivity.forEach((activityId, matches) -> {
+            List<PossibleDuplicateResponse> duplicates = new ArrayList<>();
+            for (Match match : matches) {
+                Activity other = others.get(match.activityId);
+                if (other == null) {
+                    continue;
+                }
+                duplicates.add(new PossibleDuplicateResponse(
+                        other.getId(),
+                        other.getParticipant().getId(),
+                        other.getParticipant().getName(),
+                        other.getStatus(),
+                        other.getCreatedAt(),
+                        match.own.getPhotoUrl(),
+                        closestPhotoUrl(other, match.own.getPerceptualHash()),
+                        match.distance
+                ));
+            }
+            if (!duplicates.isEmpty()) {
+                result.put(activityId, duplicates);
+            }
+        });
+        return result;
+    }
+    
+    // The maxResults closest other activities, each with its distance and the own photo that produced it
+    private List<Match> search(MultiIndexHashTable current, Activity activity) {
+        // Loaded before taking the lock: the photos collection may be lazy
+        List<ActivityPhoto> photos = activity.getPhotos().stream()
+                .filter(p -> p.getPerceptualHash() != null && PerceptualHash.isSignificant(p.getPerceptualHash()))
+                .collect(Collectors.toList());
+        if (photos.isEmpty()) {
+            return List.of();
+        }
+        
+        Map<Long, Integer> distances = new HashMap<>();
+        Map<Long, ActivityPhoto> matchedPhotos = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (ActivityPhoto photo : photos) {
+                current.search(photo.getPerceptualHash(), maxDistance, (activityId, distance) -> {
+                    if (activityId != activity.getId() && distance < distances.getOrDefault(activityId, Integer.MAX_VALUE)) {
+                        distances.put(activityId, distance);
+                        matchedPhotos.put(activityId, photo);
+                    }
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        
+        return distances.keySet().stream()
+                .sorted(Comparator.comparing((Long id) -> distances.get(id)).thenComparing(Function.identity()))
+                .limit(maxResults)
+                .map(id -> new Match(id, distances.get(id), matchedPhotos.get(id)))
+                .collect(Collectors.toList());
+    }
+    
+    private String closestPhotoUrl(Activity activity, long hash) {
+        return activity.getPhotos().stream()
+                .filter(p -> p.getPerceptualHash() != null)
+                .min(Comparator.comparingInt(p -> PerceptualHash.distance(p.getPerceptualHash(), hash)))
+                .map(ActivityPhoto::getPhotoUrl)
+                .orElse(null);
+    }
+    
+    private void rebuild() {
+        // Built aside and swapped in: searches keep using the old index during the full scan
+        MultiIndexHashTable rebuilt = new MultiIndexHashTable();
+        highWaterId = load(0, rebuilt::add);
+        index = rebuilt;
+        log.info("Photo duplicate index built: {} entries", rebuilt.size());
+    }
+    
+    private void catchUp() {
+        List<long[]> rows = new ArrayList<>();
+        long maxId = load(Math.max(0, highWaterId - CATCH_UP_OVERLAP), (hash, activityId) -> rows.add(new long[] {hash, activityId}));
+        // The query runs without the lock; only the inserts block searches
+        lock.writeLock().lock();
+        try {
+            for (long[] row : rows) {
+                index.add(row[0], row[1]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        highWaterId = Math.max(highWaterId, maxId);
+    }
+    
+    /**
+     * Прочитать хэши фото с id больше afterId; возвращает наибольший прочитанный id
+     */
+    private long load(long afterId, HashConsumer consumer) {
+        long[] maxId = {afterId};
+        readOnlyTransaction.executeWithoutResult(status -> cursorJdbcTemplate.query(HASHES_SQL, rs -> {
+            long hash = rs.getLong(2);
+            if (PerceptualHash.isSignificant(hash)) {
+                consumer.accept(hash, rs.getLong(1));
+            }
+            maxId[0] = Math.max(maxId[0], rs.getLong(3));
+        }, afterId));
+        return maxId[0];
+    }
+    
+    private interface HashConsumer {
+        void accept(long hash, long activityId);
+    }
+    
+    /**
+     * Посчитать хэши для порции фото, сохранённых до появления хэшей.
+     * Фото, которое не удалось прочитать, пропускается до перезапуска
+     */
+    private void backfill() {
+        if (backfillBatchSize <= 0) {
+            return;
+        }
+        List<ActivityPhoto> photos = activityPhotoRepository.findByIdGreaterThanAndPerceptualHashIsNullOrderByIdAsc(
+                backfilledUpToId, PageRequest.of(0, backfillBatchSize));
+        for (ActivityPhoto photo : photos) {
+            backfilledUpToId = photo.getId();
+            long hash;
+            try {
+                hash = imageService.computePerceptualHash(photo.getPhotoUrl());
+            } catch (IOException | RuntimeException e) {
+                log.debug("Cannot hash photo {}: {}", photo.getId(), e.getMessage());
+                continue;
+            }
+            activityPhotoRepository.updatePerceptualHash(photo.getId(), hash);
+            if (PerceptualHash.isSignificant(hash)) {
+                lock.writeLock().lock();
+                try {
+                    index.add(hash, photo.getActivity().getId());
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+    
+    private static final class Match {
+        
+        private final long activityId;
+        
+        private final int distance;
+        
+        private final ActivityPhoto own;
+        
+        private Match(long activityId, int distance, ActivityPhoto own) {
+            this.activityId = activityId;
+            this.distance = distance;
+            this.own = own;
+        }
+    }
+}
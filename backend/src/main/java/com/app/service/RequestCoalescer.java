@@ -0,0 +1,234 @@
+package com.app.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Объединение одинаковых тяжёлых запросов (single-flight).
+ *
+ * Ключ — endpoint и параметры запроса. Пока результат для ключа
+ * вычисляется, остальные запросы с тем же ключом и той же версией данных
+ * ждут это вычисление, а не запускают своё. Готовый результат отдаётся
+ * повторно, пока не изменилась версия данных ({@link ResourceVersions#tag})
+ * и не истёк maxAge.
+ *
+ * Когда результат устарел, в течение stale-окна запросы получают прежний
+ * результат сразу, а одно пересчитывание идёт в фоне (stale-while-revalidate).
+ * Вместе с результатом возвращается его версия, чтобы ETag ответа
+ * соответствовал телу.
+ *
+ * Метрика app.coalescing.requests с тегами endpoint и outcome показывает,
+ * сколько запросов было посчитано (computed), дождалось чужого вычисления
+ * (joined), получило готовый (fresh) или устаревший (stale) результат.
+ */
+@Service
+public class RequestCoalescer {
+    
+    private static final Logger log = LoggerFactory.getLogger(RequestCoalescer.class);
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${app.coalescing.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.coalescing.max-age-seconds:60}")
+    private long maxAgeSeconds;
+    
+    @Value("${app.coalescing.stale-seconds:5}")
+    private long staleSeconds;
+    
+    @Value("${app.coalescing.refresh-threads:2}")
+    private int refreshThreads;
+    
+    // One slot per endpoint and parameter set; the key space is bounded by endpoints x events
+    private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+    
+    private ExecutorService refreshExecutor;
+    
+    @PostConstruct
+    void init() {
+        refreshExecutor = Executors.newFixedThreadPool(refreshThreads, r -> {
+            Thread thread = new Thread(r, "request-coalescer-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        new ExecutorServiceMetrics(refreshExecutor, "request-coalescer-refresh", Tags.empty()).bindTo(meterRegistry);
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+    
+    /**
+     * Получить результат для endpoint с параметрами params (может быть null)
+     * при версии данных version, вычислив его через loader не более одного
+     * раза на все одновременные запросы
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Result<T> get(String endpoint, Object params, String version, Supplier<T> loader) {
+        if (!enabled) {
+            return new Result<>(loader.get(), version, System.nanoTime());
+        }
+        String key = params != null ? endpoint + '?' + params : endpoint;
+        Slot slot = slots.computeIfAbsent(key, k -> new Slot());
+        
+        CompletableFuture<Result<?>> flight;
+        boolean leader = false;
+        synchronized (slot) {
+            long now = System.nanoTime();
+            Result<?> last = slot.last;
+            if (last != null && last.version.equals(version)
+                    && now - last.startedAt < TimeUnit.SECONDS.toNanos(maxAgeSeconds)) {
+                count(endpoint, "fresh");
+                return (Result<T>) last;
+            }
+            
+            if (last != null && isWithinStaleWindow(slot, last, version, now)) {
+                if (slot.inFlight == null) {
+                    CompletableFuture<Result<?>> refresh = startFlight(slot, version);
+                    refreshExecutor.execute(() -> {
+                        try {
+                            compute(slot, refresh, version, loader);
+                        } catch (RuntimeException e) {
+                            log.warn("Background refresh of {} failed: {}", key, e.getMessage());
+                        }
+                    });
+                }
+                count(endpoint, "stale");
+                return (Result<T>) last;
+            }
+            
+            // A flight started for an older version may not see the latest writes
+            if (slot.inFlight != null && slot.inFlightVersion.equals(version)) {
+                flight = slot.inFlight;
+            } else {
+                flight = startFlight(slot, version);
+                leader = true;
+            }
+        }
+        
+        if (leader) {
+            count(endpoint, "computed");
+            return compute(slot, flight, version, loader);
+        }
+        count(endpoint, "joined");
+        try {
+            return (Result<T>) flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+    
+    private boolean isWithinStaleWindow(Slot slot, Result<?> last, String version, long now) {
+        long staleSince;
+        if (last.version.equals(version)) {
+            staleSince = last.startedAt + TimeUnit.SECONDS.toNanos(maxAgeSeconds);
+        } else {
+            // The data changed at some point after the result was computed; count from when it was first noticed
+            if (slot.changeNoticedAt == 0) {
+                slot.changeNoticedAt = now;
+            }
+            staleSince = slot.changeNoticedAt;
+        }
+        return now - staleSince < TimeUnit.SECONDS.toNanos(staleSeconds);
+    }
+    
+    private CompletableFuture<Result<?>> startFlight(Slot slot, String version) {
+        CompletableFuture<Result<?>> flight = new CompletableFuture<>();
+        slot.inFlight = flight;
+        slot.inFlightVersion = version;
+        return flight;
+    }
+    
+    private <T> Result<T> compute(Slot slot, CompletableFuture<Result<?>> flight, String version, Supplier<T> loader) {
+        long startedAt = System.nanoTime();
+        Result<T> result;
+        try {
+            result = new Result<>(loader.get(), version, startedAt);
+        } catch (RuntimeException | Error e) {
+            synchronized (slot) {
+                if (slot.inFlight == flight) {
+                    slot.inFlight = null;
+                }
+            }
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        synchronized (slot) {
+            if (slot.inFlight == flight) {
+                slot.inFlight = null;
+            }
+            // Flights for different versions may finish out of order; keep the one that started last
+            if (slot.last == null || slot.last.startedAt < startedAt) {
+                slot.last = result;
+                slot.changeNoticedAt = 0;
+            }
+        }
+        flight.complete(result);
+        return result;
+    }
+    
+    private void count(String endpoint, String outcome) {
+        meterRegistry.counter("app.coalescing.requests", "endpoint", endpoint, "outcome", outcome).increment();
+    }
+    
+    private static final class Slot {
+        
+        // All fields are guarded by the slot monitor
+        private Result<?> last;
+        
+        private long changeNoticedAt;
+        
+        private CompletableFuture<Result<?>> inFlight;
+        
+        private String inFlightVersion;
+    }
+    
+    /**
+     * Результат вычисления и версия данных, по которой он построен
+     */
+    public static final class Result<T> {
+        
+        private final T value;
+        
+        private final String version;
+        
+        private final long startedAt;
+        
+        private Result(T value, String version, long startedAt) {
+            this.value = value;
+            this.version = version;
+            this.startedAt = startedAt;
+        }
+        
+        public T getValue() {
+            return value;
+        }
+        
+        public String getVersion() {
+            return version;
+        }
+    }
+}
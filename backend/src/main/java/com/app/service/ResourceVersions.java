@@ -0,0 +1,154 @@
+package com.app.service;
+
+import com.app.config.JacksonConfig;
+import com.app.dto.InvalidationMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletResponse;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Версии ресурсов для ETag и условных GET.
+ *
+ * Сервисы, изменяющие данные, вызывают bump() — версия увеличивается после
+ * коммита транзакции, чтобы не опередить сами данные. Контроллеры вызывают
+ * checkNotModified() до обращения к БД: если If-None-Match совпадает с текущей
+ * версией, ответ 304 отдаётся без запросов и сериализации.
+ *
+ * Версии хранятся в памяти экземпляра. В ETag входит метка запуска, поэтому
+ * после рестарта или на другом экземпляре ETag не совпадёт и ответ будет полным.
+ * Изменения, сделанные на других экземплярах, приходят через {@link CacheInvalidationBus};
+ * если сообщения могли потеряться, увеличивается эпоха и устаревают все версии сразу.
+ */
+@Service
+public class ResourceVersions {
+    
+    public static final String EVENTS = "events";
+    public static final String EVENT_NEWS = "event-news";
+    public static final String ACTIVITY_TYPES = "activity-types";
+    public static final String BONUS_TYPES = "bonus-types";
+    public static final String PARTICIPANTS = "participants";
+    // Activity points, team membership and team names: everything the rankings are computed from
+    public static final String STANDINGS = "standings";
+    
+    private static final String CACHE_CONTROL = "private, no-cache";
+    
+    private final String instanceTag = Long.toString(System.currentTimeMillis(), 36);
+    
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    
+    private final AtomicLong epoch = new AtomicLong();
+    
+    @Autowired
+    private CacheInvalidationBus invalidationBus;
+    
+    @PostConstruct
+    void subscribe() {
+        invalidationBus.subscribe(InvalidationMessage.Type.RESOURCES_CHANGED,
+                message -> increment(message.getResources().toArray(new String[0])));
+        invalidationBus.onResync(epoch::incrementAndGet);
+    }
+    
+    /**
+     * Отметить изменение ресурсов (после коммита текущей транзакции, если она есть)
+     * и сообщить о нём остальным экземплярам
+     */
+    public void bump(String... resources) {
+        invalidationBus.publish(InvalidationMessage.resourcesChanged(Arrays.asList(resources)));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    increment(resources);
+                }
+            });
+        } else {
+            increment(resources);
+        }
+    }
+    
+    /**
+     * Выставить ETag по версиям ресурсов и проверить If-None-Match.
+     * true означает, что статус 304 уже выставлен и контроллер должен вернуть null
+     */
+    public boolean checkNotModified(WebRequest request, String... resources) {
+        return checkNotModified(request, null, resources);
+    }
+    
+    /**
+     * То же для ответов, зависящих от текущего времени: ETag дополнительно меняется
+     * при смене единицы validity (день для серий, минута для активных мероприятий)
+     */
+    public boolean checkNotModified(WebRequest request, ChronoUnit validity, String... resources) {
+        return checkNotModifiedTag(request, tag(validity, resources));
+    }
+    
+    /**
+     * Текущая версия набора ресурсов в виде строки. Её можно передать в
+     * {@link RequestCoalescer}, чтобы ETag и тело ответа соответствовали одной версии
+     */
+    public String tag(ChronoUnit validity, String... resources) {
+        StringBuilder tag = new StringBuilder(instanceTag).append('.').append(epoch.get());
+        for (String resource : resources) {
+            tag.append('-').append(version(resource));
+        }
+        if (validity != null) {
+            long bucket = LocalDateTime.now().truncatedTo(validity).toEpochSecond(ZoneOffset.UTC);
+            tag.append('-').append(Long.toString(bucket, 36));
+        }
+        return tag.toString();
+    }
+    
+    /**
+     * Проверить If-None-Match по заранее полученной версии {@link #tag}
+     */
+    public boolean checkNotModifiedTag(WebRequest request, String tag) {
+        // Let the browser keep the response but revalidate it every time
+        HttpServletResponse response = ((NativeWebRequest) request).getNativeResponse(HttpServletResponse.class);
+        if (response != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        }
+        return request.checkNotModified(etag(request, tag));
+    }
+    
+    /**
+     * Заменить ETag ответа, если тело построено по другой (более старой) версии,
+     * чем проверенная в {@link #checkNotModifiedTag}
+     */
+    public void setTag(WebRequest request, String tag) {
+        HttpServletResponse response = ((NativeWebRequest) request).getNativeResponse(HttpServletResponse.class);
+        if (response != null) {
+            response.setHeader(HttpHeaders.ETAG, etag(request, tag));
+        }
+    }
+    
+    private String etag(WebRequest request, String tag) {
+        // Compact and regular JSON are different representations of the same URL
+        boolean compact = JacksonConfig.isCompactSelected(request.getHeader(HttpHeaders.ACCEPT));
+        return "W/\"" + tag + (compact ? "-c" : "") + '"';
+    }
+    
+    private long version(String resource) {
+        AtomicLong version = versions.get(resource);
+        return version != null ? version.get() : 0;
+    }
+    
+    private void increment(String... resources) {
+        for (String resource : resources) {
+            versions.computeIfAbsent(resource, key -> new AtomicLong()).incrementAndGet();
+        }
+    }
+}
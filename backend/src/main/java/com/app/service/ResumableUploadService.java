@@ -0,0 +1,370 @@
+package com.app.service;
+
+import com.app.dto.CreateUploadRequest;
+import com.app.dto.ImageInfo;
+import com.app.dto.UploadSessionResponse;
+import com.app.exception.UploadOffsetMismatchException;
+import com.app.model.UploadSession;
+import com.app.model.UploadSessionStatus;
+import com.app.repository.UploadSessionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Докачиваемая загрузка фотографий по частям.
+ *
+ * Клиент создаёт сессию с размером файла, отправляет чанки PUT-запросами с
+ * явным смещением и при обрыве узнаёт из статуса, с какого байта продолжить.
+ * Чанки пишутся позиционной записью FileChannel в part-файл вне публичного
+ * каталога загрузок; смещение в БД сдвигается только после fsync, поэтому
+ * оно никогда не опережает данные на диске. Для чанка и для всего файла
+ * можно передать SHA-256.
+ *
+ * Завершение сессии обрабатывает фото (как при обычной загрузке), после чего
+ * его можно привязать к активности по id загрузки. Запись чанка не держит
+ * соединение с БД, а незавершённые и непривязанные загрузки удаляются по
+ * истечении срока сессии.
+ */
+@Service
+public class ResumableUploadService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ResumableUploadService.class);
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    private static final int CLEANUP_BATCH_SIZE = 100;
+    
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-fA-F]{64}");
+    
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+    
+    @Autowired
+    private ImageService imageService;
+    
+    @Value("${app.resumable-upload.temp-path:/app/upload-sessions}")
+    private String tempPath;
+    
+    @Value("${spring.servlet.multipart.max-file-size:10MB}")
+    private DataSize maxFileSize;
+    
+    @Value("${app.resumable-upload.max-chunk-size:5MB}")
+    private DataSize maxChunkSize;
+    
+    @Value("${app.resumable-upload.session-ttl-hours:24}")
+    private long sessionTtlHours;
+    
+    /**
+     * Создать сессию загрузки файла размером request.size
+     */
+    public UploadSessionResponse createSession(Long participantId, CreateUploadRequest request) {
+        if (request.getSize() == null || request.getSize() <= 0) {
+            throw new RuntimeException("File size must be positive");
+        }
+        if (request.getSize() > maxFileSize.toBytes()) {
+            throw new RuntimeException("File is too large, maximum is " + maxFileSize.toMegabytes() + " MB");
+        }
+        if (request.getSha256() != null && !SHA256_HEX.matcher(request.getSha256()).matches()) {
+            throw new RuntimeException("sha256 must be 64 hex characters");
+        }
+        
+        UploadSession session = new UploadSession();
+        session.setId(UUID.randomUUID().toString());
+        session.setParticipantId(participantId);
+        session.setFileName(request.getFileName());
+        session.setTotalSize(request.getSize());
+        session.setSha256(request.getSha256() != null ? request.getSha256().toLowerCase() : null);
+        session.setExpiresAt(LocalDateTime.now().plusHours(sessionTtlHours));
+        session = uploadSessionRepository.save(session);
+        
+        try {
+            Files.createDirectories(Paths.get(tempPath));
+            Files.createFile(partFile(session.getId()));
+        } catch (IOException e) {
+            uploadSessionRepository.delete(session);
+            throw new RuntimeException("Failed to create upload: " + e.getMessage(), e);
+        }
+        return toResponse(session);
+    }
+    
+    public UploadSessionResponse getSession(String id, Long participantId) {
+        return toResponse(findSession(id, participantId));
+    }
+    
+    /**
+     * Записать чанк, начинающийся с байта offset.
+     *
+     * Смещение должно совпадать с уже принятым объёмом, иначе — 409 с текущим
+     * смещением (например, если повтор чанка пришёл после того, как исходный
+     * запрос всё же дошёл). Если передан chunkSha256 и он не совпал, чанк не
+     * засчитывается и его можно отправить заново.
+     *
+     * @param contentLength длина тела запроса или -1, если неизвестна
+     */
+    public UploadSessionResponse appendChunk(String id, Long participantId, long offset, long contentLength,
+                                             String chunkSha256, InputStream body) {
+        UploadSession session = findSession(id, participantId);
+        if (session.getStatus() != UploadSessionStatus.UPLOADING) {
+            throw new RuntimeException("Upload is already completed");
+        }
+        if (offset != session.getReceivedBytes()) {
+            throw new UploadOffsetMismatchException(session.getReceivedBytes());
+        }
+        long limit = Math.min(session.getTotalSize() - offset, maxChunkSize.toBytes());
+        if (contentLength > limit) {
+            throw new RuntimeException("Chunk is too large: at most " + limit + " bytes can be written at offset " + offset);
+        }
+        
+        MessageDigest digest = sha256();
+        long written;
+        try (FileChannel channel = FileChannel.open(partFile(id), StandardOpenOption.WRITE)) {
+            // Two requests for the same upload (e.g. a retry racing the original) must not interleave their writes
+            FileLock lock;
+            try {
+                lock = channel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                lock = null;
+            }
+            if (lock == null) {
+                throw new RuntimeException("Another chunk of this upload is being written");
+            }
+            // The previous holder of the lock may have just accepted this very chunk
+            long receivedBytes = findSession(id, participantId).getReceivedBytes();
+            if (offset != receivedBytes) {
+                throw new UploadOffsetMismatchException(receivedBytes);
+            }
+            
+            written = write(body, channel, offset, limit, digest);
+            if (written == 0) {
+                throw new RuntimeException("Chunk is empty");
+            }
+            if (contentLength >= 0 && written != contentLength) {
+                throw new RuntimeException("Chunk is incomplete: received " + written + " of " + contentLength + " bytes");
+            }
+            if (chunkSha256 != null && !chunkSha256.equalsIgnoreCase(HexFormat.of().formatHex(digest.digest()))) {
+                throw new RuntimeException("Chunk checksum mismatch");
+            }
+            // The offset recorded below must never run ahead of what is durably on disk
+            channel.force(false);
+            if (uploadSessionRepository.advance(id, offset, offset + written) == 0) {
+                throw new UploadOffsetMismatchException(findSession(id, participantId).getReceivedBytes());
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write chunk: " + e.getMessage(), e);
+        }
+        session.setReceivedBytes(offset + written);
+        return toResponse(session);
+    }
+    
+    /**
+     * Завершить загрузку: проверить размер и SHA-256 файла и сохранить фото.
+     * Повторный вызов возвращает уже сохранённое фото
+     */
+    public UploadSessionResponse complete(String id, Long participantId) {
+        UploadSession session = findSession(id, participantId);
+        if (session.getStatus() != UploadSessionStatus.UPLOADING) {
+            return toResponse(session);
+        }
+        if (session.getReceivedBytes() < session.getTotalSize()) {
+            throw new RuntimeException("Upload is incomplete: received " + session.getReceivedBytes()
+                    + " of " + session.getTotalSize() + " bytes");
+        }
+        
+        Path part = partFile(id);
+        ImageInfo photo;
+        try {
+            // Bytes past the end may remain from a rejected chunk
+            try (FileChannel channel = FileChannel.open(part, StandardOpenOption.WRITE)) {
+                channel.truncate(session.getTotalSize());
+            }
+            if (session.getSha256() != null && !session.getSha256().equals(sha256Of(part))) {
+                // Which chunk is wrong is unknown: the upload has to start over
+                abort(session);
+                throw new RuntimeException("File checksum mismatch, upload the file again");
+            }
+            photo = imageService.saveActivityImage(part, session.getFileName());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to process uploaded photo: " + e.getMessage(), e);
+        }
+        
+        if (uploadSessionRepository.markCompleted(id, photo.getUrl(),
+                photo.getWidth(), photo.getHeight(), photo.getPlaceholder(), photo.getPerceptualHash()) == 0) {
+            // A concurrent completion won; keep its photo
+            deleteQuietly(photo.getUrl());
+            return toResponse(findSession(id, participantId));
+        }
+        deletePartQuietly(id);
+        session.setStatus(UploadSessionStatus.COMPLETED);
+        session.setPhotoUrl(photo.getUrl());
+        session.setPhotoWidth(photo.getWidth());
+        session.setPhotoHeight(photo.getHeight());
+        session.setPhotoPlaceholder(photo.getPlaceholder());
+        session.setPhotoHash(photo.getPerceptualHash());
+        return toResponse(session);
+    }
+    
+    /**
+     * Отменить загрузку и удалить её файлы
+     */
+    public void cancel(String id, Long participantId) {
+        UploadSession session = findSession(id, participantId);
+        if (session.getStatus() == UploadSessionStatus.ATTACHED) {
+            throw new RuntimeException("Upload is already attached to an activity");
+        }
+        abort(session);
+    }
+    
+    /**
+     * Привязать завершённые загрузки участника к создаваемой активности.
+     * Вызывается в транзакции создания активности; возвращает фото в порядке uploadIds
+     */
+    @Transactional
+    public List<ImageInfo> attach(List<String> uploadIds, Long participantId) {
+        if (uploadIds == null || uploadIds.isEmpty()) {
+            return List.of();
+        }
+        List<String> ids = uploadIds.stream().distinct().collect(Collectors.toList());
+        Map<String, UploadSession> sessions = uploadSessionRepository.findByIdIn(ids).stream()
+                .collect(Collectors.toMap(UploadSession::getId, Function.identity()));
+        if (uploadSessionRepository.attach(ids, participantId, LocalDateTime.now()) != ids.size()) {
+            throw new RuntimeException("Upload not found or not completed");
+        }
+        return ids.stream()
+                .map(sessions::get)
+                .map(s -> new ImageInfo(s.getPhotoUrl(), s.getPhotoWidth(), s.getPhotoHeight(),
+                        s.getPhotoPlaceholder(), s.getPhotoHash()))
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Удалить истёкшие сессии вместе с part-файлами и непривязанными фото
+     */
+    @Scheduled(fixedDelayString = "${app.resumable-upload.cleanup-interval-ms:3600000}")
+    public void deleteExpiredSessions() {
+        List<UploadSession> expired;
+        do {
+            expired = uploadSessionRepository.findTop100ByExpiresAtBefore(LocalDateTime.now());
+            for (UploadSession session : expired) {
+                abort(session);
+            }
+        } while (expired.size() == CLEANUP_BATCH_SIZE);
+    }
+    
+    private void abort(UploadSession session) {
+        deletePartQuietly(session.getId());
+        if (session.getStatus() == UploadSessionStatus.COMPLETED) {
+            deleteQuietly(session.getPhotoUrl());
+        }
+        uploadSessionRepository.delete(session);
+    }
+    
+    private long write(InputStream body, FileChannel channel, long offset, long limit, MessageDigest digest)
+            throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long written = 0;
+        int read;
+        while ((read = body.read(buffer)) != -1) {
+            if (written + read > limit) {
+                throw new RuntimeException("Chunk is too large: at most " + limit + " bytes can be written at offset " + offset);
+            }
+            digest.update(buffer, 0, read);
+            ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, read);
+            while (bytes.hasRemaining()) {
+                written += channel.write(bytes, offset + written);
+            }
+        }
+        return written;
+    }
+    
+    private String sha256Of(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    private UploadSession findSession(String id, Long participantId) {
+        UploadSession session = uploadSessionRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Upload not found"));
+        if (!session.getParticipantId().equals(participantId)) {
+            throw new RuntimeException("Upload not found");
+        }
+        if (session.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new RuntimeException("Upload has expired");
+        }
+        return session;
+    }
+    
+    private Path partFile(String id) {
+        return Paths.get(tempPath, id + ".part");
+    }
+    
+    private void deletePartQuietly(String id) {
+        try {
+            Files.deleteIfExists(partFile(id));
+        } catch (IOException e) {
+            log.warn("Failed to delete upload part {}: {}", id, e.getMessage());
+        }
+    }
+    
+    private void deleteQuietly(String photoUrl) {
+        try {
+            imageService.deleteImage(photoUrl);
+        } catch (IOException e) {
+            log.warn("Failed to delete photo {}: {}", photoUrl, e.getMessage());
+        }
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private UploadSessionResponse toResponse(UploadSession session) {
+        return new UploadSessionResponse(
+                session.getId(),
+                session.getFileName(),
+                session.getTotalSize(),
+                session.getReceivedBytes(),
+                session.getStatus().name(),
+                session.getPhotoUrl(),
+                session.getExpiresAt()
+        );
+    }
+}
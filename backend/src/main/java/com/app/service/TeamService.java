@@ -4,10 +4,14 @@ import com.app.dto.*;
 import com.app.model.*;
 import com.app.repository.*;
 import com.app.repository.EventParticipantRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.annotation.PostConstruct;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -23,6 +27,9 @@ public class TeamService {
     @Autowired
     private TeamRepository teamRepository;
     
+    @Autowired
+    private ResourceVersions resourceVersions;
+    
     @Autowired
     private TeamParticipantRepository teamParticipantRepository;
     
@@ -38,17 +45,33 @@ public class TeamService {
     @Autowired
     private EventParticipantRepository eventParticipantRepository;
     
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Timer teamRankingsTimer;
+    
+    private Timer regularityStatsTimer;
+    
+    @PostConstruct
+    void initMetrics() {
+        teamRankingsTimer = Timer.builder("app.rankings.compute").tag("ranking", "teams").register(meterRegistry);
+        regularityStatsTimer = Timer.builder("app.rankings.compute").tag("ranking", "team-regularity").register(meterRegistry);
+    }
+    
     /**
      * Получить список всех команд
      * 
      * Возвращает краткую информацию о всех командах в системе.
+     * Выбираются только ID и название, без загрузки сущностей.
      * 
+     * @param page номер страницы (начиная с 0) или null для всего списка
+     * @param size количество элементов на странице
+     * @param sort поле сортировки: id или name, через запятую asc/desc
      * @return список команд с ID и названием
      */
-    public List<TeamListResponse> getAllTeams() {
-        return teamRepository.findAll().stream()
-                .map(t -> new TeamListResponse(t.getId(), t.getName()))
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<TeamListResponse> getAllTeams(Integer page, int size, String sort) {
+        return teamRepository.findListItems(listPage(page, size, sort));
     }
     
     /**
@@ -57,12 +80,18 @@ public class TeamService {
      * Возвращает список команд, привязанных к конкретному событию.
      * 
      * @param eventId идентификатор события
+     * @param page номер страницы (начиная с 0) или null для всего списка
+     * @param size количество элементов на странице
+     * @param sort поле сортировки: id или name, через запятую asc/desc
      * @return список команд события
      */
-    public List<TeamListResponse> getTeamsByEventId(Long eventId) {
-        return teamRepository.findByEventId(eventId).stream()
-                .map(t -> new TeamListResponse(t.getId(), t.getName()))
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<TeamListResponse> getTeamsByEventId(Long eventId, Integer page, int size, String sort) {
+        return teamRepository.findListItemsByEventId(eventId, listPage(page, size, sort));
+    }
+    
+    private static Pageable listPage(Integer page, int size, String sort) {
+        return PageRequests.of(page, size, sort, "id", "id", "name");
     }
     
     /**
@@ -78,11 +107,12 @@ public class TeamService {
      * @return детальная информация о команде
      * @throws RuntimeException если команда не найдена
      */
+    @Transactional(readOnly = true)
     public TeamDetailResponse getTeam(Long id) {
         Team team = teamRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Team not found"));
         
-        List<TeamParticipant> teamParticipants = teamParticipantRepository.findByTeamId(id);
+        List<TeamParticipant> teamParticipants = teamParticipantRepository.findWithParticipantByTeamId(id);
         
         List<TeamParticipantDto> participants = teamParticipants.stream()
                 .map(tp -> new TeamParticipantDto(
@@ -106,6 +136,9 @@ public class TeamService {
                 team.getName(),
                 team.getMotto(),
                 team.getImageUrl(),
+                team.getImageWidth(),
+                team.getImageHeight(),
+                team.getImagePlaceholder(),
                 totalPoints,
                 rank,
                 participants,
@@ -162,6 +195,7 @@ public class TeamService {
         }
         
         team = teamRepository.save(team);
+        resourceVersions.bump(ResourceVersions.STANDINGS);
         
         TeamParticipant creatorParticipant = new TeamParticipant();
         creatorParticipant.setTeam(team);
@@ -215,11 +249,17 @@ public class TeamService {
         if (request.getMotto() != null) {
             team.setMotto(request.getMotto());
         }
-        if (request.getImageUrl() != null) {
+        if (request.getImageUrl() != null && !request.getImageUrl().equals(team.getImageUrl())) {
+            // An image set by URL was not processed here: its size and placeholder are unknown
             team.setImageUrl(request.getImageUrl());
+            team.setImageWidth(null);
+            team.setImageHeight(null);
+            team.setImagePlaceholder(null);
         }
         
-        return teamRepository.save(team);
+        team = teamRepository.save(team);
+        resourceVersions.bump(ResourceVersions.STANDINGS);
+        return team;
     }
     
     /**
@@ -233,23 +273,28 @@ public class TeamService {
     @Transactional
     public void deleteTeam(Long id) {
         teamRepository.deleteById(id);
+        resourceVersions.bump(ResourceVersions.STANDINGS);
     }
     
     /**
      * Обновить изображение команды
      * 
-     * Устанавливает новое изображение для команды.
+     * Устанавливает новое изображение для команды вместе с его размером и заглушкой.
      * 
      * @param id идентификатор команды
-     * @param imageUrl URL загруженного изображения
+     * @param image загруженное изображение
      * @throws RuntimeException если команда не найдена
      */
     @Transactional
-    public void updateTeamImage(Long id, String imageUrl) {
+    public void updateTeamImage(Long id, ImageInfo image) {
         Team team = teamRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Team not found"));
-        team.setImageUrl(imageUrl);
+        team.setImageUrl(image.getUrl());
+        team.setImageWidth(image.getWidth());
+        team.setImageHeight(image.getHeight());
+        team.setImagePlaceholder(image.getPlaceholder());
         teamRepository.save(team);
+        resourceVersions.bump(ResourceVersions.STANDINGS);
     }
     
     /**
@@ -263,6 +308,7 @@ public class TeamService {
     @Transactional
     public void leaveTeam(Long teamId, Long participantId) {
         teamParticipantRepository.deleteByTeamIdAndParticipantId(teamId, participantId);
+        resourceVersions.bump(ResourceVersions.STANDINGS);
     }
     
     /**
@@ -299,6 +345,7 @@ public class TeamService {
         teamParticipant.setParticipant(participant);
         teamParticipant.setRole(TeamRole.PARTICIPANT);
         teamParticipantRepository.save(teamParticipant);
+        resourceVersions.bump(ResourceVersions.STANDINGS);
     }
     
     /**
@@ -312,6 +359,7 @@ public class TeamService {
     @Transactional
     public void removeParticipant(Long teamId, Long participantId) {
         teamParticipantRepository.deleteByTeamIdAndParticipantId(teamId, participantId);
+        resourceVersions.bump(ResourceVersions.STANDINGS);
     }
     
     /**
@@ -322,8 +370,9 @@ public class TeamService {
      * @param teamId идентификатор команды
      * @return список участников с ID, именем и ролью
      */
+    @Transactional(readOnly = true)
     public List<TeamParticipantDto> getTeamParticipants(Long teamId) {
-        return teamParticipantRepository.findByTeamId(teamId).stream()
+        return teamParticipantRepository.findWithParticipantByTeamId(teamId).stream()
                 .map(tp -> new TeamParticipantDto(
                         tp.getParticipant().getId(),
                         tp.getParticipant().getName(),
@@ -340,7 +389,12 @@ public class TeamService {
      * 
      * @return список команд с рейтингом, отсортированный по баллам (убывание)
      */
+    @Transactional(readOnly = true)
     public List<TeamRankingResponse> getTeamRankings() {
+        return teamRankingsTimer.record(this::computeTeamRankings);
+    }
+    
+    private List<TeamRankingResponse> computeTeamRankings() {
         List<Team> teams = teamRepository.findAll();
         List<TeamRankingResponse> rankings = new ArrayList<>();
         
@@ -412,7 +466,12 @@ public class TeamService {
      * 
      * @return список команд со статистикой регулярности, отсортированный по баллам
      */
+    @Transactional(readOnly = true)
     public List<TeamRegularityResponse> getTeamRegularityStats() {
+        return regularityStatsTimer.record(this::computeTeamRegularityStats);
+    }
+    
+    private List<TeamRegularityResponse> computeTeamRegularityStats() {
         List<Team> teams = teamRepository.findAll();
         List<TeamRegularityResponse> regularityStats = new ArrayList<>();
         
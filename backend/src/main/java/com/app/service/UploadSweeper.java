@@ -0,0 +1,370 @@
+package com.app.service;
+
+import com.app.dto.EventStorageUsage;
+import com.app.dto.StorageUsageResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Удаление файлов из app.upload.base-path, на которые больше ничего не ссылается,
+ * и учёт занятого места по событиям.
+ *
+ * Файлы остаются после удаления команды или активности, замены изображения
+ * команды и неудачного создания активности. Проход начинается с загрузки всех
+ * URL из activity_photos, activities, teams, events, participants и
+ * upload_sessions в HashMap (URL → событие) одним курсорным запросом, затем
+ * дерево обходится порциями по batch-size файлов за такт, не держа весь
+ * список файлов в памяти. Абсолютные URL сравниваются по пути, как и
+ * относительные /uploads/...
+ *
+ * Удаляются только файлы старше grace-периода: за это время файл, только что
+ * сохранённый для ещё не закоммиченной активности или незавершённой загрузки,
+ * успевает получить ссылку. Перед удалением кандидаты ещё раз проверяются
+ * запросом к БД, так как ссылки загружены в начале прохода.
+ */
+@Service
+public class UploadSweeper {
+    
+    private static final Logger log = LoggerFactory.getLogger(UploadSweeper.class);
+    
+    private static final String URL_PREFIX = "/uploads/";
+    
+    private static final String RAW_REFERENCES_SQL =
+            "SELECT p.photo_url AS url, t.event_id AS event_id FROM activity_photos p " +
+            "JOIN activities a ON a.id = p.activity_id JOIN teams t ON t.id = a.team_id " +
+            "UNION ALL SELECT a.photo_url, t.event_id FROM activities a JOIN teams t ON t.id = a.team_id " +
+            "WHERE a.photo_url IS NOT NULL " +
+            "UNION ALL SELECT image_url, event_id FROM teams WHERE image_url IS NOT NULL " +
+            "UNION ALL SELECT image_url, id FROM events WHERE image_url IS NOT NULL " +
+            "UNION ALL SELECT banner_image_url, id FROM events WHERE banner_image_url IS NOT NULL " +
+            "UNION ALL SELECT logo_url, id FROM events WHERE logo_url IS NOT NULL " +
+            "UNION ALL SELECT profile_image_url, NULL FROM participants WHERE profile_image_url IS NOT NULL " +
+            "UNION ALL SELECT photo_url, NULL FROM upload_sessions WHERE photo_url IS NOT NULL";
+    
+    // Absolute URLs (http(s)://host/uploads/...) are compared by their path, like relative ones
+    private static final String REFERENCES_SQL =
+            "SELECT regexp_replace(ref.url, '^https?://[^/]+', '') AS url, ref.event_id " +
+            "FROM (" + RAW_REFERENCES_SQL + ") ref";
+    
+    private static final String CONFIRM_SQL = "SELECT refs.url FROM (" + REFERENCES_SQL + ") refs WHERE refs.url IN (:urls)";
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${app.upload.base-path:/app/uploads}")
+    private String uploadBasePath;
+    
+    @Value("${app.upload-gc.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.upload-gc.dry-run:false}")
+    private boolean dryRun;
+    
+    @Value("${app.upload-gc.grace-hours:48}")
+    private long graceHours;
+    
+    @Value("${app.upload-gc.batch-size:1000}")
+    private int batchSize;
+    
+    @Value("${app.upload-gc.cycle-interval-minutes:360}")
+    private long cycleIntervalMinutes;
+    
+    @Value("${app.export.fetch-size:1000}")
+    private int fetchSize;
+    
+    private JdbcTemplate cursorJdbcTemplate;
+    
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+    
+    private TransactionTemplate readOnlyTransaction;
+    
+    private final AtomicLong referencedBytes = new AtomicLong();
+    
+    private final AtomicLong unreferencedBytes = new AtomicLong();
+    
+    // Only touched by the scheduler thread (the method is synchronized)
+    private Sweep current;
+    
+    private Instant lastCycleStartedAt;
+    
+    private volatile StorageUsageResponse lastReport;
+    
+    @PostConstruct
+    void init() {
+        cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        cursorJdbcTemplate.setFetchSize(fetchSize);
+        namedJdbcTemplate = new NamedParameterJdbcTemplate(new JdbcTemplate(dataSource));
+        
+        // PostgreSQL only uses a server-side cursor when autocommit is off
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        
+        Gauge.builder("app.uploads.storage.bytes", referencedBytes, AtomicLong::get)
+                .tag("kind", "referenced")
+                .description("Bytes under the upload directory as of the last completed sweep")
+                .register(meterRegistry);
+        Gauge.builder("app.uploads.storage.bytes", unreferencedBytes, AtomicLong::get)
+                .tag("kind", "unreferenced")
+                .register(meterRegistry);
+    }
+    
+    @PreDestroy
+    synchronized void stop() {
+        if (current != null) {
+            current.close();
+        }
+    }
+    
+    /**
+     * Последний завершённый отчёт о занятом месте (null до окончания первого прохода)
+     */
+    public StorageUsageResponse getStorageUsage() {
+        return lastReport;
+    }
+    
+    /**
+     * Один такт: обработать до batch-size файлов текущего прохода или начать новый проход
+     */
+    @Scheduled(fixedDelayString = "${app.upload-gc.tick-interval-ms:5000}")
+    public synchronized void sweep() {
+        if (!enabled) {
+            return;
+        }
+        if (current == null) {
+            Instant now = Instant.now();
+            if (lastCycleStartedAt != null && now.isBefore(lastCycleStartedAt.plus(cycleIntervalMinutes, ChronoUnit.MINUTES))) {
+                return;
+            }
+            lastCycleStartedAt = now;
+        }
+        
+        try {
+            if (current == null) {
+                current = new Sweep(Paths.get(uploadBasePath).toAbsolutePath().normalize(), loadReferences());
+            }
+            if (current.advance()) {
+                finish(current);
+                current = null;
+            }
+        } catch (IOException | RuntimeException e) {
+            // The next cycle starts over with fresh references
+            log.warn("Upload sweep failed: {}", e.getMessage());
+            if (current != null) {
+                current.close();
+                current = null;
+            }
+        }
+    }
+    
+    private Map<String, Long> loadReferences() {
+        Map<String, Long> references = new HashMap<>();
+        readOnlyTransaction.executeWithoutResult(status -> cursorJdbcTemplate.query(REFERENCES_SQL, rs -> {
+            String url = rs.getString(1);
+            if (url.startsWith(URL_PREFIX)) {
+                long eventId = rs.getLong(2);
+                references.put(url.substring(URL_PREFIX.length()), rs.wasNull() ? null : eventId);
+            }
+        }));
+        return references;
+    }
+    
+    private void finish(Sweep sweep) {
+        Map<Long, String> eventNames = new HashMap<>();
+        cursorJdbcTemplate.query("SELECT id, name FROM events", rs -> {
+            eventNames.put(rs.getLong(1), rs.getString(2));
+        });
+        
+        List<EventStorageUsage> events = new ArrayList<>();
+        sweep.usageByEvent.forEach((eventId, usage) ->
+                events.add(new EventStorageUsage(eventId, eventId != null ? eventNames.get(eventId) : null, usage[0], usage[1])));
+        events.sort(Comparator.comparing(EventStorageUsage::getBytes).reversed());
+        
+        long referencedFiles = events.stream().mapToLong(EventStorageUsage::getFiles).sum();
+        long referenced = events.stream().mapToLong(EventStorageUsage::getBytes).sum();
+        lastReport = new StorageUsageResponse(sweep.startedAt, LocalDateTime.now(), referencedFiles, referenced,
+                sweep.unreferencedFiles, sweep.unreferencedBytes, sweep.deletedFiles, sweep.deletedBytes, events);
+        referencedBytes.set(referenced);
+        unreferencedBytes.set(sweep.unreferencedBytes);
+        log.info("Upload sweep finished: {} referenced files ({} bytes), {} unreferenced kept, {} deleted ({} bytes){}",
+                referencedFiles, referenced, sweep.unreferencedFiles, sweep.deletedFiles, sweep.deletedBytes,
+                dryRun ? " [dry run]" : "");
+    }
+    
+    private final class Sweep {
+        
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        
+        private final Path base;
+        
+        private final Map<String, Long> references;
+        
+        private final Instant graceCutoff = Instant.now().minus(graceHours, ChronoUnit.HOURS);
+        
+        private final Deque<Path> directories = new ArrayDeque<>();
+        
+        private DirectoryStream<Path> stream;
+        
+        private Iterator<Path> entries;
+        
+        // [files, bytes] per event id; the null key collects files referenced outside events
+        private final Map<Long, long[]> usageByEvent = new HashMap<>();
+        
+        private long unreferencedFiles;
+        
+        private long unreferencedBytes;
+        
+        private long deletedFiles;
+        
+        private long deletedBytes;
+        
+        private Sweep(Path base, Map<String, Long> references) {
+            this.base = base;
+            this.references = references;
+            directories.add(base);
+        }
+        
+        /**
+         * Обработать следующую порцию файлов; true, когда дерево обойдено целиком
+         */
+        boolean advance() throws IOException {
+            Map<String, Path> candidates = new HashMap<>();
+            Map<String, Long> candidateSizes = new HashMap<>();
+            int processed = 0;
+            boolean done = false;
+            
+            while (processed < batchSize) {
+                if (entries == null) {
+                    Path directory = directories.poll();
+                    if (directory == null) {
+                        done = true;
+                        break;
+                    }
+                    try {
+                        // Kept open between ticks: the listing is read lazily, never collected in memory
+                        stream = Files.newDirectoryStream(directory);
+                    } catch (NoSuchFileException e) {
+                        continue;
+                    }
+                    entries = stream.iterator();
+                }
+                if (!entries.hasNext()) {
+                    close();
+                    continue;
+                }
+                
+                Path path = entries.next();
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                } catch (NoSuchFileException e) {
+                    continue;
+                }
+                if (attributes.isDirectory()) {
+                    directories.add(path);
+                    continue;
+                }
+                if (!attributes.isRegularFile()) {
+                    continue;
+                }
+                processed++;
+                
+                String key = base.relativize(path).toString().replace('\\', '/');
+                if (references.containsKey(key)) {
+                    long[] usage = usageByEvent.computeIfAbsent(references.get(key), id -> new long[2]);
+                    usage[0]++;
+                    usage[1] += attributes.size();
+                } else if (attributes.lastModifiedTime().toInstant().isBefore(graceCutoff)) {
+                    candidates.put(URL_PREFIX + key, path);
+                    candidateSizes.put(URL_PREFIX + key, attributes.size());
+                } else {
+                    unreferencedFiles++;
+                    unreferencedBytes += attributes.size();
+                }
+            }
+            
+            if (!candidates.isEmpty()) {
+                deleteUnreferenced(candidates, candidateSizes);
+            }
+            return done;
+        }
+        
+        private void deleteUnreferenced(Map<String, Path> candidates, Map<String, Long> sizes) throws IOException {
+            // References loaded at the start of the cycle may be hours old by now
+            Set<String> stillReferenced = new HashSet<>(namedJdbcTemplate.queryForList(
+                    CONFIRM_SQL, Map.of("urls", candidates.keySet()), String.class));
+            for (Map.Entry<String, Path> candidate : candidates.entrySet()) {
+                long size = sizes.get(candidate.getKey());
+                if (stillReferenced.contains(candidate.getKey())) {
+                    // Counted without an event: the reference appeared after the cycle started
+                    long[] usage = usageByEvent.computeIfAbsent(null, id -> new long[2]);
+                    usage[0]++;
+                    usage[1] += size;
+                    continue;
+                }
+                if (dryRun) {
+                    log.info("Upload sweep (dry run) would delete {}", candidate.getKey());
+                } else if (Files.deleteIfExists(candidate.getValue())) {
+                    meterRegistry.counter("app.uploads.gc.deleted").increment();
+                } else {
+                    continue;
+                }
+                deletedFiles++;
+                deletedBytes += size;
+            }
+        }
+        
+        void close() {
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (IOException e) {
+                    log.debug("Failed to close directory stream: {}", e.getMessage());
+                }
+            }
+            stream = null;
+            entries = null;
+        }
+    }
+}
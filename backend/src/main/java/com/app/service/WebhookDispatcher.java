@@ -0,0 +1,211 @@
+package com.app.service;
+
+import com.app.model.WebhookOutboxMessage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Фоновая доставка webhook-сообщений из outbox.
+ * 
+ * На каждом тике забирает пачку готовых сообщений, группирует их по
+ * endpoint (host:port) и отправляет не более perEndpointConcurrency
+ * запросов на один endpoint одновременно. HTTP-соединения переиспользуются
+ * общим {@link HttpClient}. Неудачные попытки повторяются с экспоненциальной
+ * задержкой, после исчерпания попыток сообщение уходит в DEAD.
+ * 
+ * На каждый endpoint отводится endpointWaitMs: что не успело начаться,
+ * возвращается в outbox до следующего тика, поэтому медленный получатель
+ * не задерживает доставку остальным.
+ */
+@Service
+public class WebhookDispatcher {
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private WebhookOutboxService webhookOutboxService;
+    
+    @Value("${app.webhooks.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.webhooks.batch-size:100}")
+    private int batchSize;
+    
+    @Value("${app.webhooks.dispatcher-threads:8}")
+    private int dispatcherThreads;
+    
+    @Value("${app.webhooks.per-endpoint-concurrency:2}")
+    private int perEndpointConcurrency;
+    
+    @Value("${app.webhooks.connect-timeout-ms:3000}")
+    private long connectTimeoutMs;
+    
+    @Value("${app.webhooks.request-timeout-ms:10000}")
+    private long requestTimeoutMs;
+    
+    @Value("${app.webhooks.endpoint-wait-ms:30000}")
+    private long endpointWaitMs;
+    
+    private ExecutorService executor;
+    
+    private HttpClient httpClient;
+    
+    @PostConstruct
+    void init() {
+        executor = Executors.newFixedThreadPool(dispatcherThreads, r -> {
+            Thread thread = new Thread(r, "webhook-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        new ExecutorServiceMetrics(executor, "webhook-dispatcher", Tags.empty()).bindTo(meterRegistry);
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
+    
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(requestTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+    
+    @Scheduled(fixedDelayString = "${app.webhooks.poll-interval-ms:2000}")
+    public void dispatchPending() {
+        if (!enabled) {
+            return;
+        }
+        // Keep draining while full batches come back so a backlog clears without waiting for the next tick
+        int processed;
+        do {
+            processed = dispatchOnce();
+        } while (processed == batchSize);
+    }
+    
+    /**
+     * Отправить одну пачку сообщений и дождаться результатов, но не дольше
+     * endpointWaitMs плюс таймаут запроса
+     * 
+     * @return количество сообщений, отправка которых была начата
+     */
+    public int dispatchOnce() {
+        List<WebhookOutboxMessage> batch = webhookOutboxService.claimDueBatch(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        
+        Map<String, Queue<WebhookOutboxMessage>> byEndpoint = new LinkedHashMap<>();
+        for (WebhookOutboxMessage message : batch) {
+            byEndpoint.computeIfAbsent(endpointKey(message.getTargetUrl()), k -> new ConcurrentLinkedQueue<>())
+                    .add(message);
+        }
+        
+        // Workers stop taking messages at the deadline; a request already sent may take up to its timeout
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(endpointWaitMs);
+        long waitUntil = deadline + TimeUnit.MILLISECONDS.toNanos(requestTimeoutMs);
+        AtomicInteger released = new AtomicInteger();
+        List<CompletableFuture<Void>> endpoints = new ArrayList<>();
+        for (Queue<WebhookOutboxMessage> queue : byEndpoint.values()) {
+            int workerCount = Math.min(perEndpointConcurrency, queue.size());
+            List<CompletableFuture<Void>> workers = new ArrayList<>();
+            for (int i = 0; i < workerCount; i++) {
+                workers.add(CompletableFuture.runAsync(() -> {
+                    WebhookOutboxMessage message;
+                    while (System.nanoTime() < deadline && (message = queue.poll()) != null) {
+                        deliver(message);
+                    }
+                }, executor));
+            }
+            endpoints.add(CompletableFuture.allOf(workers.toArray(new CompletableFuture[0]))
+                    .whenComplete((ignored, error) -> released.addAndGet(releaseUnsent(queue))));
+        }
+        
+        for (CompletableFuture<Void> endpoint : endpoints) {
+            try {
+                endpoint.get(Math.max(0, waitUntil - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                // The worker finishes in the background; the in-flight lease covers a node dying meanwhile
+            } catch (ExecutionException e) {
+                // deliver() records its own failures
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        // Released messages mean a slow endpoint: stop draining until the next tick
+        return batch.size() - released.get();
+    }
+    
+    private int releaseUnsent(Queue<WebhookOutboxMessage> queue) {
+        List<Long> unsent = new ArrayList<>();
+        WebhookOutboxMessage message;
+        while ((message = queue.poll()) != null) {
+            unsent.add(message.getId());
+        }
+        if (!unsent.isEmpty()) {
+            webhookOutboxService.release(unsent);
+        }
+        return unsent.size();
+    }
+    
+    private void deliver(WebhookOutboxMessage message) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(message.getTargetUrl()))
+                    .timeout(Duration.ofMillis(requestTimeoutMs))
+                    .header("Content-Type", "application/json")
+                    .header("X-Sporttyx-Message-Type", message.getMessageType())
+                    .header("X-Sporttyx-Delivery-Id", String.valueOf(message.getId()))
+                    .POST(HttpRequest.BodyPublishers.ofString(message.getPayload()))
+                    .build();
+            
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            int status = response.statusCode();
+            if (status >= 200 && status < 300) {
+                webhookOutboxService.markDelivered(message.getId());
+            } else {
+                webhookOutboxService.markFailed(message.getId(), "HTTP " + status);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            webhookOutboxService.markFailed(message.getId(), "Interrupted");
+        } catch (Exception e) {
+            webhookOutboxService.markFailed(message.getId(), e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+    
+    private String endpointKey(String targetUrl) {
+        try {
+            URI uri = URI.create(targetUrl);
+            return uri.getHost() + ":" + uri.getPort();
+        } catch (IllegalArgumentException e) {
+            return targetUrl;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.app.service;
+
+import com.app.dto.WebhookOutboxResponse;
+import com.app.model.Activity;
+import com.app.model.Event;
+import com.app.model.WebhookOutboxMessage;
+import com.app.model.WebhookOutboxStatus;
+import com.app.repository.WebhookOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Транзакционный outbox для webhook-интеграций мероприятий.
+ * 
+ * Сообщения пишутся в таблицу webhook_outbox в той же транзакции, что и
+ * изменение активности, поэтому webhook уходит тогда и только тогда, когда
+ * изменение зафиксировано. Доставкой занимается {@link WebhookDispatcher}.
+ */
+@Service
+public class WebhookOutboxService {
+    
+    public static final String ACTIVITY_CREATED = "activity.created";
+    public static final String ACTIVITY_APPROVED = "activity.approved";
+    public static final String ACTIVITY_REJECTED = "activity.rejected";
+    
+    private static final int MAX_ERROR_LENGTH = 2000;
+    
+    @Autowired
+    private WebhookOutboxRepository webhookOutboxRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${app.webhooks.max-attempts:8}")
+    private int maxAttempts;
+    
+    @Value("${app.webhooks.initial-backoff-seconds:5}")
+    private long initialBackoffSeconds;
+    
+    @Value("${app.webhooks.max-backoff-seconds:3600}")
+    private long maxBackoffSeconds;
+    
+    @Value("${app.webhooks.in-flight-lease-seconds:120}")
+    private long inFlightLeaseSeconds;
+    
+    /**
+     * Поставить событие активности в очередь на доставку
+     * 
+     * Должен вызываться внутри транзакции, изменяющей активность.
+     * Ничего не делает, если у мероприятия не настроен webhookUrl.
+     * 
+     * @param activity активность
+     * @param messageType тип сообщения (activity.created, activity.approved, activity.rejected)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueActivityMessage(Activity activity, String messageType) {
+        Event event = activity.getTeam() != null ? activity.getTeam().getEvent() : null;
+        if (event == null || event.getWebhookUrl() == null || event.getWebhookUrl().trim().isEmpty()) {
+            return;
+        }
+        
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("type", messageType);
+        payload.put("eventId", event.getId());
+        payload.put("externalEventId", event.getExternalEventId());
+        payload.put("activityId", activity.getId());
+        payload.put("teamId", activity.getTeam().getId());
+        payload.put("participantId", activity.getParticipant().getId());
+        payload.put("activityType", activity.getActivityType().getName());
+        payload.put("energy", activity.getEnergy());
+        payload.put("durationMinutes", activity.getDurationMinutes());
+        payload.put("status", activity.getStatus().name());
+        payload.put("rejectionReason", activity.getRejectionReason());
+        payload.put("occurredAt", LocalDateTime.now().toString());
+        
+        WebhookOutboxMessage message = new WebhookOutboxMessage();
+        message.setEventId(event.getId());
+        message.setTargetUrl(event.getWebhookUrl().trim());
+        message.setMessageType(messageType);
+        message.setPayload(toJson(payload));
+        
+        webhookOutboxRepository.save(message);
+    }
+    
+    /**
+     * Забрать пачку готовых к отправке сообщений
+     * 
+     * Сообщения блокируются через SKIP LOCKED и сдвигаются на время аренды,
+     * поэтому после падения узла посреди отправки они будут повторены.
+     * 
+     * @param limit максимальный размер пачки
+     * @return сообщения для отправки
+     */
+    @Transactional
+    public List<WebhookOutboxMessage> claimDueBatch(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<WebhookOutboxMessage> batch = webhookOutboxRepository.lockDueMessages(now, limit);
+        LocalDateTime leaseUntil = now.plusSeconds(inFlightLeaseSeconds);
+        for (WebhookOutboxMessage message : batch) {
+            message.setNextAttemptAt(leaseUntil);
+        }
+        return webhookOutboxRepository.saveAll(batch);
+    }
+    
+    @Transactional
+    public void markDelivered(Long messageId) {
+        webhookOutboxRepository.findById(messageId).ifPresent(message -> {
+            message.setStatus(WebhookOutboxStatus.DELIVERED);
+            message.setAttempts(message.getAttempts() + 1);
+            message.setDeliveredAt(LocalDateTime.now());
+            message.setLastError(null);
+            webhookOutboxRepository.save(message);
+        });
+    }
+    
+    /**
+     * Вернуть забранные, но не отправленные сообщения в очередь, не засчитывая попытку
+     */
+    @Transactional
+    public void release(List<Long> messageIds) {
+        LocalDateTime now = LocalDateTime.now();
+        List<WebhookOutboxMessage> messages = webhookOutboxRepository.findAllById(messageIds);
+        for (WebhookOutboxMessage message : messages) {
+            if (message.getStatus() == WebhookOutboxStatus.PENDING) {
+                message.setNextAttemptAt(now);
+            }
+        }
+        webhookOutboxRepository.saveAll(messages);
+    }
+    
+    /**
+     * Зафиксировать неудачную попытку доставки
+     * 
+     * Следующая попытка планируется с экспоненциальной задержкой и джиттером.
+     * После maxAttempts попыток сообщение переводится в DEAD.
+     */
+    @Transactional
+    public void markFailed(Long messageId, String error) {
+        webhookOutboxRepository.findById(messageId).ifPresent(message -> {
+            int attempts = message.getAttempts() + 1;
+            message.setAttempts(attempts);
+            message.setLastError(truncate(error));
+            
+            if (attempts >= maxAttempts) {
+                message.setStatus(WebhookOutboxStatus.DEAD);
+            } else {
+                message.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoffSeconds(attempts)));
+            }
+            webhookOutboxRepository.save(message);
+        });
+    }
+    
+    public List<WebhookOutboxResponse> getDeadMessages(Long eventId) {
+        return webhookOutboxRepository.findByEventIdAndStatusOrderByCreatedAtDesc(eventId, WebhookOutboxStatus.DEAD)
+                .stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Вернуть сообщение из DEAD обратно в очередь
+     */
+    @Transactional
+    public WebhookOutboxResponse retryMessage(Long messageId) {
+        WebhookOutboxMessage message = webhookOutboxRepository.findById(messageId)
+                .orElseThrow(() -> new RuntimeException("Webhook message not found"));
+        
+        if (message.getStatus() != WebhookOutboxStatus.DEAD) {
+            throw new RuntimeException("Only dead webhook messages can be retried");
+        }
+        
+        message.setStatus(WebhookOutboxStatus.PENDING);
+        message.setAttempts(0);
+        message.setNextAttemptAt(LocalDateTime.now());
+        return toResponse(webhookOutboxRepository.save(message));
+    }
+    
+    long backoffSeconds(int attempts) {
+        long exponential = initialBackoffSeconds << Math.min(attempts - 1, 20);
+        long capped = Math.min(exponential, maxBackoffSeconds);
+        // Full jitter in the upper half spreads retries from many failed deliveries
+        return capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+    }
+    
+    private String toJson(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize webhook payload", e);
+        }
+    }
+    
+    private String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+    
+    private WebhookOutboxResponse toResponse(WebhookOutboxMessage message) {
+        return new WebhookOutboxResponse(
+                message.getId(),
+                message.getEventId(),
+                message.getTargetUrl(),
+                message.getMessageType(),
+                message.getStatus().name(),
+                message.getAttempts(),
+                message.getNextAttemptAt(),
+                message.getLastError(),
+                message.getCreatedAt(),
+                message.getDeliveredAt()
+        );
+    }
+}
@@ -0,0 +1,107 @@
+package com.app.service;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.ss.util.NumberToTextConverter;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Построчное чтение первого листа xlsx через SAX (event model POI).
+ *
+ * В памяти держится только текущая строка, поэтому размер файла не влияет
+ * на расход памяти. Числа отдаются без пользовательского формата ячейки.
+ */
+final class XlsxRowReader {
+    
+    /**
+     * Обработчик строки: rowNum начинается с 0, cells содержит первые columns ячеек (null для пустых)
+     */
+    @FunctionalInterface
+    interface RowHandler {
+        void row(int rowNum, String[] cells);
+    }
+    
+    private XlsxRowReader() {
+    }
+    
+    static void readFirstSheet(Path path, int columns, RowHandler handler) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(path.toFile(), PackageAccess.READ)) {
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            XSSFReader reader = new XSSFReader(pkg);
+            StylesTable styles = reader.getStylesTable();
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                throw new RuntimeException("Workbook has no sheets");
+            }
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(styles, null, strings,
+                        new RowCollector(columns, handler), new RawNumberFormatter(), false));
+                parser.parse(new InputSource(sheet));
+            }
+        }
+    }
+    
+    /**
+     * Отдаёт числа без пользовательского формата ячейки (разделители групп,
+     * валюта), чтобы их можно было разобрать независимо от оформления.
+     */
+    private static class RawNumberFormatter extends DataFormatter {
+        
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString,
+                                            boolean use1904Windowing) {
+            if (DateUtil.isADateFormat(formatIndex, formatString)) {
+                return super.formatRawCellContents(value, formatIndex, formatString, use1904Windowing);
+            }
+            return NumberToTextConverter.toText(value);
+        }
+    }
+    
+    private static class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+        
+        private final RowHandler handler;
+        private final String[] cells;
+        private int nextColumn;
+        
+        RowCollector(int columns, RowHandler handler) {
+            this.handler = handler;
+            this.cells = new String[columns];
+        }
+        
+        @Override
+        public void startRow(int rowNum) {
+            Arrays.fill(cells, null);
+            nextColumn = 0;
+        }
+        
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference != null ? new CellReference(cellReference).getCol() : nextColumn;
+            nextColumn = column + 1;
+            if (column < cells.length) {
+                cells[column] = formattedValue;
+            }
+        }
+        
+        @Override
+        public void endRow(int rowNum) {
+            handler.row(rowNum, cells);
+        }
+    }
+}